@@ -0,0 +1,97 @@
+package benchmarks;
+
+import commons.dto.DebtDTO;
+import commons.dto.EventDTO;
+import commons.dto.ExpenseDTO;
+import commons.dto.ParticipantDTO;
+import org.openjdk.jmh.annotations.*;
+import server.entities.debt.Debt;
+import server.entities.debt.DebtDTOMapper;
+import server.entities.event.Event;
+import server.entities.event.EventDTOMapper;
+import server.entities.expense.Expense;
+import server.entities.expense.ExpenseDTOMapper;
+import server.entities.participant.Participant;
+import server.entities.participant.ParticipantDTOMapper;
+import server.service.ActivityTracker;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting lists of entities to DTOs, as done by every controller response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DTOMapperBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private final EventDTOMapper eventDTOMapper = new EventDTOMapper(null, new ActivityTracker(null, null));
+    private final ParticipantDTOMapper participantDTOMapper = new ParticipantDTOMapper(null, null);
+    private final ExpenseDTOMapper expenseDTOMapper = new ExpenseDTOMapper(null, null);
+    private final DebtDTOMapper debtDTOMapper = new DebtDTOMapper(null, null);
+
+    private List<Event> events;
+    private List<Participant> participants;
+    private List<Expense> expenses;
+    private List<Debt> debts;
+
+    /**
+     * Builds size entities of every type
+     */
+    @Setup
+    public void setup() {
+        events = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Event event = new Event("Event " + i, String.format("E%07d", i), LocalDateTime.of(2024, 1, 1, 12, 0));
+            event.setLastActivity(LocalDateTime.of(2024, 1, 2, 12, 0));
+            events.add(event);
+        }
+        participants = SyntheticData.participants(SyntheticData.event(), size);
+        expenses = SyntheticData.expenses(participants, size, 42);
+        debts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            debts.add(new Debt(participants.get(i), participants.get((i + 1) % size), i / 100.0));
+        }
+    }
+
+    /**
+     * @return the mapped events
+     */
+    @Benchmark
+    public List<EventDTO> events() {
+        return events.stream().map(eventDTOMapper::toDTO).toList();
+    }
+
+    /**
+     * @return the mapped participants
+     */
+    @Benchmark
+    public List<ParticipantDTO> participants() {
+        return participants.stream().map(participantDTOMapper::toDTO).toList();
+    }
+
+    /**
+     * @return the mapped expenses
+     */
+    @Benchmark
+    public List<ExpenseDTO> expenses() {
+        return expenses.stream().map(expenseDTOMapper::toDTO).toList();
+    }
+
+    /**
+     * @return the mapped debts
+     */
+    @Benchmark
+    public List<DebtDTO> debts() {
+        return debts.stream().map(debtDTOMapper::toDTO).toList();
+    }
+}
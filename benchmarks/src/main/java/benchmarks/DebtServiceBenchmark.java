@@ -0,0 +1,117 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import server.database.DebtRepository;
+import server.database.EventRepository;
+import server.database.ExpenseRepository;
+import server.database.ParticipantRepository;
+import server.entities.debt.Debt;
+import server.entities.event.Event;
+import server.entities.expense.Expense;
+import server.entities.participant.Participant;
+import server.service.DebtService;
+import server.service.ParticipantService;
+import server.service.settlement.BalanceLedger;
+import server.service.settlement.GreedySettlementStrategy;
+import server.service.settlement.PairwiseSettlementStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures debt generation for a single event, from its balance to the Debt entities,
+ * with the repositories replaced by in-memory stubs.
+ * Settling takes time linear in the number of expenses times the number of debtors per expense.
+ * The legacy case runs the settlement from before the strategies, LegacySettlement, on the same
+ * expenses and debtors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DebtServiceBenchmark {
+    private static final int DEBTORS = 10;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    @Param({GreedySettlementStrategy.NAME, PairwiseSettlementStrategy.NAME, LegacySettlement.NAME})
+    private String strategy;
+
+    private DebtService debtService;
+    private BalanceLedger balanceLedger;
+    private List<Expense> expenses;
+    private List<List<Participant>> expenseDebtors;
+
+    /**
+     * Builds an event with size participants and size expenses,
+     * every expense shared by DEBTORS participants
+     */
+    @Setup
+    public void setup() {
+        Event event = SyntheticData.event();
+        List<Participant> participants = SyntheticData.participants(event, size);
+        expenses = SyntheticData.expenses(participants, size, 42);
+        List<String> names = participants.stream().map(Participant::getName).toList();
+        List<Object[]> payments = new ArrayList<>(size);
+        List<Object[]> debtors = new ArrayList<>(size * DEBTORS);
+        expenseDebtors = new ArrayList<>(size);
+        Random random = new Random(42);
+        for (long id = 0; id < expenses.size(); id++) {
+            Expense expense = expenses.get((int) id);
+            payments.add(new Object[]{id, expense.getPaidBy().getName(), expense.getPrice()});
+            int first = random.nextInt(size);
+            List<Participant> shared = new ArrayList<>(DEBTORS);
+            for (int i = 0; i < Math.min(DEBTORS, size); i++) {
+                debtors.add(new Object[]{id, names.get((first + i) % size)});
+                shared.add(participants.get((first + i) % size));
+            }
+            expenseDebtors.add(shared);
+        }
+
+        ExpenseRepository expenseRepository = Stubs.repository(ExpenseRepository.class, Map.of(
+                "findAllPaymentsInEvent", args -> payments,
+                "findAllDebtorNamesInEvent", args -> debtors
+        ));
+        ParticipantRepository participantRepository = Stubs.repository(ParticipantRepository.class, Map.of(
+                "findAllParticipantNamesInEvent", args -> names,
+                "findAllParticipantsInEvent", args -> participants
+        ));
+        EventRepository eventRepository = Stubs.repository(EventRepository.class, Map.of());
+        DebtRepository debtRepository = Stubs.repository(DebtRepository.class, Map.of());
+
+        balanceLedger = new BalanceLedger(expenseRepository, participantRepository);
+        ParticipantService participantService = new ParticipantService(participantRepository,
+                eventRepository, null, null, balanceLedger, null, null);
+        debtService = new DebtService(debtRepository, participantService, balanceLedger,
+                List.of(new GreedySettlementStrategy(), new PairwiseSettlementStrategy()),
+                GreedySettlementStrategy.NAME);
+    }
+
+    /**
+     * @return the debts generated from the cached balance of the event
+     * @throws Exception if the strategy does not exist
+     */
+    @Benchmark
+    public List<Debt> generateDebts() throws Exception {
+        if (LegacySettlement.NAME.equals(strategy)) return LegacySettlement.calculateDebts(expenses, expenseDebtors);
+        return debtService.generateDebtsFromExpenses(SyntheticData.EVENT_CODE, strategy);
+    }
+
+    /**
+     * @return the debts generated after rebuilding the balance of the event
+     * @throws Exception if the strategy does not exist
+     */
+    @Benchmark
+    public List<Debt> generateDebtsColdBalance() throws Exception {
+        // the legacy settlement has no balance, it always starts from the expenses
+        if (LegacySettlement.NAME.equals(strategy)) return LegacySettlement.calculateDebts(expenses, expenseDebtors);
+        balanceLedger.invalidate(SyntheticData.EVENT_CODE);
+        return debtService.generateDebtsFromExpenses(SyntheticData.EVENT_CODE, strategy);
+    }
+}
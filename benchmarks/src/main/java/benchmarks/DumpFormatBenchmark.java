@@ -0,0 +1,87 @@
+package benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import commons.dto.JSONDumpEventDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import server.service.DumpFormats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures writing and reading a dump of the whole server in each of the supported formats.
+ * The encoded size of the dump, plain and gzipped, is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DumpFormatBenchmark {
+    private static final int EVENT_SIZE = 10;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    @Param({"application/json", "application/x-jackson-smile", "application/cbor"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private List<JSONDumpEventDTO> dump;
+    private byte[] encoded;
+
+    /**
+     * Builds the synthetic dump and encodes it once in the benchmarked format
+     *
+     * @throws IOException if the dump cannot be encoded
+     */
+    @Setup
+    public void setup() throws IOException {
+        DumpFormats dumpFormats = new DumpFormats(new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        mapper = dumpFormats.getMapper(MediaType.valueOf(format));
+        dump = SyntheticData.dump(size, EVENT_SIZE);
+        encoded = mapper.writeValueAsBytes(dump);
+        System.out.printf("%n%s: %d bytes, %d bytes gzipped%n", format, encoded.length, encodeGzip().length);
+    }
+
+    /**
+     * @return the dump encoded in the benchmarked format
+     * @throws IOException if the dump cannot be encoded
+     */
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(dump);
+    }
+
+    /**
+     * @return the dump encoded in the benchmarked format and compressed with gzip
+     * @throws IOException if the dump cannot be encoded
+     */
+    @Benchmark
+    public byte[] encodeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, dump);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the dump decoded from the benchmarked format
+     * @throws IOException if the dump cannot be decoded
+     */
+    @Benchmark
+    public List<JSONDumpEventDTO> decode() throws IOException {
+        return mapper.readValue(encoded, new TypeReference<>() {});
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import server.database.EventRepository;
+import server.service.EventCodeGenerator;
+import server.service.EventService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the generation of event codes, with a repository in which takenCodes codes are taken.
+ * The codes are checked against a filter of the taken codes, only the codes the filter might contain
+ * are looked up in the repository, so the time hardly depends on the number of taken codes.
+ * Run with -t 4 to measure threads generating codes concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodeBenchmark {
+
+    @Param({"0", "100000"})
+    private int takenCodes;
+
+    private EventService eventService;
+
+    /**
+     * Creates the EventService
+     */
+    @Setup
+    public void setup() {
+        List<String> codes = new ArrayList<>(takenCodes);
+        for (int i = 0; i < takenCodes; i++) codes.add(String.format("%08d", i));
+        EventRepository eventRepository = Stubs.repository(EventRepository.class,
+                Map.of("findAllCodes", args -> codes));
+        // sized for many more codes than generated in a run, so the filter is never rebuilt while measuring
+        EventCodeGenerator eventCodeGenerator = new EventCodeGenerator(eventRepository, 50_000_000);
+        eventService = new EventService(eventRepository, null, null, null, null, eventCodeGenerator);
+    }
+
+    /**
+     * @return a new event code
+     */
+    @Benchmark
+    public String generateCode() {
+        return eventService.generateCode();
+    }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.dto.JSONDumpEventDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import server.Main;
+import server.service.JSONDumpService;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating and restoring a dump of the whole server against an in-memory H2 database.
+ * The server holds events of 10 participants and 10 expenses each, size participants and
+ * size expenses in total.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class JSONDumpBenchmark {
+    private static final int EVENT_SIZE = 10;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private JSONDumpService jsonDumpService;
+    private List<JSONDumpEventDTO> dump;
+    private byte[] serializedDump;
+
+    /**
+     * Starts the server on an empty in-memory database and fills it with the synthetic dump
+     *
+     * @throws Exception if the dump cannot be restored
+     */
+    @Setup
+    public void setup() throws Exception {
+        context = new SpringApplicationBuilder(Main.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.h2.console.enabled=false",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        );
+        jsonDumpService = context.getBean(JSONDumpService.class);
+        dump = SyntheticData.dump(size, EVENT_SIZE);
+        serializedDump = context.getBean(ObjectMapper.class).writeValueAsBytes(dump);
+        jsonDumpService.restoreFromDump(dump);
+    }
+
+    /**
+     * Stops the server
+     */
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * @return the dump of the whole server
+     */
+    @Benchmark
+    public List<JSONDumpEventDTO> createDump() {
+        return jsonDumpService.createDump();
+    }
+
+    /**
+     * Replaces the content of the server with the synthetic dump
+     *
+     * @throws Exception if the dump cannot be restored
+     */
+    @Benchmark
+    public void restoreFromDump() throws Exception {
+        jsonDumpService.restoreFromDump(dump);
+    }
+
+    /**
+     * Replaces the content of the server with the synthetic dump, parsed from JSON while restoring
+     *
+     * @throws Exception if the dump cannot be restored
+     */
+    @Benchmark
+    public void restoreFromStream() throws Exception {
+        jsonDumpService.restoreFromDump(new ByteArrayInputStream(serializedDump));
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import server.entities.debt.Debt;
+import server.entities.expense.Expense;
+import server.entities.participant.Participant;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The settlement DebtService used before the settlement strategies, kept as the baseline of
+ * DebtServiceBenchmark. Every expense is split in BigDecimal and every debtor owes every payer
+ * of an expense they share, so an event gets up to one debt per pair of participants.
+ * Saving the debts is left out, the strategies are measured without a database as well.
+ */
+final class LegacySettlement {
+    static final String NAME = "legacy";
+
+    private LegacySettlement() {
+    }
+
+    /**
+     * @param expenses expenses of the event
+     * @param debtors  participants sharing each expense, by the index of the expense
+     * @return one debt per debtor and creditor
+     */
+    static List<Debt> calculateDebts(List<Expense> expenses, List<List<Participant>> debtors) {
+        Map<Participant, Map<Participant, BigDecimal>> debts = new HashMap<>();
+
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            Participant paidBy = expense.getPaidBy();
+            List<Participant> participantList = debtors.get(i);
+
+            BigDecimal total = BigDecimal.valueOf(expense.getPrice());
+            BigDecimal share = total.divide(BigDecimal.valueOf(participantList.size()),
+                    2, RoundingMode.HALF_UP);
+
+            BigDecimal remaining = total.subtract(share.multiply(BigDecimal.valueOf(participantList.size())));
+
+            for (Participant debtor : participantList) {
+                if (!debtor.equals(paidBy)) {
+                    BigDecimal amount = debts.getOrDefault(debtor, new HashMap<>()).getOrDefault(
+                            paidBy, BigDecimal.ZERO);
+                    amount = amount.add(share);
+                    if (remaining.compareTo(BigDecimal.ZERO) > 0) {
+                        amount = amount.add(BigDecimal.valueOf(0.01));
+                        remaining = remaining.subtract(BigDecimal.valueOf(0.01));
+                    }
+                    Map<Participant, BigDecimal> debtorDebts = debts.computeIfAbsent(debtor, k -> new HashMap<>());
+                    debtorDebts.put(paidBy, amount);
+                }
+            }
+        }
+
+        List<Debt> newDebts = new ArrayList<>();
+        for (Participant debtor : debts.keySet()) {
+            Map<Participant, BigDecimal> creditors = debts.get(debtor);
+            for (Participant creditor : creditors.keySet()) {
+                newDebts.add(new Debt(debtor, creditor, creditors.get(creditor).doubleValue()));
+            }
+        }
+        return newDebts;
+    }
+}
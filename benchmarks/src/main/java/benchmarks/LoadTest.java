@@ -0,0 +1,284 @@
+package benchmarks;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import server.Main;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the server running its requests on the pool of platform threads with the server running them
+ * on virtual threads (spring.threads.virtual.enabled), under a growing number of concurrent clients.
+ * <p>
+ * For every mode the server is started on an in-memory H2 database with one event. Every client then
+ * repeatedly fetches the event, its participants and its expenses, which all block on the database,
+ * while a share of the clients instead waits on the long polling debt updates, holding an async slot.
+ * The throughput and the latency percentiles of the fetches are printed per mode and number of clients.
+ * <p>
+ * Run with ./gradlew :benchmarks:loadTest, options are passed with -Pload.args="...":
+ * <ul>
+ *     <li>--modes=platform,virtual  the modes to compare</li>
+ *     <li>--clients=1000,5000,10000 the numbers of concurrent clients</li>
+ *     <li>--warmup=5                seconds before measuring, per number of clients</li>
+ *     <li>--duration=20             seconds of measuring, per number of clients</li>
+ *     <li>--pollers=10              percentage of the clients waiting on long polling instead</li>
+ * </ul>
+ * Thousands of clients need as many open files, raise the limit (ulimit -n) if connections fail.
+ */
+public final class LoadTest {
+    private static final int PARTICIPANTS = 10;
+    private static final int EXPENSES = 50;
+    private static final Pattern CODE = Pattern.compile("\"code\"\\s*:\\s*\"([^\"]+)\"");
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs the load test
+     *
+     * @param args options, see the class documentation
+     * @throws Exception if the server cannot be started or seeded
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Arrays.stream(args)
+                .filter(arg -> arg.startsWith("--") && arg.contains("="))
+                .collect(Collectors.toMap(
+                        arg -> arg.substring(2, arg.indexOf('=')),
+                        arg -> arg.substring(arg.indexOf('=') + 1)));
+        List<String> modes = List.of(options.getOrDefault("modes", "platform,virtual").split(","));
+        List<Integer> clientCounts = Arrays.stream(options.getOrDefault("clients", "1000,5000,10000").split(","))
+                .map(Integer::parseInt)
+                .toList();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "5")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "20")));
+        int pollerPercentage = Integer.parseInt(options.getOrDefault("pollers", "10"));
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %8s %12s %9s %9s %9s %8s",
+                "mode", "clients", "requests/s", "p50 ms", "p99 ms", "max ms", "errors"));
+        for (String mode : modes) {
+            try (ConfigurableApplicationContext context = startServer(mode.equals("virtual"))) {
+                int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                Target target = new Target("http://localhost:" + port + "/api/v1/", seedEvent(port));
+                for (int clients : clientCounts) {
+                    Result result = run(target, clients, clients * pollerPercentage / 100, warmup, duration);
+                    report.add(String.format("%-9s %8d %12.0f %9.1f %9.1f %9.1f %8d",
+                            mode, clients, result.throughput(), result.percentile(50),
+                            result.percentile(99), result.percentile(100), result.errors()));
+                    System.out.println(report.getLast());
+                }
+            }
+        }
+        System.out.println();
+        report.forEach(System.out::println);
+    }
+
+    /**
+     * Starts the server on an empty in-memory database
+     *
+     * @param virtualThreads whether the server runs its requests on virtual threads
+     * @return the running server
+     */
+    private static ConfigurableApplicationContext startServer(boolean virtualThreads) {
+        return new SpringApplicationBuilder(Main.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                "--spring.h2.console.enabled=false",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                // accept every client in both modes, so only the request handling differs
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=10000",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        );
+    }
+
+    /**
+     * Creates the event the clients fetch, with some participants and expenses
+     *
+     * @param port port of the server
+     * @return code of the event
+     * @throws IOException          if the server cannot be reached
+     * @throws InterruptedException if interrupted while waiting for the server
+     */
+    private static String seedEvent(int port) throws IOException, InterruptedException {
+        String url = "http://localhost:" + port + "/api/v1/";
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            String event = post(client, url + "?name=LoadTest", "").body();
+            Matcher matcher = CODE.matcher(event);
+            if (!matcher.find()) throw new IllegalStateException("Unexpected response " + event);
+            String code = matcher.group(1);
+
+            StringBuilder participants = new StringBuilder("[");
+            StringBuilder expenses = new StringBuilder("[");
+            for (int i = 0; i < PARTICIPANTS; i++) {
+                participants.append(i == 0 ? "" : ",").append(String.format(
+                        "{\"name\":\"Participant %d\",\"email\":\"p%d@example.com\",\"iban\":\"\",\"bic\":\"\"}",
+                        i, i));
+            }
+            for (int i = 0; i < EXPENSES; i++) {
+                expenses.append(i == 0 ? "" : ",").append(String.format(
+                        "{\"price\":%d.5,\"item\":\"Item %d\",\"paidByName\":\"Participant %d\"}",
+                        i + 1, i, i % PARTICIPANTS));
+            }
+            post(client, url + URLEncoder.encode(code, StandardCharsets.UTF_8) + "/participant/batch",
+                    participants.append("]").toString());
+            post(client, url + URLEncoder.encode(code, StandardCharsets.UTF_8) + "/expense/batch",
+                    expenses.append("]").toString());
+            return code;
+        }
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String url, String body)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("POST " + url + " returned " + response.statusCode());
+        }
+        return response;
+    }
+
+    /**
+     * Runs clients against the server for the warmup and the measured duration
+     *
+     * @param target   the event the clients fetch
+     * @param clients  number of concurrent clients
+     * @param pollers  number of the clients that wait on long polling instead
+     * @param warmup   time before measuring
+     * @param duration time of measuring
+     * @return the measured latencies of the fetches
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    private static Result run(Target target, int clients, int pollers, Duration warmup, Duration duration)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        List<Samples> latencies = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+
+        // every client is a virtual thread, so the clients themselves are never the bottleneck
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<HttpRequest> fetches = List.of(
+                    target.request(""), target.request("/participant"), target.request("/expense"));
+            HttpRequest poll = target.request("/debt/updates");
+
+            for (int i = 0; i < clients; i++) {
+                if (i < pollers) {
+                    executor.execute(() -> poll(client, poll, measureUntil));
+                } else {
+                    Samples samples = new Samples();
+                    latencies.add(samples);
+                    executor.execute(() -> fetch(client, fetches, measureFrom, measureUntil, samples, errors));
+                }
+            }
+        }
+
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples.values, 0, samples.size))
+                .sorted()
+                .toArray();
+        return new Result(all, duration, errors.get());
+    }
+
+    /**
+     * Fetches the event over and over, recording the latency of every fetch in the measured window
+     */
+    private static void fetch(HttpClient client, List<HttpRequest> fetches, long measureFrom, long measureUntil,
+                              Samples samples, AtomicLong errors) {
+        int sent = 0;
+        for (long now = System.nanoTime(); now < measureUntil; now = System.nanoTime()) {
+            HttpRequest request = fetches.get(sent++ % fetches.size());
+            boolean failed;
+            try {
+                failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (now < measureFrom) continue;
+
+            if (failed) errors.incrementAndGet();
+            else samples.add(System.nanoTime() - now);
+        }
+    }
+
+    /**
+     * Waits on the long polling debt updates over and over, these requests time out after 5 seconds
+     */
+    private static void poll(HttpClient client, HttpRequest poll, long until) {
+        while (System.nanoTime() < until) {
+            try {
+                client.send(poll, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                // the server is overloaded, keep polling like the client does
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record Target(String url, String eventCode) {
+        private HttpRequest request(String path) {
+            return HttpRequest.newBuilder(URI.create(
+                            url + URLEncoder.encode(eventCode, StandardCharsets.UTF_8) + path))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+        }
+    }
+
+    /**
+     * Latencies recorded by one client, only read once the client is done
+     */
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+
+        private void add(long latency) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = latency;
+        }
+    }
+
+    private record Result(long[] sortedLatencies, Duration duration, long errors) {
+        private double throughput() {
+            return sortedLatencies.length / (double) duration.toSeconds();
+        }
+
+        private double percentile(int percentile) {
+            if (sortedLatencies.length == 0) return Double.NaN;
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
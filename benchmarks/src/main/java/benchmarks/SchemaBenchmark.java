@@ -0,0 +1,224 @@
+package benchmarks;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the queries on the rows of one event and the pages of the admin overview
+ * against an in-memory H2 database of events events with 5 participants, 20 expenses and 4 debts each.
+ * The schema is migrated up to schemaVersion: 1 is the schema Hibernate generated before the
+ * migrations existed, latest includes the indexes for the event-scoped queries.
+ * The queries are the SQL of the repository queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class SchemaBenchmark {
+    private static final int PARTICIPANTS = 5;
+    private static final int EXPENSES_PER_PARTICIPANT = 4;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000", "10000", "50000"})
+    private int events;
+
+    @Param({"1", "latest"})
+    private String schemaVersion;
+
+    private Connection connection;
+    private PreparedStatement expenses;
+    private PreparedStatement debts;
+    private PreparedStatement participants;
+    private PreparedStatement pageByName;
+    private PreparedStatement pageByLastActivity;
+    private LocalDateTime start;
+
+    /**
+     * Migrates a new database up to schemaVersion and fills it
+     *
+     * @throws SQLException if the database cannot be filled
+     */
+    @Setup
+    public void setup() throws SQLException {
+        String url = "jdbc:h2:mem:schema-" + events + "-" + schemaVersion + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .target(schemaVersion)
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(url, "sa", "");
+        start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        fill();
+
+        expenses = connection.prepareStatement(
+                "SELECT id, price, item, paid_by_name, date FROM expense WHERE paid_by_event_code = ?");
+        debts = connection.prepareStatement(
+                "SELECT debtor_name, creditor_name, amount, received FROM debt WHERE debtor_event_code = ?");
+        participants = connection.prepareStatement(
+                "SELECT name, email, iban, bic FROM participant WHERE event_code = ?");
+        pageByName = connection.prepareStatement(
+                "SELECT code, name, creation_date, last_activity FROM event "
+                        + "WHERE name >= ? AND (name > ? OR (name = ? AND code > ?)) "
+                        + "ORDER BY name, code FETCH FIRST ? ROWS ONLY");
+        pageByLastActivity = connection.prepareStatement(
+                "SELECT code, name, creation_date, last_activity FROM event "
+                        + "WHERE last_activity >= ? AND (last_activity > ? OR (last_activity = ? AND code > ?)) "
+                        + "ORDER BY last_activity, code FETCH FIRST ? ROWS ONLY");
+    }
+
+    private void fill() throws SQLException {
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement event = connection.prepareStatement(
+                "INSERT INTO event (code, name, creation_date, last_activity) VALUES (?, ?, ?, ?)");
+             PreparedStatement participant = connection.prepareStatement(
+                     "INSERT INTO participant (event_code, name, email, iban, bic) VALUES (?, ?, '', '', '')");
+             PreparedStatement expense = connection.prepareStatement(
+                     "INSERT INTO expense (id, paid_by_event_code, paid_by_name, price, item, date) "
+                             + "VALUES (?, ?, ?, ?, ?, CURRENT_DATE)");
+             PreparedStatement debt = connection.prepareStatement(
+                     "INSERT INTO debt (debtor_event_code, debtor_name, creditor_event_code, creditor_name, "
+                             + "amount, received) VALUES (?, ?, ?, ?, ?, FALSE)")) {
+            long id = 0;
+            for (int i = 0; i < events; i++) {
+                String code = code(i);
+                event.setString(1, code);
+                event.setString(2, "Event " + random.nextInt(events));
+                event.setTimestamp(3, Timestamp.valueOf(start.plusMinutes(i)));
+                event.setTimestamp(4, Timestamp.valueOf(start.plusMinutes(random.nextInt(events))));
+                event.addBatch();
+                for (int p = 0; p < PARTICIPANTS; p++) {
+                    participant.setString(1, code);
+                    participant.setString(2, "Participant " + p);
+                    participant.addBatch();
+                    for (int e = 0; e < EXPENSES_PER_PARTICIPANT; e++) {
+                        expense.setLong(1, id++);
+                        expense.setString(2, code);
+                        expense.setString(3, "Participant " + p);
+                        expense.setDouble(4, random.nextInt(10000) / 100.0);
+                        expense.setString(5, "Item " + e);
+                        expense.addBatch();
+                    }
+                    if (p == 0) continue;
+                    debt.setString(1, code);
+                    debt.setString(2, "Participant " + p);
+                    debt.setString(3, code);
+                    debt.setString(4, "Participant 0");
+                    debt.setDouble(5, random.nextInt(10000) / 100.0);
+                    debt.addBatch();
+                }
+                if (i % 1000 == 999 || i == events - 1) {
+                    event.executeBatch();
+                    participant.executeBatch();
+                    expense.executeBatch();
+                    debt.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Drops the database
+     *
+     * @throws SQLException if the database cannot be dropped
+     */
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    /**
+     * @param blackhole consumes the rows
+     * @throws SQLException if the query fails
+     */
+    @Benchmark
+    public void expensesOfEvent(Blackhole blackhole) throws SQLException {
+        expenses.setString(1, randomCode());
+        consume(expenses, blackhole);
+    }
+
+    /**
+     * @param blackhole consumes the rows
+     * @throws SQLException if the query fails
+     */
+    @Benchmark
+    public void debtsOfEvent(Blackhole blackhole) throws SQLException {
+        debts.setString(1, randomCode());
+        consume(debts, blackhole);
+    }
+
+    /**
+     * @param blackhole consumes the rows
+     * @throws SQLException if the query fails
+     */
+    @Benchmark
+    public void participantsOfEvent(Blackhole blackhole) throws SQLException {
+        participants.setString(1, randomCode());
+        consume(participants, blackhole);
+    }
+
+    /**
+     * @param blackhole consumes the rows
+     * @throws SQLException if the query fails
+     */
+    @Benchmark
+    public void pageOrderedByName(Blackhole blackhole) throws SQLException {
+        String name = "Event " + ThreadLocalRandom.current().nextInt(events);
+        pageByName.setString(1, name);
+        pageByName.setString(2, name);
+        pageByName.setString(3, name);
+        pageByName.setString(4, "");
+        pageByName.setInt(5, PAGE_SIZE);
+        consume(pageByName, blackhole);
+    }
+
+    /**
+     * @param blackhole consumes the rows
+     * @throws SQLException if the query fails
+     */
+    @Benchmark
+    public void pageOrderedByLastActivity(Blackhole blackhole) throws SQLException {
+        Timestamp lastActivity = Timestamp.valueOf(start.plusMinutes(ThreadLocalRandom.current().nextInt(events)));
+        pageByLastActivity.setTimestamp(1, lastActivity);
+        pageByLastActivity.setTimestamp(2, lastActivity);
+        pageByLastActivity.setTimestamp(3, lastActivity);
+        pageByLastActivity.setString(4, "");
+        pageByLastActivity.setInt(5, PAGE_SIZE);
+        consume(pageByLastActivity, blackhole);
+    }
+
+    private String randomCode() {
+        return code(ThreadLocalRandom.current().nextInt(events));
+    }
+
+    private static String code(int i) {
+        return String.format("E%07d", i);
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            int columns = rows.getMetaData().getColumnCount();
+            while (rows.next()) {
+                for (int i = 1; i <= columns; i++) blackhole.consume(rows.getObject(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Creates in-memory stand-ins for the Spring Data repositories, so that services can be
+ * benchmarked without a database.
+ */
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * Creates a repository whose methods answer with the given functions.
+     * Methods without an answer return an empty Optional, an empty collection,
+     * their argument (for save methods) or null.
+     *
+     * @param type    repository interface
+     * @param answers answers by method name, applied to the method arguments
+     * @param <T>     repository type
+     * @return a stub implementing the repository interface
+     */
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) return answer.apply(args);
+            return defaultAnswer(method.getName(), method.getReturnType(), proxy, args);
+        });
+        return type.cast(stub);
+    }
+
+    private static Object defaultAnswer(String name, Class<?> returnType, Object proxy, Object[] args) {
+        switch (name) {
+            case "save", "saveAll":
+                return args[0];
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Stub";
+            default:
+                break;
+        }
+        if (returnType == Optional.class) return Optional.empty();
+        if (returnType == boolean.class) return false;
+        if (returnType == long.class) return 0L;
+        if (Collection.class.isAssignableFrom(returnType) || returnType == Iterable.class) return List.of();
+        return null;
+    }
+}
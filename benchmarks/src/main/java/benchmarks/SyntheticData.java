@@ -0,0 +1,97 @@
+package benchmarks;
+
+import commons.dto.EventDTO;
+import commons.dto.ExpenseDTO;
+import commons.dto.JSONDumpEventDTO;
+import commons.dto.ParticipantDTO;
+import server.entities.event.Event;
+import server.entities.expense.Expense;
+import server.entities.participant.Participant;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible events for the benchmarks.
+ * Expenses are paid by at most PAYERS different participants, like in a real event where a few
+ * people pay for everyone. This keeps the pairwise settlement of the largest events within memory.
+ */
+final class SyntheticData {
+    static final int PAYERS = 50;
+    static final String EVENT_CODE = "BENCHMRK";
+
+    private SyntheticData() {
+    }
+
+    /**
+     * @return an event that is not stored anywhere
+     */
+    static Event event() {
+        return new Event("Benchmark", EVENT_CODE, LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    /**
+     * @param event event to add the participants to
+     * @param size  number of participants
+     * @return participants named P0, P1, ...
+     */
+    static List<Participant> participants(Event event, int size) {
+        List<Participant> participants = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            participants.add(new Participant("P" + i, event, "p" + i + "@splitty.com",
+                    "NL00BANK0123456789", "BANKNL2A"));
+        }
+        return participants;
+    }
+
+    /**
+     * @param participants participants that can pay for the expenses
+     * @param size         number of expenses
+     * @param seed         seed for the prices and payers
+     * @return expenses paid by the first PAYERS participants
+     */
+    static List<Expense> expenses(List<Participant> participants, int size, long seed) {
+        Random random = new Random(seed);
+        int payers = Math.min(participants.size(), PAYERS);
+        List<Expense> expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Participant paidBy = participants.get(random.nextInt(payers));
+            expenses.add(new Expense(random.nextInt(100_000) / 100.0, "Item " + i, paidBy,
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365)));
+        }
+        return expenses;
+    }
+
+    /**
+     * Builds a dump of events with eventSize participants and eventSize expenses each,
+     * adding up to size participants and size expenses in total.
+     *
+     * @param size      total number of participants and of expenses
+     * @param eventSize number of participants and of expenses per event
+     * @return the dump
+     */
+    static List<JSONDumpEventDTO> dump(int size, int eventSize) {
+        Random random = new Random(size);
+        List<JSONDumpEventDTO> dump = new ArrayList<>();
+        for (int e = 0; e * eventSize < size; e++) {
+            int count = Math.min(eventSize, size - e * eventSize);
+            EventDTO eventDTO = new EventDTO("Event " + e, String.format("E%07d", e),
+                    LocalDateTime.of(2024, 1, 1, 12, 0), LocalDateTime.of(2024, 1, 2, 12, 0));
+            List<ParticipantDTO> participantDTOs = new ArrayList<>();
+            List<ExpenseDTO> expenseDTOs = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                participantDTOs.add(new ParticipantDTO("P" + i, "p" + i + "@splitty.com",
+                        "NL00BANK0123456789", "BANKNL2A"));
+            }
+            for (int i = 0; i < count; i++) {
+                expenseDTOs.add(new ExpenseDTO(null, random.nextInt(100_000) / 100.0, "Item " + i,
+                        "P" + random.nextInt(Math.min(count, PAYERS)), LocalDate.of(2024, 1, 1)));
+            }
+            dump.add(new JSONDumpEventDTO(eventDTO, participantDTOs, expenseDTOs, new ArrayList<>()));
+        }
+        return dump;
+    }
+}
@@ -11,6 +11,9 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 
 @Singleton
@@ -18,6 +21,19 @@ public class LanguageManager {
     private String preferencesFilePath;
     private String configFilePath;
     private LanguageOption languageOption;
+    /**
+     * The translations of every language section of the preferences file, parsed once.
+     * Replaced as a whole when the file is modified, and dropped when a language is saved,
+     * so a reader never sees a partly loaded file.
+     */
+    private volatile Translations translations;
+
+    /**
+     * @param modified the last modification time of the file the sections were read from
+     * @param sections immutable map from language to its immutable translations
+     */
+    private record Translations(long modified, Map<String, Map<String, String>> sections) { }
+
     /**
      *
      * @param preferencesFilePath initialize this to create better injection
@@ -85,6 +101,7 @@ public class LanguageManager {
 
             // Write modified JSON back to file
             objectMapper.writeValue(file, rootNode);
+            translations = null;
             setLanguageOption(language);
         } catch (IOException e) {
             e.printStackTrace(); // Handle the exception appropriately in your application
@@ -125,15 +142,12 @@ public class LanguageManager {
 
     public String get(LanguageOption language, String key) {
         try {
-            JsonNode rootNode = getJsonNode(preferencesFilePath);
-
-            //String languageString = rootNode.get("language").asText();
-            String languageString = language.toString();
-            JsonNode languageSection = rootNode.get(languageString);
+            Map<String, String> languageSection = getTranslations(language.toString());
 
             // Get the value associated with the key
-            if(languageSection.has(key)){
-                return languageSection.get(key).asText();
+            String value = languageSection.get(key);
+            if(value != null){
+                return value;
             }else{
                 /**
                  * In case no key-value translation is found, the function return key
@@ -152,6 +166,42 @@ public class LanguageManager {
         }
     }
 
+    /**
+     * Returns the translations of a language, parsing the preferences file only
+     * if it was not parsed yet or has been modified since
+     *
+     * @param language the name of the language section
+     * @return an immutable map from key to translation, empty if the section does not exist
+     * @throws IOException in case the file cannot be read
+     */
+    private Map<String, String> getTranslations(String language) throws IOException {
+        long modified = new File(preferencesFilePath).lastModified();
+        Translations current = translations;
+        if (current == null || current.modified() != modified) {
+            current = new Translations(modified, loadTranslations());
+            translations = current;
+        }
+        return current.sections().getOrDefault(language, Map.of());
+    }
+
+    /**
+     * @return the translations of every language section of the preferences file
+     * @throws IOException in case the file cannot be read
+     */
+    private Map<String, Map<String, String>> loadTranslations() throws IOException {
+        Map<String, Map<String, String>> sections = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = getJsonNode(preferencesFilePath).fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> section = fields.next();
+            if (!section.getValue().isObject()) continue;
+            Map<String, String> values = new HashMap<>();
+            section.getValue().fields()
+                    .forEachRemaining(entry -> values.put(entry.getKey(), entry.getValue().asText()));
+            sections.put(section.getKey(), Map.copyOf(values));
+        }
+        return Map.copyOf(sections);
+    }
+
     /**
      * This is the function used to communicate mostly between the front end and
      * the translation interface. It will translate take the key and call the function get
@@ -16,6 +16,7 @@
 package client;
 
 import client.scenes.*;
+import client.utils.ServerUtils;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
@@ -37,6 +38,7 @@ public class MyModule implements Module {
         binder.bind(AddEditExpenseCtrl.class).in(Scopes.SINGLETON);
         binder.bind(AdminCtrl.class).in(Scopes.SINGLETON);
         binder.bind(AdminPasswordCtrl.class).in(Scopes.SINGLETON);
+        binder.bind(ServerUtils.class).in(Scopes.SINGLETON);
         binder.bind(LanguageManager.class).toInstance(new LanguageManager(
                 "client/src/main/resources/userSettings/userPreferences.json",
                 "client/src/main/resources/userSettings/config.json"
@@ -19,6 +19,7 @@ import javafx.scene.text.Text;
 
 import java.net.URL;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -110,7 +111,7 @@ public class AddEditExpenseCtrl implements DualDataBasedSceneController<EventDTO
         this.event = event;
         this.participants = serverUtils.getParticipants(event.code());
 
-        serverUtils.registerForWebSocketUpdatesOnParticipant(event.code(), event.code(), p -> {
+        serverUtils.registerForWebSocketUpdatesOnParticipant(this, event.code(), p -> {
             Platform.runLater(() -> refresh(this.event, this.expense));
         });
 
@@ -157,7 +158,8 @@ public class AddEditExpenseCtrl implements DualDataBasedSceneController<EventDTO
     }
 
     /**
-     * Refreshes the container for participants. Adds all participants.
+     * Refreshes the container for participants. Adds all participants, and checks the ones sharing
+     * the expense when editing, or everyone when adding.
      */
     private void refreshParticipantContainer() {
         checkboxContainer.getChildren().clear();
@@ -166,11 +168,23 @@ public class AddEditExpenseCtrl implements DualDataBasedSceneController<EventDTO
         for (ParticipantDTO p : participants) {
             String name = p.name();
             CheckBox participantCheckbox = new CheckBox(name);
-            participantCheckbox.setDisable(true);
+            participantCheckbox.setSelected(expense == null || expense.debtorNames().contains(name));
             checkboxContainer.getChildren().add(participantCheckbox);
         }
     }
 
+    /**
+     * @return the names of the participants checked to share the expense
+     */
+    private List<String> selectedDebtorNames() {
+        List<String> names = new ArrayList<>();
+        for (Node node : checkboxContainer.getChildren()) {
+            CheckBox checkBox = (CheckBox) node;
+            if (checkBox.isSelected()) names.add(checkBox.getText());
+        }
+        return names;
+    }
+
     /**
      * Checks if the user-inputted form is valid.
      */
@@ -229,6 +243,17 @@ public class AddEditExpenseCtrl implements DualDataBasedSceneController<EventDTO
             return false;
         }
 
+        return debtorsAreSelected();
+    }
+
+    /**
+     * Checks if at least one participant is selected to share the expense.
+     */
+    private boolean debtorsAreSelected() {
+        if (selectedDebtorNames().isEmpty()) {
+            errorText.setText(lm.get("Please select who shares this expense"));
+            return false;
+        }
         return true;
     }
 
@@ -295,7 +320,7 @@ public class AddEditExpenseCtrl implements DualDataBasedSceneController<EventDTO
      */
     @FXML
     private void goBack() {
-        serverUtils.disconnectWSSession(event.code());
+        serverUtils.disconnectWSSession(this);
         mainCtrl.showEventOverview(event);
     }
 
@@ -310,7 +335,8 @@ public class AddEditExpenseCtrl implements DualDataBasedSceneController<EventDTO
                 String item = whatForField.getText();
                 ParticipantDTO payer = participantMap.get(whoPaidDropdown.getValue());
                 LocalDate date = whenPicker.getValue();
-                ExpenseDTO expenseDTO = new ExpenseDTO(null, price, item, payer.name(), date);
+                ExpenseDTO expenseDTO = new ExpenseDTO(null, price, item, payer.name(), date,
+                        selectedDebtorNames());
                 addExpenseToServer(expenseDTO);
             }
             else {
@@ -323,7 +349,7 @@ public class AddEditExpenseCtrl implements DualDataBasedSceneController<EventDTO
                     String item = whatForField.getText();
                     LocalDate date = whenPicker.getValue();
                     ExpenseDTO expenseDTO = new ExpenseDTO(expense.id(), price, item,
-                            expense.paidByName(), date);
+                            expense.paidByName(), date, selectedDebtorNames());
                     updateExpenseToServer(expenseDTO);
                 }
             }
@@ -3,6 +3,7 @@ package client.scenes;
 import client.LanguageManager;
 import client.interfaces.VoidSceneController;
 import client.utils.ControllerUtils;
+import client.utils.EventIndex;
 import client.utils.ServerUtils;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -11,7 +12,10 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.inject.Inject;
 import commons.dto.EventDTO;
 import commons.dto.JSONDumpEventDTO;
+import commons.dto.WSAction;
+import commons.dto.WSWrapperResponseBody;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -19,9 +23,11 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.layout.GridPane;
 import javafx.scene.text.Text;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
@@ -29,17 +35,26 @@ import javafx.stage.Stage;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.function.BiConsumer;
 
 public class AdminCtrl implements VoidSceneController {
 
+    private static final double EVENT_ROW_HEIGHT = 35;
+    private static final Comparator<EventDTO> BY_TITLE =
+            Comparator.comparing(EventDTO::name, String.CASE_INSENSITIVE_ORDER);
+
     private final ServerUtils serverUtils;
     private final MainCtrl mainCtrl;
     @Inject
     private ControllerUtils controllerUtils;
-    private List<EventDTO> events;
+    private final EventIndex events = new EventIndex(BY_TITLE);
+    // changes received while the events are being fetched, null once they are shown
+    private List<WSWrapperResponseBody<EventDTO>> pendingChanges;
+    private long refreshGeneration;
     @FXML
     private Text adminPanel;
     @FXML
@@ -51,7 +66,13 @@ public class AdminCtrl implements VoidSceneController {
     @FXML
     private Button importEventButton;
     @FXML
-    private GridPane eventGrid;
+    private TableView<EventDTO> eventTable;
+    @FXML
+    private TableColumn<EventDTO, EventDTO> eventNameColumn;
+    @FXML
+    private TableColumn<EventDTO, EventDTO> deleteColumn;
+    @FXML
+    private TableColumn<EventDTO, EventDTO> downloadColumn;
     @FXML
     private ComboBox<String> orderByComboBox;
 
@@ -89,22 +110,98 @@ public class AdminCtrl implements VoidSceneController {
         orderByItems = FXCollections.observableArrayList();
         setLanguageForAllAdminCtrl();
         orderByComboBox.setItems(orderByItems);
+
+        eventTable.setItems(events.getEvents());
+        eventTable.setFixedCellSize(EVENT_ROW_HEIGHT);
+        eventNameColumn.setCellValueFactory(row -> new ReadOnlyObjectWrapper<>(row.getValue()));
+        deleteColumn.setCellValueFactory(row -> new ReadOnlyObjectWrapper<>(row.getValue()));
+        downloadColumn.setCellValueFactory(row -> new ReadOnlyObjectWrapper<>(row.getValue()));
+        eventNameColumn.setCellFactory(column -> new EventButtonCell("edit-button", (button, event) -> {
+            button.setText(event.name());
+            button.setOnAction(e -> mainCtrl.showEventOverview(event));
+        }));
+        deleteColumn.setCellFactory(column -> new EventButtonCell("delete-button", (button, event) -> {
+            button.setText(lm.get("Delete"));
+            button.setOnAction(e -> deleteEvent(event));
+        }));
+        downloadColumn.setCellFactory(column -> new EventButtonCell("edit-button", (button, event) -> {
+            button.setText(lm.get("Download"));
+            button.setOnAction(e -> downloadEvent(event));
+        }));
+    }
+
+    /**
+     * A cell of the event table showing one button, which is reused for every event the cell shows
+     */
+    private static class EventButtonCell extends TableCell<EventDTO, EventDTO> {
+        private final Button button = new Button();
+        private final BiConsumer<Button, EventDTO> show;
+
+        EventButtonCell(String styleClass, BiConsumer<Button, EventDTO> show) {
+            this.show = show;
+            button.getStyleClass().add(styleClass);
+        }
+
+        @Override
+        protected void updateItem(EventDTO event, boolean empty) {
+            super.updateItem(event, empty);
+            if (empty || event == null) {
+                setGraphic(null);
+                return;
+            }
+            show.accept(button, event);
+            setGraphic(button);
+        }
     }
 
     /**
      * Refreshes the page.
-     * Gets all events from server and orders them.
+     * Gets all events from server and orders them. After that, every created, renamed or
+     * deleted event is put in its place in the table, without fetching the other events again.
+     * Changes that arrive while the events are fetched are applied after them, in the order they arrived,
+     * so a change the fetched events do not contain yet is not lost or undone.
      */
     public void refresh() {
-        serverUtils.registerForWebSocketUpdatesForAllEvents(this, q -> Platform.runLater(this::refresh));
-        events = serverUtils.getAllEvents();
-        setLanguageForAllAdminCtrl();
-        orderByComboBox.getSelectionModel().selectFirst();    // default selection
+        long generation = ++refreshGeneration;
+        pendingChanges = new ArrayList<>();
+        serverUtils.registerForWebSocketUpdatesForAllEvents(this,
+                body -> Platform.runLater(() -> onEventChanged(body)));
+        serverUtils.getAllEventsAsync().thenAccept(allEvents -> {
+            if (generation != refreshGeneration) return;
+            events.setAll(allEvents);
+            List<WSWrapperResponseBody<EventDTO>> missed = pendingChanges;
+            pendingChanges = null;
+            missed.forEach(this::onEventChanged);
+            setLanguageForAllAdminCtrl();
+            orderByComboBox.getSelectionModel().selectFirst();    // default selection
+        }).exceptionally(ex -> {
+            // the table keeps the events it showed, later changes are applied to them
+            if (generation == refreshGeneration) pendingChanges = null;
+            return null;
+        });
     }
 
     /**
-     * Orders the list events based on the selected option, and calls addEventsToGrid to show
-     * the new ordering.
+     * Applies a change to one event from the server to the table
+     *
+     * @param body the action and the changed event
+     */
+    private void onEventChanged(WSWrapperResponseBody<EventDTO> body) {
+        if (pendingChanges != null) {
+            pendingChanges.add(body);
+            return;
+        }
+        EventDTO event = body.object();
+        if (event == null || event.code() == null) return;
+        if (body.action() == WSAction.DELETED) {
+            events.remove(event.code());
+        } else {
+            events.put(event);
+        }
+    }
+
+    /**
+     * Orders the events based on the selected option.
      */
     @FXML
     public void orderEvents() {
@@ -112,156 +209,108 @@ public class AdminCtrl implements VoidSceneController {
 
         if (selected != null){
             if(selected.equals(title)) {
-                events.sort(Comparator.comparing(EventDTO::name, String.CASE_INSENSITIVE_ORDER));
+                events.setOrder(BY_TITLE);
             }
             else if(selected.equals(newDate)) {
-                events.sort(Comparator.comparing(EventDTO::creationDate, Comparator.reverseOrder()));
+                events.setOrder(Comparator.comparing(EventDTO::creationDate, Comparator.reverseOrder()));
             }
             else if(selected.equals(oldDate)) {
-                events.sort(Comparator.comparing(EventDTO::creationDate));
+                events.setOrder(Comparator.comparing(EventDTO::creationDate));
             }
             else if(selected.equals(recentActivity)) {
-                events.sort(Comparator.comparing(EventDTO::lastActivity, Comparator.reverseOrder()));
+                events.setOrder(Comparator.comparing(EventDTO::lastActivity, Comparator.reverseOrder()));
             }
             else if(selected.equals(lastActivity)) {
-                events.sort(Comparator.comparing(EventDTO::lastActivity));
+                events.setOrder(Comparator.comparing(EventDTO::lastActivity));
             }
         }
-
-        addEventsToEventGrid();
     }
 
     /**
-     * Adds all events to the eventGrid GridPane.
+     * Asks for confirmation and deletes the event.
+     * The server announces the deletion, which removes the event from the table.
+     *
+     * @param event Event to delete.
      */
-    public void addEventsToEventGrid() {
-        eventGrid.getChildren().clear();
-        for (int i = 0; i < events.size(); i++) {
-            EventDTO e = events.get(i);
-            Button eventNameButton = createEventNameButton(e);
-            Button deleteButton = createDeleteEventButton(e);
-
-            Button downloadButton = new Button(lm.get("Download"));
-            // Download Button
-            try {
-                List<JSONDumpEventDTO> allDumps = serverUtils.getJSON();
-                JSONDumpEventDTO thisDump = null;
-                for (JSONDumpEventDTO body : allDumps) {
-                    if (body.eventDTO().code().equals(e.code()))
-                        thisDump = body;
-                }
-                downloadButton = createDownloadEventButton(thisDump);
+    private void deleteEvent(EventDTO event) {
+        boolean confirmed = controllerUtils.createConfirmationAlert(
+                lm.get("Confirm Deletion"),
+                lm.get("Are you sure you want to delete event '") + event.name() + "'?\n" +
+                        lm.get("This action cannot be undone."));
+        if (confirmed) {
+            if(serverUtils.deleteEvent(event.code())) {
+                Alert alert = controllerUtils.createAlert(Alert.AlertType.CONFIRMATION,
+                        lm.get("Success"),
+                        lm.get("Deleted successfully"),
+                        lm.get("Event '") + event.name() + lm.get("' has been deleted."));
+                alert.showAndWait();
             }
-            catch (Exception ex) {
-                // If server returns an error, disable the download button
-                downloadButton.setDisable(true);
+            else {
+                Alert alert = controllerUtils.createAlert(Alert.AlertType.ERROR,
+                        lm.get("Error"),
+                        lm.get("Deletion unsuccessful"),
+                        lm.get("Event has not been deleted due to an error. Please try again later."));
+                alert.showAndWait();
             }
-
-            eventGrid.add(eventNameButton, 0, i);
-            eventGrid.add(deleteButton, 1, i);
-            eventGrid.add(downloadButton, 2, i);
         }
     }
 
     /**
-     * Creates button with the event's name, that takes the user to the event's page.
-     *
-     * @param event The event to link to.
-     * @return Button Object.
-     */
-    private Button createEventNameButton(EventDTO event) {
-        Button openPage = new Button(event.name());
-        openPage.getStyleClass().add("edit-button");
-        openPage.setOnAction(e -> mainCtrl.showEventOverview(event));
-
-        return openPage;
-    }
-
-    /**
-     * Creates button that deletes the event.
+     * Fetches the JSON of the given event and lets the user save it to a file.
+     * Only the dump of this event is fetched, when it is asked for.
      *
-     * @param event Event to link to.
-     * @return Button Object.
+     * @param event the event to download
      */
-    private Button createDeleteEventButton(EventDTO event) {
-        Button delete = new Button(lm.get("Delete"));
-        delete.getStyleClass().add("delete-button");
-        delete.setOnAction(e -> {
-            boolean confirmed = controllerUtils.createConfirmationAlert(
-                    lm.get("Confirm Deletion"),
-                    lm.get("Are you sure you want to delete event '") + event.name() + "'?\n" +
-                            lm.get("This action cannot be undone."));
-            if (confirmed) {
-                if(serverUtils.deleteEvent(event.code())) {
-                    Alert alert = controllerUtils.createAlert(Alert.AlertType.CONFIRMATION,
-                            lm.get("Success"),
-                            lm.get("Deleted successfully"),
-                            lm.get("Event '") + event.name() + lm.get("' has been deleted."));
-                    alert.showAndWait();
-                }
-                else {
+    public void downloadEvent(EventDTO event) {
+        serverUtils.getJSONOfEventAsync(event.code())
+                .thenAccept(this::saveDump)
+                .exceptionally(ex -> {
                     Alert alert = controllerUtils.createAlert(Alert.AlertType.ERROR,
                             lm.get("Error"),
-                            lm.get("Deletion unsuccessful"),
-                            lm.get("Event has not been deleted due to an error. Please try again later."));
+                            lm.get("Downloading event has failed"),
+                            lm.get("Exception details:\n") + ex.getMessage());
                     alert.showAndWait();
-                }
-            }
-        });
-        return delete;
+                    return null;
+                });
     }
 
     /**
-     * Creates the download button for the given event.
+     * Puts the JSON of an event in a file chosen by the user.
      *
-     * @param event puts the JSON of an event in a file that is downloaded
-     * @return the button
+     * @param event the dump of the event
      */
-    public Button createDownloadEventButton(JSONDumpEventDTO event) {
-        Button get = new Button(lm.get("Download"));
-        get.getStyleClass().add("edit-button");
-        // If the given event is null for any reason, the button is disabled.
-        if (event == null) {
-            get.setDisable(true);
-            return get;
-        }
+    private void saveDump(JSONDumpEventDTO event) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
 
-        get.setOnAction(p -> {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.registerModule(new JavaTimeModule());
+        // Create a file chooser
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(lm.get("Choose Download Location"));
+        fileChooser.setInitialDirectory(new File(System.getProperty("user.home")));
+        fileChooser.getExtensionFilters()
+                .add(new FileChooser.ExtensionFilter("JSON files (*.json)", "*.json"));
 
-            // Create a file chooser
-            FileChooser fileChooser = new FileChooser();
-            fileChooser.setTitle(lm.get("Choose Download Location"));
-            fileChooser.setInitialDirectory(new File(System.getProperty("user.home")));
-            fileChooser.getExtensionFilters()
-                    .add(new FileChooser.ExtensionFilter("JSON files (*.json)", "*.json"));
-
-            File selectedFile = fileChooser.showSaveDialog(mainCtrl.getPrimaryStage());
-
-            if (selectedFile != null) {
-                try {
-                    // Write the JSON to the file using the objectMapper instance
-                    objectMapper.writeValue(selectedFile, event);
-                    refresh();  // refresh events
-                    Alert alert = controllerUtils.createAlert(Alert.AlertType.CONFIRMATION,
-                            lm.get("Success"),
-                            lm.get("Event downloaded successfully"),
-                            selectedFile.toString());
-                    alert.showAndWait();
-                } catch (IOException ex) {
-                    refresh();  // refresh events
-                    Alert alert = controllerUtils.createAlert(Alert.AlertType.ERROR,
-                            lm.get("Error"),
-                            lm.get("Downloading event has failed"),
-                            lm.get("Please check that the program has permissions to download the event") +
-                                    lm.get("to the specified location.\n\n") +
-                                    lm.get("Exception details:\n") + ex.getMessage());
-                    alert.showAndWait();
-                }
+        File selectedFile = fileChooser.showSaveDialog(mainCtrl.getPrimaryStage());
+
+        if (selectedFile != null) {
+            try {
+                // Write the JSON to the file using the objectMapper instance
+                objectMapper.writeValue(selectedFile, event);
+                Alert alert = controllerUtils.createAlert(Alert.AlertType.CONFIRMATION,
+                        lm.get("Success"),
+                        lm.get("Event downloaded successfully"),
+                        selectedFile.toString());
+                alert.showAndWait();
+            } catch (IOException ex) {
+                Alert alert = controllerUtils.createAlert(Alert.AlertType.ERROR,
+                        lm.get("Error"),
+                        lm.get("Downloading event has failed"),
+                        lm.get("Please check that the program has permissions to download the event") +
+                                lm.get("to the specified location.\n\n") +
+                                lm.get("Exception details:\n") + ex.getMessage());
+                alert.showAndWait();
             }
-        });
-        return get;
+        }
     }
 
     /**
@@ -297,11 +346,10 @@ public class AdminCtrl implements VoidSceneController {
             File jsonFile = new File(jsonPath);
             JSONDumpEventDTO event = objectMapper.readValue(jsonFile, JSONDumpEventDTO.class);
 
-            for (EventDTO ev : events) {
-                if (event.eventDTO().code().equals(ev.code())) {
-                    // Event with same code already exists
-                    throw new IllegalArgumentException(ev.name() + " (" + ev.code() + ")");
-                }
+            EventDTO ev = events.get(event.eventDTO().code());
+            if (ev != null) {
+                // Event with same code already exists
+                throw new IllegalArgumentException(ev.name() + " (" + ev.code() + ")");
             }
 
             if (serverUtils.restoreEvent(event)) {
@@ -346,7 +394,6 @@ public class AdminCtrl implements VoidSceneController {
      */
     @FXML
     private void goBack() {
-        serverUtils.disconnectWSSession(this);
         mainCtrl.showStartScreen();
     }
 
@@ -364,6 +411,8 @@ public class AdminCtrl implements VoidSceneController {
         oldDate = lm.get("Creation Date (Oldest)");
         newDate = lm.get("Creation Date (Newest)");
         title = lm.get("Title");
+        eventNameColumn.setText(title);
+        eventTable.refresh();   // shows the buttons in the new language
 
         setOrderOptions();
     }
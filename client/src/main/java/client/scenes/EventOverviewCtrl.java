@@ -6,14 +6,19 @@ import client.utils.ControllerUtils;
 import client.utils.ServerUtils;
 import com.google.inject.Inject;
 import commons.dto.EventDTO;
+import commons.dto.EventDeltaDTO;
+import commons.dto.EventDeltasDTO;
 import commons.dto.ExpenseDTO;
 import commons.dto.ParticipantDTO;
+import commons.dto.WSAction;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.geometry.HPos;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.input.*;
 import javafx.scene.layout.*;
@@ -28,9 +33,16 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
 
+    private static final double EXPENSE_ITEM_HEIGHT = 42;
+
     private final ServerUtils serverUtils;
     private final MainCtrl mainCtrl;
     @Inject
@@ -43,6 +55,10 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
     private List<ParticipantDTO> participants;
     private List<ExpenseDTO> expenses;
 
+    // The expenses shown in expenseListView, the filter is a predicate on all expenses
+    private final ObservableList<ExpenseDTO> expenseModel = FXCollections.observableArrayList();
+    private final FilteredList<ExpenseDTO> filteredExpenses = new FilteredList<>(expenseModel);
+
     @FXML
     private Button sendInvite;
     @FXML
@@ -76,7 +92,7 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
     @FXML
     private Label totalExpensesLabel;
     @FXML
-    private VBox expenseItemContainer;
+    private ListView<ExpenseDTO> expenseListView;
     @FXML
     private Label lastActivityLabel;
     @FXML
@@ -95,6 +111,20 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
 
     private boolean eventWasDeleted = false;
 
+    // Epoch and sequence number of the last change applied to the shown event, -1 while loading
+    private long deltaEpoch;
+    private long deltaSequence = -1;
+
+    // Incremented by every refresh, answers to requests of an older refresh are dropped
+    private long refreshGeneration;
+
+    // Code of the event whose changes are subscribed to, null when none is
+    private String subscribedEventCode;
+
+    // The participant, and the participants of the event, the expenses involving them were last fetched for
+    private String involvingName;
+    private Set<String> involvingParticipants = Set.of();
+
     /**
      * Constructor for the AddEditExpense that calls the method to create the scene
      * @param mainCtrl scene of the mainCtrl class
@@ -114,9 +144,17 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
     public void initialize(URL location, ResourceBundle resources) {
         currentView = View.ALL;
 
+        // Only the visible rows of the list have an ExpenseItem, which is reused while scrolling
+        expenseListView.setItems(filteredExpenses);
+        expenseListView.setCellFactory(list -> new ExpenseCell());
+        expenseListView.setFixedCellSize(EXPENSE_ITEM_HEIGHT + 5);
+
         // Show/Hide expense items based on currentView
         expenseFilterToggleGroup.selectedToggleProperty().addListener(
-                (v, oldValue, newValue) -> refreshExpenseScroller()
+                (v, oldValue, newValue) -> {
+                    involvingName = null;
+                    refreshExpenseFilter();
+                }
         );
 
         // Listener for participantDropdown, sets selectedParticipant and updates radio button text
@@ -125,7 +163,8 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
                     if (participants.isEmpty()) selectedParticipant = null;
                     else selectedParticipant = participants.get(Math.max((Integer) newValue, 0));
                     refreshFilterToggleGroupButtonLabels();
-                    refreshExpenseScroller();
+                    involvingName = null;
+                    refreshExpenseFilter();
                 }
         );
 
@@ -146,61 +185,243 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
     }
 
     /**
-     * Refreshes the page to reflect the current state of the server
+     * Refreshes the page to reflect the current state of the server.
+     * Afterwards the page is kept up to date by applying the changes to the event sent by the server,
+     * see onDeltas.
      * @param event event to which the overview corresponds
      */
     public void refresh(EventDTO event) {
         this.event = event;
         this.eventWasDeleted = false;
+        this.deltaSequence = -1;
+        this.involvingName = null;
+        long generation = ++refreshGeneration;
+
+        if (!event.code().equals(subscribedEventCode)) {
+            serverUtils.disconnectWSSession(this);
+            serverUtils.registerForEventDeltas(
+                    this, event.code(), deltas -> Platform.runLater(() -> onDeltas(deltas)));
+            serverUtils.registerForReconnect(this, () -> Platform.runLater(this::onReconnected));
+            subscribedEventCode = event.code();
+        }
 
-        serverUtils.registerForWebSocketUpdatesForTheWholeEvent(
-                event.code(), event.code(), q-> Platform.runLater(() -> refresh(this.event)));
+        if(firstTimeOpened)
+        {
+            updateAndPrintLastActivity();
+            firstTimeOpened = false;
+        }
+
+        // Fetch the position in the changes first, so that no change made while loading is missed,
+        // then fetch the event, its participants and its expenses in parallel
+        serverUtils.getDeltaPositionAsync(event.code()).thenCompose(position -> {
+            CompletableFuture<EventDTO> syncedEventFuture = serverUtils.getEventAsync(event.code());
+            CompletableFuture<List<ParticipantDTO>> participantsFuture =
+                    serverUtils.getParticipantsAsync(event.code());
+            CompletableFuture<List<ExpenseDTO>> expensesFuture = serverUtils.getExpensesAsync(event.code());
+
+            return CompletableFuture.allOf(syncedEventFuture, participantsFuture, expensesFuture)
+                    .thenRun(() -> {
+                        // a newer refresh, possibly of another event, is already loading
+                        if (generation != refreshGeneration) return;
+                        showEvent(syncedEventFuture.join(), participantsFuture.join(), expensesFuture.join());
+                        if (eventWasDeleted) return;
+                        deltaEpoch = position.epoch();
+                        deltaSequence = position.sequence();
+                        catchUp();
+                    });
+        }).exceptionally(ex -> {
+            if (generation == refreshGeneration) showLoadingFailed(ex);
+            return null;
+        });
+        setLanguageForAllEventOverviewCtrl();
+    }
 
-        participants = serverUtils.getParticipants(event.code());
-        expenses = serverUtils.getExpenses(event.code());
+    /**
+     * Stops listening to the changes of the shown event and drops the answers to pending requests.
+     * Called whenever the user leaves the event, whichever way they do.
+     */
+    public void leave() {
+        refreshGeneration++;
+        deltaSequence = -1;
+        subscribedEventCode = null;
+        serverUtils.disconnectWSSession(this);
+    }
+
+    /**
+     * Tells the user that the event could not be loaded from the server
+     * @param ex the exception of the failed request
+     */
+    private void showLoadingFailed(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        Alert alert = controllerUtils.createAlert(Alert.AlertType.ERROR,
+                lm.get("Error"),
+                lm.get("Loading the event has failed"),
+                lm.get("Exception details:\n") + cause.getMessage());
+        alert.showAndWait();
+    }
+
+    /**
+     * Shows the state of the event as fetched from the server
+     * @param syncedEvent the event, or null if it no longer exists
+     * @param participants the participants of the event
+     * @param expenses the expenses of the event
+     */
+    private void showEvent(EventDTO syncedEvent, List<ParticipantDTO> participants, List<ExpenseDTO> expenses) {
+        this.participants = participants;
+        this.expenses = expenses;
 
         // If participants isn't empty, select the first participant by default
         if(!(participants.isEmpty())) {
             selectedParticipant = participants.getFirst();
         }
 
-        KeyCombination altE = new KeyCodeCombination(KeyCode.E, KeyCombination.ALT_DOWN);
+        if (syncedEvent == null) {
+            showEventDeleted();
+        } else {
+            event = syncedEvent;
+            refreshAll();
+        }
+    }
 
-        if(firstTimeOpened)
-        {
-            updateAndPrintLastActivity();
-            firstTimeOpened = false;
+    /**
+     * Tells the user that the event was deleted and goes back to the start screen
+     */
+    private void showEventDeleted() {
+        this.eventWasDeleted = true;
+        Alert alert = controllerUtils.createAlert(
+                Alert.AlertType.WARNING,
+                lm.get("This event was deleted!"),
+                lm.get("This event got deleted from the server!"),
+                lm.get("This may be an error. Try to connect later or contact our customer service desk!"));
+        alert.showAndWait();
+        mainCtrl.showStartScreen();
+    }
+
+    /**
+     * Redraws the whole page from event, participants and expenses
+     */
+    private void refreshAll() {
+        if (selectedParticipant != null && !participants.contains(selectedParticipant)) {
+            selectedParticipant = participants.stream()
+                    .filter(p -> p.name().equals(selectedParticipant.name()))
+                    .findFirst()
+                    .orElse(participants.isEmpty() ? null : participants.getFirst());
         }
 
-        EventDTO syncedEvent = serverUtils.getEvent(event.code());
-        if (syncedEvent == null && eventWasDeleted) {
-            this.eventWasDeleted = true;
-            Alert alert = controllerUtils.createAlert(
-                    Alert.AlertType.WARNING,
-                    lm.get("This event was deleted!"),
-                    lm.get("This event got deleted from the server!"),
-                    lm.get("This may be an error. Try to connect later or contact our customer service desk!"));
-            alert.showAndWait();
-            mainCtrl.showStartScreen();
-        } else {
-            event = syncedEvent;
-            participants = serverUtils.getParticipants(event.code());
-            expenses = serverUtils.getExpenses(event.code());
+        refreshEventInfoLabel();
+
+        // resizes event title text field to the size of the current text
+        Platform.runLater(() -> resizeEventTitleTextField(eventTitleTextField.getText()));
+
+        refreshParticipantList();
+
+        refreshParticipantDropdown();
 
-            refreshEventInfoLabel();
+        refreshFilterToggleGroupButtonLabels();
 
-            // resizes event title text field to the size of the current text
-            Platform.runLater(() -> resizeEventTitleTextField(eventTitleTextField.getText()));
+        refreshExpenseList();
+    }
 
-            refreshParticipantList();
+    /**
+     * Handles changes to the event sent by the server.
+     * Changes are numbered, so missed changes are fetched with catchUp and changes that
+     * were already applied are skipped. If the server started a new epoch, the event is reloaded.
+     * @param message the changes
+     */
+    private void onDeltas(EventDeltasDTO message) {
+        // a message of an event that was left, sent before its destination was unsubscribed from
+        if (event == null || !event.code().equals(message.eventCode())) return;
+        // while loading, the changes are fetched afterwards
+        if (deltaSequence < 0 || eventWasDeleted) return;
+        if (message.epoch() != deltaEpoch) {
+            refresh(event);
+            return;
+        }
+        if (message.sequence() <= deltaSequence) return;
 
-            refreshParticipantDropdown();
+        long first = message.deltas().isEmpty() ? message.sequence() : message.deltas().getFirst().sequence();
+        if (first > deltaSequence + 1) catchUp();
+        else applyDeltas(message);
+    }
 
-            refreshFilterToggleGroupButtonLabels();
+    /**
+     * Fetches the changes missed while the connection to the server was lost
+     */
+    private void onReconnected() {
+        // while loading, the changes are fetched afterwards
+        if (event == null || deltaSequence < 0 || eventWasDeleted) return;
+        catchUp();
+    }
 
-            refreshExpenseScroller();
+    /**
+     * Fetches and applies all changes after the last applied one,
+     * or reloads the event if the server no longer knows them
+     */
+    private void catchUp() {
+        long epoch = deltaEpoch;
+        long generation = refreshGeneration;
+        serverUtils.getDeltasAsync(event.code(), epoch, deltaSequence).thenAccept(missed -> {
+            if (generation != refreshGeneration || deltaSequence < 0 || eventWasDeleted || epoch != deltaEpoch) return;
+            if (missed == null) refresh(event);
+            else applyDeltas(missed);
+        }).exceptionally(ex -> {
+            if (generation == refreshGeneration) showLoadingFailed(ex);
+            return null;
+        });
+    }
+
+    /**
+     * Applies changes to the shown event and redraws the page.
+     * Changes are applied by replacing the changed entity, so applying one twice has no effect.
+     * @param message the changes
+     */
+    private void applyDeltas(EventDeltasDTO message) {
+        List<EventDeltaDTO> deltas = message.deltas().stream()
+                .filter(delta -> delta.sequence() > deltaSequence)
+                .toList();
+        deltaSequence = Math.max(deltaSequence, message.sequence());
+        if (deltas.isEmpty()) return;
+
+        for (EventDeltaDTO delta : deltas) {
+            if (delta.event() != null && delta.action() == WSAction.DELETED) {
+                showEventDeleted();
+                return;
+            }
+            if (delta.event() != null) event = delta.event();
+            if (delta.participant() != null)
+                participants = applyDelta(participants, delta.action(), delta.participant(), ParticipantDTO::name);
+            if (delta.expense() != null)
+                expenses = applyDelta(expenses, delta.action(), delta.expense(),
+                        expense -> expense.id() + "/" + expense.paidByName());
         }
-        setLanguageForAllEventOverviewCtrl();
+        refreshAll();
+    }
+
+    /**
+     * Applies one change to a list of entities
+     * @param entities the entities before the change
+     * @param action kind of change
+     * @param changed the changed entity
+     * @param key identifies an entity in the list
+     * @param <T> type of the entities
+     * @return the entities after the change, in the same order
+     */
+    private static <T> List<T> applyDelta(List<T> entities, WSAction action, T changed, Function<T, Object> key) {
+        List<T> result = new ArrayList<>(entities);
+        Object changedKey = key.apply(changed);
+        int index = -1;
+        for (int i = 0; i < result.size() && index < 0; i++) {
+            if (changedKey.equals(key.apply(result.get(i)))) index = i;
+        }
+
+        if (action == WSAction.DELETED) {
+            if (index >= 0) result.remove(index);
+        } else if (index >= 0) {
+            result.set(index, changed);
+        } else {
+            result.add(changed);
+        }
+        return result;
     }
 
     /**
@@ -260,48 +481,61 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
     }
 
     /**
-     * Gets expensesScroller, which includes a VBox container for all ExpenseItem objects.
+     * Shows the current expenses in expenseListView, which only redraws the visible rows
      */
-    private void refreshExpenseScroller() {
-        expenseItemContainer.getChildren().clear();
-
-        for(ExpenseDTO expense : expenses) {
-            ExpenseItem item = new ExpenseItem(expense);
-            expenseItemContainer.getChildren().add(item);
-        }
+    private void refreshExpenseList() {
+        expenseModel.setAll(expenses);
 
         // Update total expenses label
         totalExpensesLabel.setText(lm.get("Total sum of expenses: ") + calculateTotalExpenseSum());
 
-        setExpenseItemVisibility();
+        refreshExpenseFilter();
     }
 
     /**
-     * Sets the visibility of the given ExpenseItem according to currentView.*
-     * If currentView == ALL, then set the ExpenseItem to be visible and managed.
-     * If currentView == FROM or currentView == INCLUDING, then set node to be visible and
-     * managed iff selectedParticipant equals the participant tied to the ExpenseItem.
+     * Filters the shown expenses according to currentView.
+     * If currentView == ALL, then all expenses are shown.
+     * If currentView == FROM, then an expense is shown iff selectedParticipant paid it.
+     * If currentView == INCLUDING, then an expense is shown iff selectedParticipant shares it.
+     * The server looks up which expenses these are whenever another filter or participant is selected,
+     * or participants join or leave. Otherwise they are filtered on their debtors here, as the changes to
+     * expenses come with their debtors.
      */
-    private void setExpenseItemVisibility() {
+    private void refreshExpenseFilter() {
         // set currentView to the selected radio button
         if(expenseFilterAllRadio.isSelected()) currentView = View.ALL;
         else if(expenseFilterFromRadio.isSelected()) currentView = View.FROM;
         else if(expenseFilterIncludingRadio.isSelected()) currentView = View.INCLUDING;
 
-        // set visibility according to currentView
-        for(Node item : expenseItemContainer.getChildren()) {
-            // TODO: properly implement the 'INCLUDING' view (currently does the same as 'ALL')
-            switch (currentView) {
-                case ALL, INCLUDING -> {
-                    item.setVisible(true);
-                    item.setManaged(true);
+        String name = selectedParticipant == null ? null : selectedParticipant.name();
+        switch (currentView) {
+            case ALL -> filteredExpenses.setPredicate(expense -> true);
+            case FROM -> filteredExpenses.setPredicate(expense -> expense.paidByName().equals(name));
+            case INCLUDING -> {
+                if (name == null) {
+                    filteredExpenses.setPredicate(expense -> false);
+                    return;
                 }
-                case FROM -> {
-                    ExpenseItem e = (ExpenseItem) item;
-                    boolean isMatchingParticipant = e.expenseDTO.paidByName().equals(selectedParticipant.name());
-                    item.setVisible(isMatchingParticipant);
-                    item.setManaged(isMatchingParticipant);
+                Set<String> participantNames = participants.stream()
+                        .map(ParticipantDTO::name)
+                        .collect(Collectors.toSet());
+                if (name.equals(involvingName) && participantNames.equals(involvingParticipants)) {
+                    filteredExpenses.setPredicate(expense -> expense.debtorNames().contains(name));
+                    return;
                 }
+                involvingName = name;
+                involvingParticipants = participantNames;
+                serverUtils.getExpensesInvolvingAsync(event.code(), name).thenAccept(involved -> {
+                    // skip the answer if another filter was selected in the meantime
+                    if (currentView != View.INCLUDING || selectedParticipant == null
+                            || !selectedParticipant.name().equals(name)) return;
+                    Set<Long> ids = involved.stream().map(ExpenseDTO::id).collect(Collectors.toSet());
+                    filteredExpenses.setPredicate(expense -> ids.contains(expense.id()));
+                }).exceptionally(ex -> {
+                    if (name.equals(involvingName)) involvingName = null;
+                    showLoadingFailed(ex);
+                    return null;
+                });
             }
         }
     }
@@ -311,7 +545,6 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
      */
     @FXML
     private void goBack() {
-        serverUtils.disconnectWSSession(event.code());
         mainCtrl.showStartScreen();
     }
 
@@ -512,12 +745,32 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
         expenseFilterAllRadio.setText(lm.get("All"));
     }
 
+    /**
+     * Cell of expenseListView, showing its expense in an ExpenseItem.
+     * The ListView only creates cells for the visible rows and reuses them for other expenses while scrolling.
+     */
+    private class ExpenseCell extends ListCell<ExpenseDTO> {
+
+        private final ExpenseItem item = new ExpenseItem();
+
+        @Override
+        protected void updateItem(ExpenseDTO expense, boolean empty) {
+            super.updateItem(expense, empty);
+            if (empty || expense == null) {
+                setGraphic(null);
+            } else {
+                item.show(expense);
+                setGraphic(item);
+            }
+        }
+    }
+
     /**
      * Nested class Expense Item.
      */
     private class ExpenseItem extends GridPane {
 
-        private final ExpenseDTO expenseDTO;
+        private ExpenseDTO expenseDTO;
         private Text dateText;
         private Text expenseInfoText;
         private Text includesText;
@@ -526,13 +779,27 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
 
         /**
          * Creates ExpenseItem, a GridPane containing an Expense's date, participant,
-         * and an 'Edit' button.
-         * @param expense the expense to create an item for
+         * and an 'Edit' button. It shows no expense until show is called.
          */
-        public ExpenseItem(ExpenseDTO expense) {
-            expenseDTO = expense;
+        public ExpenseItem() {
             createGridPaneBasis();
-            addExpenseInformation();
+            addButtonActions();
+        }
+
+        /**
+         * Shows the information of another expense in this GridPane
+         * @param expense the expense to show
+         */
+        public void show(ExpenseDTO expense) {
+            expenseDTO = expense;
+            dateText.setText(expense.date() == null ? lm.get("(no date)") : expense.date().toString());
+
+            expenseInfoText.setText(expense.paidByName() + lm.get(" paid \u20AC")
+                    + expense.price() + lm.get(" for ") + expense.item());
+
+            includesText.setText(expense.debtorNames().size() == participants.size()
+                    ? lm.get("(everyone)")
+                    : "(" + String.join(", ", expense.debtorNames()) + ")");
         }
 
         /**
@@ -540,7 +807,7 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
          */
         private void createGridPaneBasis() {
             this.setAlignment(Pos.CENTER_LEFT);
-            this.setPrefSize(557, 42);
+            this.setPrefSize(557, EXPENSE_ITEM_HEIGHT);
 
             ColumnConstraints col1 = new ColumnConstraints();
             col1.setHalignment(HPos.CENTER);
@@ -600,16 +867,9 @@ public class EventOverviewCtrl implements DataBasedSceneController<EventDTO> {
         }
 
         /**
-         * Adds the information of the expense to this GridPane
+         * Lets the buttons act on the expense shown at the time they are clicked
          */
-        private void addExpenseInformation() {
-            if(expenseDTO.date() != null ) dateText.setText(expenseDTO.date().toString());
-
-            expenseInfoText.setText(expenseDTO.paidByName() + lm.get(" paid \u20AC")
-                    + expenseDTO.price() + lm.get(" for ") + expenseDTO.item());
-
-            // TODO: includesText is currently hardcoded to '(everyone)'
-
+        private void addButtonActions() {
             editButton.setOnAction(eventHandler -> openEditExpense(expenseDTO));
 
             deleteButton.setOnAction(eventHandler -> {
@@ -13,9 +13,15 @@ import javafx.scene.control.*;
 import javafx.scene.input.*;
 
 import java.net.URL;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 public class InvitationsCtrl implements DataBasedSceneController<EventDTO> {
+    private static final String REGEX_EMAIL = "^(?=.{1,64}@)[A-Za-z0-9_-]+(\\.[A-Za-z0-9_-]+)*@"
+            + "[^-][A-Za-z0-9-]+(\\.[A-Za-z0-9-]+)*(\\.[A-Za-z]{2,})$";
     private final InviteUtils inviteUtils;
 
     private final MainCtrl mainCtrl; // reference to MainCtrl class
@@ -85,9 +91,11 @@ public class InvitationsCtrl implements DataBasedSceneController<EventDTO> {
     @FXML
     private void sendInvites(){
         String emailString = email.getText();
-        String regexEmail = "^(?=.{1,64}@)[A-Za-z0-9_-]+(\\.[A-Za-z0-9_-]+)*@"
-                + "[^-][A-Za-z0-9-]+(\\.[A-Za-z0-9-]+)*(\\.[A-Za-z]{2,})$";
-        if(emailString.isEmpty() || !(emailString.matches(regexEmail))) {
+        List<String> emails = Arrays.stream(emailString.split("[,;\\s]+"))
+                .filter(e -> !e.isEmpty())
+                .distinct()
+                .toList();
+        if(emails.isEmpty() || !emails.stream().allMatch(e -> e.matches(REGEX_EMAIL))) {
             Alert error = controllerUtils.createAlert(Alert.AlertType.ERROR,
                     lm.get("Error"),
                     lm.get("Email entered incorrectly"),
@@ -106,15 +114,22 @@ public class InvitationsCtrl implements DataBasedSceneController<EventDTO> {
             content = lm.get("The invitations sent successfully to: \n");
         }
 
-        if(inviteUtils.sendInvitation(emailString, event.code())) {
-            String username = emailString.substring(0, emailString.indexOf('@'));
-            ParticipantDTO p = new ParticipantDTO(username, emailString, "", "");
-            serverUtils.addParticipant(p, event.code());
+        List<String> invited = emails.stream()
+                .filter(e -> inviteUtils.sendInvitation(e, event.code()))
+                .toList();
 
+        if(!invited.isEmpty()) {
+            // all invited people are added as participants in a single request
+            addParticipants(invited.stream()
+                    .map(e -> new ParticipantDTO(e.substring(0, e.indexOf('@')), e, "", ""))
+                    .toList());
+        }
+
+        if(invited.size() == emails.size()) {
             Alert successAlert = controllerUtils.createAlert(Alert.AlertType.CONFIRMATION,
                     title,
                     header,
-                    content + email.getText());
+                    content + String.join("\n", invited));
             successAlert.showAndWait();
             goBack();
         }
@@ -128,6 +143,41 @@ public class InvitationsCtrl implements DataBasedSceneController<EventDTO> {
         }
     }
 
+    /**
+     * Adds the invited people as participants of the event. The server adds none of them if a name
+     * is already taken, so the others are added again without the rejected ones and the user is
+     * told which names could not be added.
+     * @param participants the invited people
+     */
+    private void addParticipants(List<ParticipantDTO> participants) {
+        Set<String> rejectedNames = new LinkedHashSet<>();
+        List<ParticipantDTO> remaining = participants;
+        while (!remaining.isEmpty()) {
+            List<ParticipantDTO> rejected = serverUtils.addParticipants(remaining, event.code());
+            if (rejected == null) {
+                controllerUtils.createAlert(Alert.AlertType.ERROR,
+                        lm.get("Error"),
+                        lm.get("Participants were not added"),
+                        lm.get("An error has occurred. Please try again.")).showAndWait();
+                return;
+            }
+            rejected.forEach(p -> rejectedNames.add(p.name()));
+
+            List<ParticipantDTO> others = remaining.stream()
+                    .filter(p -> !rejected.contains(p))
+                    .toList();
+            if (others.size() == remaining.size()) break;
+            remaining = others;
+        }
+
+        if (rejectedNames.isEmpty()) return;
+        controllerUtils.createAlert(Alert.AlertType.WARNING,
+                lm.get("Error"),
+                lm.get("Participants were not added"),
+                lm.get("These names are already taken in this event:\n")
+                        + String.join("\n", rejectedNames)).showAndWait();
+    }
+
     @FXML
     private void onGlobalKeyPress(KeyEvent keyEvent){
         if (keyEvent.getCode() == KeyCode.ESCAPE) goBack();
@@ -17,6 +17,7 @@ package client.scenes;
 
 import client.LanguageManager;
 import client.utils.ControllerUtils;
+import client.utils.ServerUtils;
 import com.google.inject.Inject;
 import commons.dto.EventDTO;
 import commons.dto.ExpenseDTO;
@@ -39,6 +40,8 @@ public class MainCtrl {
     private ControllerUtils controllerUtils;
     @Inject
     private LanguageManager lm;
+    @Inject
+    private ServerUtils serverUtils;
 
     private Stage primaryStage;
 
@@ -156,8 +159,13 @@ public class MainCtrl {
 
     /**
      * Sets the title of the primary stage and switches to the Start Screen.
+     * The scenes stop listening to the changes of their event, so every way back
+     * to the Start Screen leaves the event.
      */
     public void showStartScreen() {
+        eventOverviewCtrl.leave();
+        serverUtils.disconnectWSSession(addEditExpenseCtrl);
+        serverUtils.disconnectWSSession(adminCtrl);
         while (true) {
             try {
                 String string = "Splitty: Start Screen";
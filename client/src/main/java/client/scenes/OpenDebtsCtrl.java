@@ -79,13 +79,14 @@ public class OpenDebtsCtrl implements DataBasedSceneController<EventDTO> {
             Platform.runLater(() -> refresh(this.event));
         });
 
-        List<DebtDTO> debtDTOs = serverUtils.getAllDebts(event.code());
-        debtList.clear();
-        debtList.addAll(debtDTOs);
+        serverUtils.getAllDebtsAsync(event.code()).thenAccept(debtDTOs -> {
+            debtList.clear();
+            debtList.addAll(debtDTOs);
 
-        if (debtDTOs.isEmpty()) serverUtils.regenerateDebts(event.code());
+            if (debtDTOs.isEmpty()) serverUtils.regenerateDebtsAsync(event.code());
 
-        refreshDebtList();
+            refreshDebtList();
+        });
         setLanguageForAllOpenDebtsCtrl();
     }
 
@@ -36,6 +36,8 @@ public class StartScreenCtrl implements VoidSceneController{
 
     private static final String STORAGE_PATH =
             "client/src/main/resources/userSettings/savedData/recently_joined_event_codes.ser";
+    // The server looks up at most 100 events per request, older codes are forgotten
+    private static final int MAX_RECENT_EVENT_CODES = 100;
 
     @FXML
     private Label recentlyViewed;
@@ -68,8 +70,6 @@ public class StartScreenCtrl implements VoidSceneController{
 
     private Deque<String> recentlyJoinedEventCodes = new LinkedList<>();
 
-    private List<EventDTO> events;
-
     /**
      * Constructor for the StartScreenCtrl class.
      * @param server The global serverUtils singleton.
@@ -104,6 +104,7 @@ public class StartScreenCtrl implements VoidSceneController{
         }
 
         recentlyJoinedEventCodes = controllerUtils.readObject(STORAGE_PATH);
+        if (forgetOldestEventCodes()) controllerUtils.saveObject(STORAGE_PATH, recentlyJoinedEventCodes);
 
         setLanguageForAll();
 
@@ -163,7 +164,6 @@ public class StartScreenCtrl implements VoidSceneController{
         scene = joinButton.getScene();
         createEventTextField.clear();
         joinEventTextField.clear();
-        events = server.getAllEvents();
         updateRecentEvents();
         setLanguageForAll();
     }
@@ -210,10 +210,24 @@ public class StartScreenCtrl implements VoidSceneController{
     private void addRecentlyJoinedEventCode(String code) {
         recentlyJoinedEventCodes.removeIf(eventCode -> eventCode.equals(code));
         recentlyJoinedEventCodes.addLast(code);
+        forgetOldestEventCodes();
         controllerUtils.saveObject(STORAGE_PATH, recentlyJoinedEventCodes);
         updateRecentEvents();
     }
 
+    /**
+     * Keeps only the MAX_RECENT_EVENT_CODES most recently joined event codes
+     * @return true iff codes were forgotten
+     */
+    private boolean forgetOldestEventCodes() {
+        boolean forgot = false;
+        while (recentlyJoinedEventCodes.size() > MAX_RECENT_EVENT_CODES) {
+            recentlyJoinedEventCodes.removeFirst();
+            forgot = true;
+        }
+        return forgot;
+    }
+
     /**
      * Handles the "Create Event" button action.
      * Creates a new event with the provided name and navigates to its overview.
@@ -222,7 +236,6 @@ public class StartScreenCtrl implements VoidSceneController{
     private void createEvent() {
         String eventName = createEventTextField.getText();
         EventDTO event = server.createEvent(eventName);
-        events = server.getAllEvents();
 
         addRecentlyJoinedEventCode(event.code());
 
@@ -269,21 +282,40 @@ public class StartScreenCtrl implements VoidSceneController{
      * @return The event with the provided code, if found.
      */
     private Optional<EventDTO> getEvent(String code) {
-        return events.stream()
-                .filter(event -> event.code().equals(code))
-                .findFirst();
+        if (code.isBlank()) return Optional.empty();
+        return Optional.ofNullable(server.getEvent(code));
     }
 
     /**
      * Updates the recent events view. Displays the last 4 events that the user has joined.
      */
     private void updateRecentEvents() {
+        List<String> codes = new ArrayList<>(recentlyJoinedEventCodes);
+        server.async(() -> server.getEvents(codes))
+                .thenAccept(found -> showRecentEvents(codes, found))
+                .exceptionally(ex -> {
+                    recentViewedEvents.getChildren().clear();
+                    controllerUtils.createAlert(Alert.AlertType.ERROR,
+                            lm.get("Error"),
+                            lm.get("An error has occurred. Please try again."),
+                            lm.get("Exception details:\n") + ex.getMessage()).showAndWait();
+                    return null;
+                });
+    }
+
+    /**
+     * Shows the last 4 of the recently joined events that still exist
+     * @param codes the codes of the recently joined events, from oldest to newest
+     * @param found the events with these codes that exist on the server
+     */
+    private void showRecentEvents(List<String> codes, List<EventDTO> found) {
         recentViewedEvents.getChildren().clear();
 
+        Map<String, EventDTO> eventsByCode = new HashMap<>();
+        found.forEach(event -> eventsByCode.put(event.code(), event));
         List<EventDTO> recentlyJoinedEventDTOs = new ArrayList<>();
-        recentlyJoinedEventCodes.forEach(code -> {
-            EventDTO found = server.getEvent(code);
-            if (found != null) recentlyJoinedEventDTOs.add(found);
+        codes.forEach(code -> {
+            if (eventsByCode.containsKey(code)) recentlyJoinedEventDTOs.add(eventsByCode.get(code));
         });
 
         int amountOfEvents = 0;
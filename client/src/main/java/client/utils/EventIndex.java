@@ -0,0 +1,116 @@
+package client.utils;
+
+import commons.dto.EventDTO;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The events of the server, kept sorted in an ObservableList.
+ * Events are found by binary search, so a single change to an event moves one element of the
+ * list instead of sorting it again. Events that are equal in the order are ordered by code,
+ * so every event has exactly one place in the list.
+ */
+public class EventIndex {
+
+    private final ObservableList<EventDTO> events = FXCollections.observableArrayList();
+    private final ObservableList<EventDTO> view = FXCollections.unmodifiableObservableList(events);
+    private final Map<String, EventDTO> byCode = new HashMap<>();
+    private Comparator<EventDTO> order;
+
+    /**
+     * Creates an empty index
+     *
+     * @param order order of the events
+     */
+    public EventIndex(Comparator<EventDTO> order) {
+        this.order = order.thenComparing(EventDTO::code);
+    }
+
+    /**
+     * @return the events in order, updated as the index changes
+     */
+    public ObservableList<EventDTO> getEvents() {
+        return view;
+    }
+
+    /**
+     * Replaces all events of the index
+     *
+     * @param all the events
+     */
+    public void setAll(Collection<EventDTO> all) {
+        byCode.clear();
+        for (EventDTO event : all) byCode.put(event.code(), event);
+        EventDTO[] sorted = byCode.values().toArray(new EventDTO[0]);
+        Arrays.sort(sorted, order);
+        events.setAll(sorted);
+    }
+
+    /**
+     * Sorts the events in a new order
+     *
+     * @param order order of the events
+     */
+    public void setOrder(Comparator<EventDTO> order) {
+        this.order = order.thenComparing(EventDTO::code);
+        FXCollections.sort(events, this.order);
+    }
+
+    /**
+     * Adds an event, or replaces the event with the same code, in time logarithmic
+     * in the number of events plus the elements of the list that have to move
+     *
+     * @param event the new or changed event
+     */
+    public void put(EventDTO event) {
+        EventDTO old = byCode.put(event.code(), event);
+        if (old != null) {
+            int index = Collections.binarySearch(events, old, order);
+            if (fitsAt(index, event)) {
+                events.set(index, event);
+                return;
+            }
+            events.remove(index);
+        }
+        events.add(insertionPoint(event), event);
+    }
+
+    /**
+     * Removes the event with the given code, if there is one
+     *
+     * @param code code of the event
+     */
+    public void remove(String code) {
+        EventDTO old = byCode.remove(code);
+        if (old != null) events.remove(Collections.binarySearch(events, old, order));
+    }
+
+    /**
+     * @param code code of an event
+     * @return the event with the given code, or null if there is none
+     */
+    public EventDTO get(String code) {
+        return byCode.get(code);
+    }
+
+    private int insertionPoint(EventDTO event) {
+        int index = Collections.binarySearch(events, event, order);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    /**
+     * @return true iff the event can take the place of the element at the index
+     *         without breaking the order
+     */
+    private boolean fitsAt(int index, EventDTO event) {
+        return (index == 0 || order.compare(events.get(index - 1), event) < 0)
+                && (index == events.size() - 1 || order.compare(event, events.get(index + 1)) < 0);
+    }
+}
@@ -16,107 +16,129 @@
 package client.utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import commons.dto.*;
-import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.Response;
+import javafx.application.Platform;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
-import org.springframework.messaging.converter.MappingJackson2MessageConverter;
-import org.springframework.messaging.simp.stomp.StompFrameHandler;
-import org.springframework.messaging.simp.stomp.StompHeaders;
-import org.springframework.messaging.simp.stomp.StompSession;
-import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
-import org.springframework.web.socket.client.standard.StandardWebSocketClient;
-import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.glassfish.jersey.client.ClientProperties;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
 public class ServerUtils {
+    private static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    private static final int DEFAULT_READ_TIMEOUT = 30000;
+    private static final int DEFAULT_MAX_CONNECTIONS = 10;
+    private static final long DEFAULT_HEARTBEAT_MILLIS = 10000;
 
+    private final Client client;
     private final String httpServerUrl;
     private final String serverUrl;
-    private final Map<Object, StompSession> wsSessions;
-    private final Map<Object, Set<String>> destinations;
+    private final ObjectMapper wsObjectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final StompConnection stompConnection;
 
     /**
-     * Constructor for ServerUtils
+     * Constructor for ServerUtils.
+     * Creates the HTTP client used for all requests to the server, which keeps its connections
+     * open between requests. Its timeouts, in milliseconds, and the maximum number of connections
+     * can be set with "connectTimeout", "readTimeout" and "maxConnections" in the config file.
+     * The interval of the heartbeats of the websocket connection, in milliseconds, can be set
+     * with "heartbeatMillis".
      */
     public ServerUtils() {
         try {
             File file = new File("client/src/main/resources/userSettings/config.json");
             ObjectMapper objectMapper = new ObjectMapper();
             JsonNode rootNode = objectMapper.readTree(file);
-            wsSessions = new HashMap<>();
-            destinations = new HashMap<>();
             if (rootNode.has("serverURL")) {
                 serverUrl = rootNode.get("serverURL").asText();
                 httpServerUrl = "http://" + serverUrl + "/";
             } else {
                 throw new RuntimeException("Server URL not found");
             }
+            stompConnection = new StompConnection("ws://" + serverUrl + "/ws-connect", wsObjectMapper,
+                    rootNode.path("heartbeatMillis").asLong(DEFAULT_HEARTBEAT_MILLIS));
+            client = createClient(
+                    rootNode.path("connectTimeout").asInt(DEFAULT_CONNECT_TIMEOUT),
+                    rootNode.path("readTimeout").asInt(DEFAULT_READ_TIMEOUT),
+                    rootNode.path("maxConnections").asInt(DEFAULT_MAX_CONNECTIONS)
+            );
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private StompSession wsConnect(String url){
-        var wsClient = new StandardWebSocketClient();
-        var stompClient = new WebSocketStompClient(wsClient);
-        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
-
-        try {
-            return stompClient.connect(url, new StompSessionHandlerAdapter() {}).get();
-        } catch (ExecutionException e) {
-            throw new ProcessingException(e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        throw new IllegalStateException();
+    /**
+     * Creates a client that keeps a pool of connections to the server alive between requests
+     * @param connectTimeout timeout for opening a connection, in milliseconds
+     * @param readTimeout timeout for waiting on a response, in milliseconds
+     * @param maxConnections maximum number of connections to the server
+     * @return the client
+     */
+    private static Client createClient(int connectTimeout, int readTimeout, int maxConnections) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+        ClientConfig config = new ClientConfig()
+                .connectorProvider(new ApacheConnectorProvider())
+                .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+                .property(ClientProperties.CONNECT_TIMEOUT, connectTimeout)
+                .property(ClientProperties.READ_TIMEOUT, readTimeout);
+        return ClientBuilder.newClient(config);
     }
 
     /**
      * Registers a consumer for receiving Web Socket STOMP messages from the server.
      * Does not allow registering multiple consumers on the same path, for the same session key.
-     * @param sessionKey unique key that identifies said session
+     * @param sessionKey key of the owner of the consumer, usually the scene controller
      * @param dest destination to listen on
      * @param consumer consumer callback for handling messages
      * @param <T> type of fetched messages
      */
     private <T> void registerForWebSocketMessages(Object sessionKey, String dest,
                                                   Consumer<WSWrapperResponseBody<T>> consumer){
+        registerForWebSocketMessages(sessionKey, dest, WSWrapperResponseBody.class,
+                payload -> consumer.accept((WSWrapperResponseBody<T>) payload));
+    }
 
-        if (wsSessions.get(sessionKey) == null || !wsSessions.get(sessionKey).isConnected()){
-            wsSessions.put(sessionKey, wsConnect("ws://" + serverUrl + "/ws-connect"));
-            destinations.put(sessionKey, new HashSet<>());
-        }
-        if (!destinations.get(sessionKey).contains(dest)){
-            destinations.get(sessionKey).add(dest);
-            wsSessions.get(sessionKey).subscribe(dest, new StompFrameHandler() {
-                @Override
-                public Type getPayloadType(StompHeaders headers) {
-                    return WSWrapperResponseBody.class;
-                }
-
-                @Override
-                public void handleFrame(StompHeaders headers, Object payload) {
-                    consumer.accept((WSWrapperResponseBody<T>) payload);
-                }
-            });
-        }
+    /**
+     * Registers a consumer for receiving Web Socket STOMP messages of a given type from the server.
+     * Does not allow registering multiple consumers on the same path, for the same session key.
+     * All consumers share one connection to the server, see StompConnection. They are called
+     * on its dispatcher thread, not on the JavaFX application thread.
+     * @param sessionKey key of the owner of the consumer, usually the scene controller
+     * @param dest destination to listen on
+     * @param type class the messages are converted to
+     * @param consumer consumer callback for handling messages
+     * @param <T> type of fetched messages
+     */
+    private <T> void registerForWebSocketMessages(Object sessionKey, String dest,
+                                                  Class<T> type, Consumer<T> consumer){
+        stompConnection.subscribe(sessionKey, dest, type, consumer);
     }
 
     /**
@@ -132,58 +154,54 @@ public class ServerUtils {
     }
 
     /**
-     * Registers a consumer for handling changes of all event entities
+     * Registers a consumer for handling changes of all event entities.
+     * Every message holds the created, renamed or deleted event as an EventDTO.
      * @param consumer consumer for handling changes
      * @param sessionKey sets the key for this session
      */
     public void registerForWebSocketUpdatesForAllEvents(Object sessionKey,
                                                         Consumer<WSWrapperResponseBody<EventDTO>> consumer)
     {
-        registerForWebSocketMessages(sessionKey, "/api/websocket/v1/channel/event", consumer);
+        registerForWebSocketMessages(sessionKey, "/api/websocket/v1/channel/event", WSWrapperResponseBody.class,
+                body -> consumer.accept(new WSWrapperResponseBody<>(body.action(),
+                        wsObjectMapper.convertValue(body.object(), EventDTO.class))));
     }
 
     /**
-     * Registers a consumer for handling changes of all entities on given as well as event deletions and creations
+     * Registers a consumer for the numbered changes to an event, see getDeltas.
+     * Every message holds the changes to the event since the previous message, together with the
+     * epoch and the sequence number of the last change. A message without changes and a new epoch
+     * means the server forgot the changes, the event has to be reloaded.
+     * @param sessionKey sets the key for this session
      * @param eventCode code of the event on which to listen
      * @param consumer consumer for handling changes
-     * @param sessionKey sets the key for this session
      */
-    public void registerForWebSocketUpdatesForTheWholeEvent(Object sessionKey, String eventCode,
-                                                            Consumer<WSWrapperResponseBody> consumer)
-    {
-        registerForWebSocketMessages(
-                sessionKey,
-                "/api/websocket/v1/channel/event",
-                consumer::accept
-        );
-        registerForWebSocketMessages(
-                sessionKey,
-                "/api/websocket/v1/channel/" + eventCode,
-                consumer::accept
-        );
-        registerForWebSocketMessages(
-                sessionKey,
-                "/api/websocket/v1/channel/" + eventCode + "/participant",
-                consumer::accept
-        );
-        registerForWebSocketMessages(
-                sessionKey,
-                "/api/websocket/v1/channel/" + eventCode + "/expense",
-                consumer::accept
-        );
-    }
-
-    /**
-     * Disconnects the session with given key
-     * @param sessionKey key of the session to be disconnected
+    public void registerForEventDeltas(Object sessionKey, String eventCode, Consumer<EventDeltasDTO> consumer) {
+        registerForWebSocketMessages(sessionKey, "/api/websocket/v1/channel/" + eventCode + "/delta",
+                EventDeltasDTO.class, consumer);
+    }
+
+    /**
+     * Registers a listener that is run after the connection to the server was lost and opened again.
+     * Messages sent in the meantime are missed, the listener should fetch what changed, see getDeltas.
+     * @param sessionKey key of the owner of the listener, removed with disconnectWSSession
+     * @param listener listener run on the websocket thread after every reconnect
+     */
+    public void registerForReconnect(Object sessionKey, Runnable listener) {
+        stompConnection.onReconnect(sessionKey, listener);
+    }
+
+    /**
+     * Removes all consumers registered with the given key.
+     * The connection to the server is closed once no consumers are left.
+     * @param sessionKey key of the owner of the consumers
      */
     public void disconnectWSSession(Object sessionKey){
-        this.wsSessions.get(sessionKey).disconnect();
-        this.destinations.remove(sessionKey);
-        this.wsSessions.remove(sessionKey);
+        stompConnection.unsubscribeAll(sessionKey);
     }
 
     private static final ExecutorService EXEC = Executors.newSingleThreadExecutor();
+    private static final ExecutorService ASYNC_EXEC = Executors.newVirtualThreadPerTaskExecutor();
 
     /**
      * Registers a consumer for receiving long polling updates for Debts
@@ -193,13 +211,14 @@ public class ServerUtils {
     public void registerForLongPollingDebtUpdates(String eventCode, Consumer<List<DebtDTO>> consumer){
         EXEC.submit(() -> {
             while (!Thread.interrupted()) {
-                var res = ClientBuilder.newClient(new ClientConfig())
+                var res = client
                         .target(httpServerUrl).path("api/v1/" + eventCode + "/debt/updates")
                         .request(APPLICATION_JSON)
                         .accept(APPLICATION_JSON)
                         .get(Response.class);
 
                 if (res.getStatus() == 408) {
+                    res.close();
                     continue;
                 }
 
@@ -214,7 +233,7 @@ public class ServerUtils {
      * @return All events as a List
      */
     public List<EventDTO> getAllEvents() {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(httpServerUrl).path("api/v1/")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -229,12 +248,36 @@ public class ServerUtils {
      * @return the seeked event's DTO or null if it does not exists
      */
     public EventDTO getEvent(String eventCode) {
-        List<EventDTO> matchingEvents = getAllEvents()
-                .stream()
-                .filter(eventDTO -> eventDTO.code().equals(eventCode))
-                .toList();
+        Response response = client
+                .target(httpServerUrl).path("api/v1/{eventCode}")
+                .resolveTemplate("eventCode", eventCode)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get();
 
-        return matchingEvents.isEmpty() ? null : matchingEvents.getFirst();
+        if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+            response.close();
+            return null;
+        }
+        return response.readEntity(EventDTO.class);
+    }
+
+    /**
+     * Gets the events with the given codes in a single request.
+     * Codes of events that do not exist are ignored.
+     *
+     * @param eventCodes codes of the events to get
+     * @return the DTOs of the events that exist, in no particular order
+     */
+    public List<EventDTO> getEvents(Collection<String> eventCodes) {
+        if (eventCodes.isEmpty()) return new ArrayList<>();
+        return client
+                .target(httpServerUrl).path("api/v1/")
+                .queryParam("codes", eventCodes.toArray())
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get(new GenericType<>() {
+                });
     }
 
     /**
@@ -245,7 +288,7 @@ public class ServerUtils {
      */
     public EventDTO createEvent(String eventName) {
 
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(httpServerUrl).path("api/v1/")
                 .queryParam("name", eventName)
                 .request(APPLICATION_JSON)
@@ -261,7 +304,7 @@ public class ServerUtils {
      * @return the created Event
      */
     public EventDTO updateEvent(EventDTO eventDTO, String eventName) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(httpServerUrl).path("api/v1/" + eventDTO.code())
                 .queryParam("name", eventName)
                 .request(APPLICATION_JSON)
@@ -274,12 +317,13 @@ public class ServerUtils {
      * @return the created Event
      */
     public boolean deleteEvent(String eventCode) {
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path("api/v1/")
                 .queryParam("eventCode", eventCode)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .delete();
+        response.close();
 
         return response.getStatus() == Response.Status.OK.getStatusCode();
     }
@@ -293,7 +337,7 @@ public class ServerUtils {
      * @return All participants of the event as a List
      */
     public List<ParticipantDTO> getParticipants(String code) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(httpServerUrl).path("api/v1/" + code + "/participant")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -309,7 +353,6 @@ public class ServerUtils {
      * @return the ParticipantDTO instance corresponding to that participant
      */
     public ParticipantDTO getParticipant(String eventCode, String name){
-        Client client = ClientBuilder.newClient(new ClientConfig());
         URI uri = URI.create(httpServerUrl + "api/v1/" + eventCode + "/participant?name=" + name);
         Response response = client.target(uri).request(APPLICATION_JSON).get();
         List<ParticipantDTO> participantDTOs = response.readEntity(new GenericType<List<ParticipantDTO>>() {});
@@ -326,17 +369,42 @@ public class ServerUtils {
     public boolean addParticipant(ParticipantDTO p, String eventCode) {
         String endpoint = "api/v1/" + eventCode + "/participant";
 
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path(endpoint)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .post(Entity.entity(p, APPLICATION_JSON));
+        response.close();
 
         // Check the response status code
         // TODO: should check for error types and pass that information on to user
         return response.getStatus() == Response.Status.CREATED.getStatusCode();
     }
 
+    /**
+     * Adds multiple Participants to HTTP_SERVER with a single request
+     * @param participants ParticipantDTOs corresponding to the Participants to add
+     * @param eventCode event code of the participants to add
+     * @return An empty list if all participants were added, the participants whose name is already taken
+     * in the event if none was added because of them, or null if none was added for another reason
+     */
+    public List<ParticipantDTO> addParticipants(List<ParticipantDTO> participants, String eventCode) {
+        String endpoint = "api/v1/" + eventCode + "/participant/batch";
+
+        Response response = client
+                .target(httpServerUrl).path(endpoint)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .post(Entity.entity(participants, APPLICATION_JSON));
+
+        if (response.getStatus() == Response.Status.CONFLICT.getStatusCode()) {
+            return response.readEntity(new GenericType<List<ParticipantDTO>>() {});
+        }
+        response.close();
+        if (response.getStatus() != Response.Status.CREATED.getStatusCode()) return null;
+        return List.of();
+    }
+
     /**
      * Updates participant in the server
      * @param body ParticipantDTO containing the updated fields
@@ -347,12 +415,13 @@ public class ServerUtils {
     public boolean updateParticipant(ParticipantDTO body, String eventCode, String name) {
         String endpoint = "api/v1/" + eventCode + "/participant";
 
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path(endpoint)
                 .queryParam("name", name)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(body, APPLICATION_JSON));
+        response.close();
 
         // Check the response status code
         // TODO: should check for error types and pass that information on to user
@@ -369,12 +438,13 @@ public class ServerUtils {
     public boolean deleteParticipant(String eventCode, String name) {
         String endpoint = "api/v1/" + eventCode + "/participant";
 
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path(endpoint)
                 .queryParam("name", name)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .delete();
+        response.close();
 
         return response.getStatus() == Response.Status.OK.getStatusCode();
     }
@@ -389,8 +459,25 @@ public class ServerUtils {
      * @return All expenses of the event as a List
      */
     public List<ExpenseDTO> getExpenses(String code) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
+                .target(httpServerUrl).path("api/v1/" + code + "/expense")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get(new GenericType<>() {
+                });
+    }
+
+    /**
+     * Gets the expenses of an event that are shared by a participant.
+     * The server looks these up in its index on the debtors of expenses.
+     * @param code Code of the event
+     * @param debtorName Name of the participant sharing the expenses
+     * @return The expenses shared by the participant as a List
+     */
+    public List<ExpenseDTO> getExpensesInvolving(String code, String debtorName) {
+        return client
                 .target(httpServerUrl).path("api/v1/" + code + "/expense")
+                .queryParam("involving", debtorName)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(new GenericType<>() {
@@ -406,17 +493,37 @@ public class ServerUtils {
     public boolean addExpense(ExpenseDTO e, String code) {
         String endpoint = "api/v1/" + code + "/expense";
 
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path(endpoint)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .post(Entity.entity(e, APPLICATION_JSON));
+        response.close();
 
         // Check the response status code
         // TODO: should check for error types and pass that information on to user
         return response.getStatus() == Response.Status.CREATED.getStatusCode();
     }
 
+    /**
+     * Adds multiple Expenses to HTTP_SERVER with a single request
+     * @param expenses Expenses to add
+     * @param code Code of event
+     * @return True iff all expenses were added, false otherwise
+     */
+    public boolean addExpenses(List<ExpenseDTO> expenses, String code) {
+        String endpoint = "api/v1/" + code + "/expense/batch";
+
+        Response response = client
+                .target(httpServerUrl).path(endpoint)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .post(Entity.entity(expenses, APPLICATION_JSON));
+        response.close();
+
+        return response.getStatus() == Response.Status.CREATED.getStatusCode();
+    }
+
     /**
      * Updates a given expense in the server
      * @param body DTO containing the updated information
@@ -426,12 +533,13 @@ public class ServerUtils {
     public boolean updateExpense(ExpenseDTO body, String eventCode){
         String endpoint = "api/v1/" + eventCode + "/expense";
 
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path(endpoint)
                 .queryParam("id", body.id())
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(body, APPLICATION_JSON));
+        response.close();
 
         // Check the response status code
         // TODO: should check for error types and pass that information on to user
@@ -447,13 +555,14 @@ public class ServerUtils {
     public boolean deleteExpense(ExpenseDTO e, String eventCode){
         String endpoint = "api/v1/" + eventCode + "/expense";
 
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path(endpoint)
                 .queryParam("id", e.id())
                 .queryParam("participantName", e.paidByName())
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .delete();
+        response.close();
 
         // Check the response status code
         // TODO: should check for error types and pass that information on to user
@@ -469,7 +578,7 @@ public class ServerUtils {
      * @return A List containing all open debts for the specified event
      */
     public List<DebtDTO> getAllDebts(String eventCode) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(httpServerUrl)
                 .path("api/v1/" + eventCode + "/debt")
                 .request(APPLICATION_JSON)
@@ -486,7 +595,7 @@ public class ServerUtils {
     public boolean toggleDebtReceivedStatus(String eventCode, DebtDTO debtDTO){
         String endpoint = "api/v1/" + eventCode + "/debt";
 
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path(endpoint)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -500,12 +609,13 @@ public class ServerUtils {
      * @param eventCode code of the event for which to regenerate debts
      */
     public void regenerateDebts(String eventCode){
-        ClientBuilder.newClient(new ClientConfig())
+        client
                 .target(httpServerUrl)
                 .path("api/v1/" + eventCode + "/debt")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .post(null);
+                .post(null)
+                .close();
     }
 
     // Password methods
@@ -517,7 +627,7 @@ public class ServerUtils {
      * @return True iff input matches password, false otherwise.
      */
     public Boolean matchesPassword(String input) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(httpServerUrl)
                 .path("api/v1/admin/auth/matches-password")
                 .queryParam("input", input)
@@ -534,7 +644,7 @@ public class ServerUtils {
      * @return Gets the Json dump
      */
     public List<JSONDumpEventDTO> getJSON() {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(httpServerUrl).path("api/v1/admin/jsondump")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -542,24 +652,217 @@ public class ServerUtils {
                 });
     }
 
+    /**
+     * Gets the JSON dump of a single event
+     * @param eventCode code of the event
+     * @return the dump of the event, in the same format as one element of getJSON
+     */
+    public JSONDumpEventDTO getJSONOfEvent(String eventCode) {
+        return client
+                .target(httpServerUrl).path("api/v1/admin/jsondump/event/" + eventCode)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get(new GenericType<>() {
+                });
+    }
+
     /**
      * Restore event from JSON
      * @param body EventResponseBody
      * @return True iff successfully created, false otherwise
      */
     public boolean restoreEvent(JSONDumpEventDTO body) {
-        Response response = ClientBuilder.newClient(new ClientConfig())
+        Response response = client
                 .target(httpServerUrl).path("api/v1/admin/jsondump")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .post(Entity.entity(body, APPLICATION_JSON));
+        response.close();
         return response.getStatus() == Response.Status.OK.getStatusCode();
     }
 
     /**
-     * Stops the execution of threads
+     * Gets the current epoch and sequence number of the changes to an event.
+     * Fetched before loading the event, so changes made while it loads are not missed.
+     *
+     * @param eventCode code of the event
+     * @return the current position in the changes to the event, without any changes
+     */
+    public EventDeltasDTO getDeltaPosition(String eventCode) {
+        return client
+                .target(httpServerUrl).path("api/v1/{eventCode}/delta")
+                .resolveTemplate("eventCode", eventCode)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get(EventDeltasDTO.class);
+    }
+
+    /**
+     * Gets the changes to an event after a given sequence number,
+     * used to catch up after missing some messages from registerForEventDeltas
+     *
+     * @param eventCode code of the event
+     * @param epoch epoch of the sequence number
+     * @param since sequence number of the last change that was applied
+     * @return the changes after since, or null if the server no longer knows them
+     *         and the event has to be reloaded
+     */
+    public EventDeltasDTO getDeltas(String eventCode, long epoch, long since) {
+        Response response = client
+                .target(httpServerUrl).path("api/v1/{eventCode}/delta")
+                .resolveTemplate("eventCode", eventCode)
+                .queryParam("epoch", epoch)
+                .queryParam("since", since)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get();
+
+        if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+            response.close();
+            return null;
+        }
+        return response.readEntity(EventDeltasDTO.class);
+    }
+
+    // Async methods
+
+    /**
+     * Runs a request on a virtual thread, so that the JavaFX application thread is not blocked
+     * while waiting for the server. The returned future is completed on the JavaFX application thread,
+     * so the UI can be updated directly from its callbacks, and several requests can be sent
+     * at once and combined with thenCombine or CompletableFuture.allOf.
+     *
+     * @param request the request to run, for example () -> serverUtils.getParticipants(eventCode)
+     * @param <T> type of the result of the request
+     * @return a future completed with the result of the request, or its exception
+     */
+    public <T> CompletableFuture<T> async(Supplier<T> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ASYNC_EXEC.execute(() -> {
+            try {
+                T value = request.get();
+                Platform.runLater(() -> result.complete(value));
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> result.completeExceptionally(e));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Gets all events without blocking the calling thread.
+     *
+     * @return a future of all events, completed on the JavaFX application thread
+     */
+    public CompletableFuture<List<EventDTO>> getAllEventsAsync() {
+        return async(this::getAllEvents);
+    }
+
+    /**
+     * Gets the JSON dump of a single event without blocking the calling thread.
+     *
+     * @param eventCode code of the event
+     * @return a future of the dump of the event, completed on the JavaFX application thread
+     */
+    public CompletableFuture<JSONDumpEventDTO> getJSONOfEventAsync(String eventCode) {
+        return async(() -> getJSONOfEvent(eventCode));
+    }
+
+    /**
+     * Gets a specific event without blocking the calling thread.
+     *
+     * @param eventCode code of the event to get
+     * @return a future of the event's DTO or null if it does not exist,
+     *         completed on the JavaFX application thread
+     */
+    public CompletableFuture<EventDTO> getEventAsync(String eventCode) {
+        return async(() -> getEvent(eventCode));
+    }
+
+    /**
+     * Gets all the participants of an event without blocking the calling thread.
+     *
+     * @param code The code of the event
+     * @return a future of all participants of the event, completed on the JavaFX application thread
+     */
+    public CompletableFuture<List<ParticipantDTO>> getParticipantsAsync(String code) {
+        return async(() -> getParticipants(code));
+    }
+
+    /**
+     * Gets all the expenses of an event without blocking the calling thread.
+     *
+     * @param code The code of the event
+     * @return a future of all expenses of the event, completed on the JavaFX application thread
+     */
+    public CompletableFuture<List<ExpenseDTO>> getExpensesAsync(String code) {
+        return async(() -> getExpenses(code));
+    }
+
+    /**
+     * Gets the expenses of an event that are shared by a participant without blocking the calling thread.
+     *
+     * @param code The code of the event
+     * @param debtorName The name of the participant sharing the expenses
+     * @return a future of the expenses shared by the participant, completed on the JavaFX application thread
+     */
+    public CompletableFuture<List<ExpenseDTO>> getExpensesInvolvingAsync(String code, String debtorName) {
+        return async(() -> getExpensesInvolving(code, debtorName));
+    }
+
+    /**
+     * Gets the current position in the changes to an event without blocking the calling thread.
+     *
+     * @param eventCode code of the event
+     * @return a future of the position, completed on the JavaFX application thread
+     */
+    public CompletableFuture<EventDeltasDTO> getDeltaPositionAsync(String eventCode) {
+        return async(() -> getDeltaPosition(eventCode));
+    }
+
+    /**
+     * Gets the changes to an event after a given sequence number without blocking the calling thread.
+     *
+     * @param eventCode code of the event
+     * @param epoch epoch of the sequence number
+     * @param since sequence number of the last change that was applied
+     * @return a future of the changes, or of null if the event has to be reloaded,
+     *         completed on the JavaFX application thread
+     */
+    public CompletableFuture<EventDeltasDTO> getDeltasAsync(String eventCode, long epoch, long since) {
+        return async(() -> getDeltas(eventCode, epoch, since));
+    }
+
+    /**
+     * Gets all open debts for a specific event without blocking the calling thread.
+     *
+     * @param eventCode The code of the event for which debts are to be retrieved
+     * @return a future of all open debts of the event, completed on the JavaFX application thread
+     */
+    public CompletableFuture<List<DebtDTO>> getAllDebtsAsync(String eventCode) {
+        return async(() -> getAllDebts(eventCode));
+    }
+
+    /**
+     * Regenerates debts from expenses without blocking the calling thread.
+     *
+     * @param eventCode code of the event for which to regenerate debts
+     * @return a future completed on the JavaFX application thread once the debts are regenerated
+     */
+    public CompletableFuture<Void> regenerateDebtsAsync(String eventCode) {
+        return async(() -> {
+            regenerateDebts(eventCode);
+            return null;
+        });
+    }
+
+    /**
+     * Stops the execution of threads and closes the connections to the server
      */
     public void stop(){
         EXEC.shutdownNow();
+        ASYNC_EXEC.shutdownNow();
+        stompConnection.close();
+        client.close();
     }
 }
@@ -0,0 +1,268 @@
+package client.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * The one STOMP session of the client, shared by all scenes.
+ * Every owner, usually a scene controller, registers its own consumers. A destination is subscribed
+ * to once, however many owners listen on it, and unsubscribed from when its last owner is done.
+ * The connection is opened for the first subscription and closed after the last one.
+ * <p>
+ * Both sides send a heartbeat every few seconds, so a dead connection is noticed.
+ * A lost connection is opened again, waiting longer after every failed attempt, and all
+ * destinations are subscribed to again. Messages sent while the connection was down are missed,
+ * so the owners are told once the destinations are subscribed to again, see onReconnect.
+ * <p>
+ * Frames are handed to the consumers in the order they arrive, on a single dispatcher thread,
+ * so a slow consumer holds up neither the WebSocket nor the JavaFX application thread.
+ */
+public class StompConnection {
+    private static final System.Logger LOGGER = System.getLogger(StompConnection.class.getName());
+    private static final long FIRST_RECONNECT_DELAY_MILLIS = 500;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30000;
+
+    private final String url;
+    private final WebSocketStompClient stompClient;
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final ExecutorService dispatcher =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("stomp-dispatcher").factory());
+    private final Map<String, Destination> destinations = new HashMap<>();
+    private final Map<Object, Runnable> reconnectListeners = new LinkedHashMap<>();
+    private StompSession session;
+    private boolean connecting;
+    private boolean wasLost;
+    private boolean closed;
+    private long reconnectDelay = FIRST_RECONNECT_DELAY_MILLIS;
+
+    /**
+     * Creates a connection, which is only opened once something is subscribed to
+     *
+     * @param url             url of the STOMP endpoint of the server
+     * @param objectMapper    ObjectMapper the messages are read with
+     * @param heartbeatMillis interval of the heartbeats sent to and expected from the server, 0 for none
+     */
+    public StompConnection(String url, ObjectMapper objectMapper, long heartbeatMillis) {
+        this.url = url;
+        scheduler.setThreadNamePrefix("stomp-heartbeat-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+
+        var converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(converter);
+        stompClient.setTaskScheduler(scheduler);
+        stompClient.setDefaultHeartbeat(new long[]{heartbeatMillis, heartbeatMillis});
+    }
+
+    /**
+     * Registers a consumer for the messages on a destination.
+     * An owner has at most one consumer per destination, later ones are ignored.
+     * All consumers of a destination receive the messages as the same type.
+     *
+     * @param owner       key of the owner of the consumer, see unsubscribeAll
+     * @param destination destination to listen on
+     * @param type        class the messages are converted to
+     * @param consumer    consumer of the messages
+     * @param <T>         type of the messages
+     * @throws IllegalArgumentException if the destination is already subscribed to with another type
+     * @throws IllegalStateException if the connection is closed
+     */
+    public synchronized <T> void subscribe(Object owner, String destination, Class<T> type, Consumer<T> consumer) {
+        if (closed) throw new IllegalStateException("The connection to " + url + " is closed");
+        Destination subscribed = destinations.computeIfAbsent(destination, d -> new Destination(d, type));
+        if (subscribed.type != type) throw new IllegalArgumentException(
+                destination + " is subscribed to as " + subscribed.type.getName() + ", not as " + type.getName());
+        if (subscribed.consumers.containsKey(owner)) return;
+        subscribed.consumers.put(owner, payload -> consumer.accept(type.cast(payload)));
+
+        if (isConnected()) {
+            subscribed.subscribe(session);
+        } else {
+            connect();
+        }
+    }
+
+    /**
+     * Registers a listener that is run after a lost connection is opened again and all destinations
+     * are subscribed to again, so the owner can fetch what it missed in the meantime.
+     * It is run on the dispatcher thread, after the messages received before it.
+     * An owner has at most one listener, a later one replaces it.
+     *
+     * @param owner    key of the owner of the listener, see unsubscribeAll
+     * @param listener listener run after every reconnect
+     */
+    public synchronized void onReconnect(Object owner, Runnable listener) {
+        reconnectListeners.put(owner, listener);
+    }
+
+    /**
+     * Removes all consumers and the reconnect listener of an owner,
+     * and closes the connection if nothing is subscribed to anymore
+     *
+     * @param owner key of the owner of the consumers
+     */
+    public synchronized void unsubscribeAll(Object owner) {
+        reconnectListeners.remove(owner);
+        for (Iterator<Destination> it = destinations.values().iterator(); it.hasNext(); ) {
+            Destination destination = it.next();
+            if (destination.consumers.remove(owner) == null || !destination.consumers.isEmpty()) continue;
+            if (isConnected() && destination.subscription != null) destination.subscription.unsubscribe();
+            it.remove();
+        }
+        if (destinations.isEmpty() && isConnected()) {
+            session.disconnect();
+            session = null;
+        }
+    }
+
+    /**
+     * Closes the connection for good: removes all consumers and listeners, disconnects the session,
+     * cancels a scheduled reconnect and stops the heartbeat and dispatcher threads
+     */
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (Destination destination : destinations.values()) destination.consumers.clear();
+        destinations.clear();
+        reconnectListeners.clear();
+        if (isConnected()) session.disconnect();
+        session = null;
+        scheduler.shutdown();
+        dispatcher.shutdownNow();
+    }
+
+    private boolean isConnected() {
+        return session != null && session.isConnected();
+    }
+
+    private synchronized void connect() {
+        if (connecting || isConnected() || destinations.isEmpty()) return;
+        connecting = true;
+        stompClient.connectAsync(url, new SessionHandler()).whenComplete((connected, ex) -> {
+            if (ex != null) onConnectFailed();
+        });
+    }
+
+    private synchronized void onConnected(StompSession connected) {
+        connecting = false;
+        reconnectDelay = FIRST_RECONNECT_DELAY_MILLIS;
+        session = connected;
+        if (destinations.isEmpty()) {
+            session.disconnect();
+            session = null;
+            return;
+        }
+        for (Destination destination : destinations.values()) destination.subscribe(session);
+
+        if (!wasLost) return;
+        wasLost = false;
+        List<Runnable> listeners = new ArrayList<>(reconnectListeners.values());
+        dispatcher.execute(() -> listeners.forEach(listener -> run(listener, "a reconnect listener")));
+    }
+
+    private synchronized void onConnectFailed() {
+        connecting = false;
+        scheduleReconnect();
+    }
+
+    private synchronized void onConnectionLost(StompSession lost) {
+        if (lost != session) return;
+        LOGGER.log(System.Logger.Level.WARNING, "Lost the connection to " + url + ", reconnecting");
+        wasLost = true;
+        session = null;
+        for (Destination destination : destinations.values()) destination.subscription = null;
+        scheduleReconnect();
+    }
+
+    /**
+     * Runs a consumer or listener on the dispatcher thread, a failing one does not stop the others
+     */
+    private static void run(Runnable task, String description) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.ERROR, "Exception in " + description, e);
+        }
+    }
+
+    private void scheduleReconnect() {
+        if (destinations.isEmpty()) return;
+        scheduler.schedule(this::connect, Instant.now().plusMillis(reconnectDelay));
+        reconnectDelay = Math.min(2 * reconnectDelay, MAX_RECONNECT_DELAY_MILLIS);
+    }
+
+    /**
+     * Passes the events of the STOMP session on to the connection
+     */
+    private final class SessionHandler extends StompSessionHandlerAdapter {
+        @Override
+        public void afterConnected(StompSession connected, StompHeaders connectedHeaders) {
+            onConnected(connected);
+        }
+
+        @Override
+        public void handleTransportError(StompSession failed, Throwable exception) {
+            if (!failed.isConnected()) onConnectionLost(failed);
+        }
+    }
+
+    /**
+     * A subscribed destination with the consumers of all owners listening on it
+     */
+    private final class Destination implements StompFrameHandler {
+        private final String path;
+        private final Class<?> type;
+        private final Map<Object, Consumer<Object>> consumers = new LinkedHashMap<>();
+        private StompSession.Subscription subscription;
+
+        private Destination(String path, Class<?> type) {
+            this.path = path;
+            this.type = type;
+        }
+
+        private void subscribe(StompSession session) {
+            if (subscription == null) subscription = session.subscribe(path, this);
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return type;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            List<Consumer<Object>> targets;
+            synchronized (StompConnection.this) {
+                targets = new ArrayList<>(consumers.values());
+            }
+            // a frame arriving while the connection is closed has nobody left to go to
+            if (targets.isEmpty()) return;
+            dispatcher.execute(() -> {
+                for (Consumer<Object> consumer : targets) {
+                    run(() -> consumer.accept(payload), "a consumer of " + path);
+                }
+            });
+        }
+    }
+}
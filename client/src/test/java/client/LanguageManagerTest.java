@@ -2,8 +2,12 @@ package client;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,4 +106,35 @@ class LanguageManagerTest {
         LanguageOption lo = new LanguageOption(LanguageOption.Language.ENGLISH);
         assertEquals(lo ,languageManager1.loadLanguage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void translationsReloadedWhenFileChanges(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("preferences.json").toFile();
+        Files.writeString(file.toPath(), "{\"language\":\"English\",\"English\":{\"Test\":\"Old\"}}");
+        LanguageManager manager = new LanguageManager(file.getPath(), file.getPath());
+        LanguageOption english = new LanguageOption(LanguageOption.Language.ENGLISH);
+        assertEquals("Old", manager.get(english, "Test"));
+        assertEquals("Missing", manager.get(english, "Missing"));
+        assertEquals("Test", manager.get(new LanguageOption(LanguageOption.Language.DUTCH), "Test"));
+
+        long modified = file.lastModified();
+        Files.writeString(file.toPath(), "{\"language\":\"English\",\"English\":{\"Test\":\"New\"}}");
+        file.setLastModified(modified + 2000);
+        assertEquals("New", manager.get(english, "Test"));
+    }
+
+    @Test
+    void emptyTranslationsNotReloaded(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("preferences.json").toFile();
+        Files.writeString(file.toPath(), "{\"language\":\"English\"}");
+        LanguageManager manager = new LanguageManager(file.getPath(), file.getPath());
+        LanguageOption english = new LanguageOption(LanguageOption.Language.ENGLISH);
+        assertEquals("Test", manager.get(english, "Test"));
+
+        // the file keeps its modification time, so the cached empty translations are used
+        long modified = file.lastModified();
+        Files.writeString(file.toPath(), "{\"language\":\"English\",\"English\":{\"Test\":\"New\"}}");
+        file.setLastModified(modified);
+        assertEquals("Test", manager.get(english, "Test"));
+    }
+}
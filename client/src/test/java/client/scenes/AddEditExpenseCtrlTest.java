@@ -0,0 +1,176 @@
+package client.scenes;
+
+import client.LanguageManager;
+import client.utils.ControllerUtils;
+import client.utils.ServerUtils;
+import commons.dto.EventDTO;
+import commons.dto.ExpenseDTO;
+import commons.dto.ParticipantDTO;
+import javafx.scene.control.Alert;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Text;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.testfx.framework.junit5.ApplicationExtension;
+import org.testfx.framework.junit5.ApplicationTest;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(ApplicationExtension.class)
+class AddEditExpenseCtrlTest extends ApplicationTest {
+
+    private ServerUtils serverUtilsMock;
+    private ControllerUtils controllerUtilsMock;
+    private AddEditExpenseCtrl addEditExpenseCtrl;
+    private VBox checkboxContainer;
+    private TextField howMuchField;
+    private TextField whatForField;
+
+    @BeforeAll
+    public static void setupSpec() {
+        System.setProperty("testfx.robot", "glass");
+        System.setProperty("testfx.headless", "true");
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        System.setProperty("prism.text", "t2k");
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        serverUtilsMock = mock(ServerUtils.class);
+        controllerUtilsMock = mock(ControllerUtils.class);
+        addEditExpenseCtrl = new AddEditExpenseCtrl(mock(MainCtrl.class), serverUtilsMock);
+        checkboxContainer = new VBox();
+        howMuchField = new TextField();
+        whatForField = new TextField();
+
+        when(serverUtilsMock.getParticipants("code")).thenReturn(List.of(
+                new ParticipantDTO("Anna", null, null, null),
+                new ParticipantDTO("Bob", null, null, null),
+                new ParticipantDTO("Carl", null, null, null)));
+        when(controllerUtilsMock.createAlert(any(), any(), any(), any())).thenReturn(mock(Alert.class));
+
+        set("controllerUtils", controllerUtilsMock);
+        set("lm", mock(LanguageManager.class));
+        set("event", new EventDTO("Trip", "code", null, null));
+        set("checkboxContainer", checkboxContainer);
+        set("howMuchField", howMuchField);
+        set("whatForField", whatForField);
+        set("whoPaidDropdown", new ComboBox<String>());
+        set("whenPicker", new DatePicker());
+        set("errorText", new Text());
+    }
+
+    /**
+     * Adding an expense shared by some participants sends only the checked ones as debtors
+     */
+    @Test
+    public void testSubmitNewExpenseSharedBySubset() throws Exception {
+        showForm(null);
+        ComboBox<?> whoPaid = (ComboBox<?>) get("whoPaidDropdown");
+        whoPaid.getSelectionModel().select(0);
+        howMuchField.setText("12.50");
+        whatForField.setText("Drinks");
+        checkbox("Bob").setSelected(false);
+
+        invoke("submit");
+
+        ArgumentCaptor<ExpenseDTO> captor = ArgumentCaptor.forClass(ExpenseDTO.class);
+        verify(serverUtilsMock).addExpense(captor.capture(), eq("code"));
+        assertEquals(List.of("Anna", "Carl"), captor.getValue().debtorNames());
+        assertEquals("Anna", captor.getValue().paidByName());
+    }
+
+    /**
+     * Editing an expense checks its stored debtors, and sends the changed selection
+     */
+    @Test
+    public void testSubmitEditedExpenseSharedBySubset() throws Exception {
+        ExpenseDTO expense = new ExpenseDTO(1L, 30.0, "Taxi", "Anna", LocalDate.of(2024, 3, 1),
+                List.of("Anna", "Bob"));
+        showForm(expense);
+        whatForField.setText(expense.item());
+        howMuchField.setText(expense.price().toString());
+
+        assertTrue(checkbox("Anna").isSelected());
+        assertTrue(checkbox("Bob").isSelected());
+        assertFalse(checkbox("Carl").isSelected());
+
+        checkbox("Bob").setSelected(false);
+        checkbox("Carl").setSelected(true);
+        when(controllerUtilsMock.createConfirmationAlert(any(), any())).thenReturn(true);
+
+        invoke("submit");
+
+        ArgumentCaptor<ExpenseDTO> captor = ArgumentCaptor.forClass(ExpenseDTO.class);
+        verify(serverUtilsMock).updateExpense(captor.capture(), eq("code"));
+        assertEquals(1L, captor.getValue().id());
+        assertEquals(List.of("Anna", "Carl"), captor.getValue().debtorNames());
+    }
+
+    /**
+     * An expense shared by nobody is not submitted
+     */
+    @Test
+    public void testSubmitWithoutDebtors() throws Exception {
+        showForm(null);
+        ((ComboBox<?>) get("whoPaidDropdown")).getSelectionModel().select(0);
+        howMuchField.setText("5");
+        whatForField.setText("Snacks");
+        checkboxContainer.getChildren().forEach(node -> ((CheckBox) node).setSelected(false));
+
+        invoke("submit");
+
+        verify(serverUtilsMock, never()).addExpense(any(), any());
+    }
+
+    private void showForm(ExpenseDTO expense) throws Exception {
+        set("expense", expense);
+        invoke("refreshWhoPaidDropdown");
+        invoke("refreshParticipantContainer");
+    }
+
+    private CheckBox checkbox(String name) {
+        return checkboxContainer.getChildren().stream()
+                .map(CheckBox.class::cast)
+                .filter(checkBox -> checkBox.getText().equals(name))
+                .findFirst().orElseThrow();
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = AddEditExpenseCtrl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(addEditExpenseCtrl, value);
+    }
+
+    private Object get(String name) throws Exception {
+        Field field = AddEditExpenseCtrl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(addEditExpenseCtrl);
+    }
+
+    private void invoke(String name) throws Exception {
+        Method method = AddEditExpenseCtrl.class.getDeclaredMethod(name);
+        method.setAccessible(true);
+        method.invoke(addEditExpenseCtrl);
+    }
+}
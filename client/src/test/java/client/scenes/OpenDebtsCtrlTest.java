@@ -16,6 +16,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.testfx.framework.junit5.ApplicationExtension;
 import org.testfx.framework.junit5.ApplicationTest;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static org.mockito.Mockito.*;
 
 @ExtendWith({ApplicationExtension.class, MockitoExtension.class})
@@ -57,6 +60,7 @@ class OpenDebtsCtrlTest extends ApplicationTest {
         when(debtDTOMock.creditorName()).thenReturn("Jane");
         when(debtDTOMock.amount()).thenReturn(100.0);
         when(eventMock.code()).thenReturn("code");
+        when(serverUtilsMock.getAllDebtsAsync("code")).thenReturn(CompletableFuture.completedFuture(List.of()));
         when(serverUtilsMock.getParticipant(eventMock.code(), "John")).thenReturn(debtorMock);
         when(serverUtilsMock.getParticipant(eventMock.code(), "Jane")).thenReturn(creditorMock);
         when(debtorMock.name()).thenReturn("John");
@@ -0,0 +1,92 @@
+package client.utils;
+
+import commons.dto.EventDTO;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventIndexTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 30);
+
+    private EventIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new EventIndex(Comparator.comparing(EventDTO::name, String.CASE_INSENSITIVE_ORDER));
+        index.setAll(List.of(event("trip", "E", 0), event("Dinner", "C", 1), event("Trip", "A", 1),
+                event("dinner", "D", 2), event("Party", "B", 2)));
+    }
+
+    @Test
+    void testSetAllSortsWithCodeForEqualNames() {
+        assertEquals(List.of("C", "D", "B", "A", "E"), codes());
+    }
+
+    @Test
+    void testPutNewEvent() {
+        index.put(event("Lunch", "F", 3));
+        index.put(event("Zoo", "G", 3));
+        index.put(event("Breakfast", "H", 3));
+        assertEquals(List.of("H", "C", "D", "F", "B", "A", "E", "G"), codes());
+    }
+
+    @Test
+    void testPutRenamedEventMovesIt() {
+        index.put(event("Apples", "E", 0));
+        assertEquals(List.of("E", "C", "D", "B", "A"), codes());
+        assertEquals("Apples", index.get("E").name());
+    }
+
+    @Test
+    void testPutEventInSamePlaceReplacesIt() {
+        AtomicInteger replaced = new AtomicInteger();
+        index.getEvents().addListener((ListChangeListener<EventDTO>) change -> {
+            while (change.next()) {
+                if (change.wasReplaced()) replaced.incrementAndGet();
+            }
+        });
+        index.put(event("Party!", "B", 5));
+
+        assertEquals(List.of("C", "D", "B", "A", "E"), codes());
+        assertEquals("Party!", index.getEvents().get(2).name());
+        assertEquals(1, replaced.get());
+    }
+
+    @Test
+    void testRemove() {
+        index.remove("D");
+        index.remove("X");
+        assertEquals(List.of("C", "B", "A", "E"), codes());
+        assertNull(index.get("D"));
+    }
+
+    @Test
+    void testSetOrderKeepsOrderOnPut() {
+        index.setOrder(Comparator.comparing(EventDTO::lastActivity, Comparator.reverseOrder()));
+        assertEquals(List.of("B", "D", "A", "C", "E"), codes());
+
+        index.put(event("Trip", "A", 5));
+        index.put(event("New", "F", 1));
+        assertEquals(List.of("A", "B", "D", "C", "F", "E"), codes());
+    }
+
+    @Test
+    void testEventsCannotBeChangedFromOutside() {
+        assertThrows(UnsupportedOperationException.class, () -> index.getEvents().clear());
+    }
+
+    private List<String> codes() {
+        return index.getEvents().stream().map(EventDTO::code).toList();
+    }
+
+    private static EventDTO event(String name, String code, int days) {
+        return new EventDTO(name, code, DATE, DATE.plusDays(days));
+    }
+}
@@ -0,0 +1,13 @@
+package commons.dto;
+
+/**
+ * Data Transfer Object (DTO) representing the WebSocket messages sent to one kind of destination.
+ * Destinations of single events are counted together, with the event code replaced by {eventCode}.
+ * The counts cover all messages since the server started.
+ */
+public record BroadcastStatsDTO (
+        String destination,
+        long messages,
+        long bytes,
+        long sendNanos
+) { }
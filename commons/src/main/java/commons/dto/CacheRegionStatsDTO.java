@@ -0,0 +1,13 @@
+package commons.dto;
+
+/**
+ * Data Transfer Object (DTO) representing the use of one region of the server's second-level cache.
+ * The counts cover all lookups since the server started.
+ */
+public record CacheRegionStatsDTO (
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        long evictions
+) { }
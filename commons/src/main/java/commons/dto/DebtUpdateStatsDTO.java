@@ -0,0 +1,12 @@
+package commons.dto;
+
+/**
+ * Data Transfer Object (DTO) representing the long polling requests for debt updates.
+ * The notified and timed out counts cover all requests since the server started.
+ */
+public record DebtUpdateStatsDTO (
+        long waitingRequests,
+        long waitingEvents,
+        long notifiedRequests,
+        long timedOutRequests
+) { }
@@ -0,0 +1,13 @@
+package commons.dto;
+
+/**
+ * Data Transfer Object (DTO) representing the generation of event codes since the server started.
+ * A filter hit is a generated code that might already be taken and had to be looked up in the database,
+ * a collision is a filter hit that was actually taken and had to be generated again.
+ */
+public record EventCodeStatsDTO (
+        long generatedCodes,
+        long filterHits,
+        long collisions,
+        long knownCodes
+) { }
@@ -0,0 +1,52 @@
+package commons.dto;
+
+/**
+ * Data Transfer Object (DTO) representing one change to an event.
+ * Exactly one of event, participant and expense is set, it holds the state of the changed
+ * entity after the change, or its last state if it was deleted.
+ * The sequence numbers of the changes to one event increase by one with every change.
+ */
+public record EventDeltaDTO (
+        long sequence,
+        WSAction action,
+        EventDTO event,
+        ParticipantDTO participant,
+        ExpenseDTO expense
+) {
+
+    /**
+     * Creates a delta for a change to the event itself
+     *
+     * @param sequence sequence number of the change
+     * @param action   kind of change
+     * @param event    the changed event
+     * @return the delta
+     */
+    public static EventDeltaDTO ofEvent(long sequence, WSAction action, EventDTO event) {
+        return new EventDeltaDTO(sequence, action, event, null, null);
+    }
+
+    /**
+     * Creates a delta for a change to a participant of the event
+     *
+     * @param sequence    sequence number of the change
+     * @param action      kind of change
+     * @param participant the changed participant
+     * @return the delta
+     */
+    public static EventDeltaDTO ofParticipant(long sequence, WSAction action, ParticipantDTO participant) {
+        return new EventDeltaDTO(sequence, action, null, participant, null);
+    }
+
+    /**
+     * Creates a delta for a change to an expense of the event
+     *
+     * @param sequence sequence number of the change
+     * @param action   kind of change
+     * @param expense  the changed expense
+     * @return the delta
+     */
+    public static EventDeltaDTO ofExpense(long sequence, WSAction action, ExpenseDTO expense) {
+        return new EventDeltaDTO(sequence, action, null, null, expense);
+    }
+}
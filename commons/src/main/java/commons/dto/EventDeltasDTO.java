@@ -0,0 +1,18 @@
+package commons.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing consecutive changes to an event.
+ * Sequence numbers are only comparable within one epoch of the event, the epoch changes when the
+ * server drops the changes of the event, restarts or its database is replaced, after which clients
+ * have to reload the event.
+ * sequence is the number of the latest change to the event, deltas may be empty.
+ * eventCode names the event, so a client can drop messages meant for an event it has left.
+ */
+public record EventDeltasDTO (
+        String eventCode,
+        long epoch,
+        long sequence,
+        List<EventDeltaDTO> deltas
+) { }
@@ -0,0 +1,13 @@
+package commons.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of events.
+ * The next cursor is passed as the after parameter to fetch the following page,
+ * it is null on the last page.
+ */
+public record EventPageDTO (
+        List<EventDTO> events,
+        String next
+) { }
@@ -1,14 +1,48 @@
 package commons.dto;
 
 import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Data Transfer Object (DTO) representing an expense.
+ * debtorNames are the participants who share the expense. When creating an expense,
+ * no debtors means it is shared by all participants the event has at that moment: participants
+ * who join later do not share it until it is updated with them as debtors. When updating an
+ * expense, no debtors means they stay the same.
  */
 public record ExpenseDTO (
         Long id,
         Double price,
         String item,
         String paidByName,
-        LocalDate date
-){ }
+        LocalDate date,
+        List<String> debtorNames
+){
+
+    /**
+     * Creates an ExpenseDTO, debtorNames may be null for no debtors
+     */
+    public ExpenseDTO {
+        debtorNames = debtorNames == null ? List.of() : List.copyOf(debtorNames);
+    }
+
+    /**
+     * Creates an ExpenseDTO without debtors
+     * @param id the ID of the expense
+     * @param price the price of the expense
+     * @param item the item description of the expense
+     * @param paidByName the name of the participant who paid
+     * @param date the date of the expense
+     */
+    public ExpenseDTO(Long id, Double price, String item, String paidByName, LocalDate date) {
+        this(id, price, item, paidByName, date, List.of());
+    }
+
+    /**
+     * @param debtorNames the participants who share the expense
+     * @return a new ExpenseDTO with the given debtors
+     */
+    public ExpenseDTO withDebtorNames(List<String> debtorNames) {
+        return new ExpenseDTO(id, price, item, paidByName, date, debtorNames);
+    }
+}
@@ -0,0 +1,13 @@
+package commons.dto;
+
+/**
+ * Data Transfer Object (DTO) representing the progress of restoring a dump.
+ * The counts cover everything restored so far by the running or last finished restore.
+ */
+public record RestoreProgressDTO (
+        boolean running,
+        long events,
+        long participants,
+        long expenses,
+        long debts
+) { }
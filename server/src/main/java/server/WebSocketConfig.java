@@ -1,24 +1,69 @@
 package server;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class  WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final boolean virtualThreads;
+    private final long heartbeatMillis;
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    /**
+     * Constructs WebSocketConfig
+     *
+     * @param virtualThreads  Whether the server runs its requests on virtual threads
+     * @param heartbeatMillis The interval of the heartbeats the broker sends and expects, 0 for none
+     */
+    public WebSocketConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           @Value("${websocket.heartbeat.millis:10000}") long heartbeatMillis) {
+        this.virtualThreads = virtualThreads;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    /**
+     * Sets the scheduler of the heartbeats.
+     * The scheduler is created by the message broker configuration itself, so it is injected lazily.
+     *
+     * @param messageBrokerTaskScheduler The task scheduler of the message broker.
+     */
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     /**
      * Configures message broker.
+     * Heartbeats let both sides notice a connection that died without being closed,
+     * the client then connects again.
+     * The outbound channel hands messages to several threads, so without preserving the publish order
+     * a client could receive two messages in the other order than they were sent in.
      *
      * @param config The message broker registry.
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/api/websocket/v1/channel");
+        config.enableSimpleBroker("/api/websocket/v1/channel")
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         config.setApplicationDestinationPrefixes("/api/websocket");
+        config.setPreservePublishOrder(true);
     }
 
     /**
@@ -31,5 +76,59 @@ public class  WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws-connect");
     }
 
-}
+    /**
+     * Handles messages from clients on virtual threads if they are enabled.
+     *
+     * @param registration The registration of the inbound channel.
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) registration.taskExecutor(new VirtualThreadPerTaskExecutor("ws-inbound-"));
+    }
+
+    /**
+     * Sends messages to clients on virtual threads if they are enabled.
+     *
+     * @param registration The registration of the outbound channel.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) registration.taskExecutor(new VirtualThreadPerTaskExecutor("ws-outbound-"));
+    }
+
+    /**
+     * Runs every message of a channel on a new virtual thread.
+     * Spring Boot only moves the web server and task executors to virtual threads,
+     * the channels of the message broker keep their own pools of platform threads otherwise.
+     * The channels only accept a ThreadPoolTaskExecutor, so the tasks are handed past its pool:
+     * virtual threads are cheap to start and are not meant to be pooled.
+     */
+    private static final class VirtualThreadPerTaskExecutor extends ThreadPoolTaskExecutor {
+        private final ExecutorService executor;
+
+        private VirtualThreadPerTaskExecutor(String namePrefix) {
+            executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            executor.execute(task);
+        }
 
+        @Override
+        public Future<?> submit(Runnable task) {
+            return executor.submit(task);
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            return executor.submit(task);
+        }
+
+        @Override
+        public void shutdown() {
+            super.shutdown();
+            executor.shutdown();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package server.api;
 
 import commons.dto.DebtDTO;
+import commons.dto.DebtUpdateStatsDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,11 +11,13 @@ import server.entities.DTOMapper;
 import server.entities.debt.Debt;
 import server.service.DebtService;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.exceptions.UnknownSettlementStrategyException;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Controller class handling HTTP requests related to debts in the system.
@@ -26,7 +29,13 @@ public class DebtController {
 
     private final DebtService debtService;
     private final DTOMapper<Debt, DebtDTO> debtDTOMapper;
-    private Map<Object, Consumer<List<DebtDTO>>> listeners = new HashMap<>();
+    /**
+     * Long polling requests waiting for debt updates, by event code
+     */
+    private final Map<String, Set<DeferredResult<ResponseEntity<List<DebtDTO>>>>> waiting =
+            new ConcurrentHashMap<>();
+    private final AtomicLong notifiedRequests = new AtomicLong();
+    private final AtomicLong timedOutRequests = new AtomicLong();
 
     /**
      * Constructs a DebtController with the specified DebtService
@@ -55,24 +64,24 @@ public class DebtController {
             @PathVariable String eventCode
     ) {
         DeferredResult<ResponseEntity<List<DebtDTO>>> deferredResult = new DeferredResult<>(5000L);
-        var key = new Object();
-
-        listeners.put(key, passedDebtDTOs -> {
-            List<DebtDTO> debtDTOs = debtService.getAllDebts(eventCode)
-                    .stream()
-                    .map(debtDTOMapper::toDTO)
-                    .toList();
 
-            deferredResult.setResult(ResponseEntity.ok(debtDTOs));
+        waiting.compute(eventCode, (code, waiters) -> {
+            if (waiters == null) waiters = ConcurrentHashMap.newKeySet();
+            waiters.add(deferredResult);
+            return waiters;
         });
 
         deferredResult.onTimeout(() -> {
+            timedOutRequests.incrementAndGet();
             deferredResult.setErrorResult(
                     ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT).body("Request timed out. Please try again.")
             );
         });
 
-        deferredResult.onCompletion(() -> listeners.remove(key));
+        deferredResult.onCompletion(() -> waiting.computeIfPresent(eventCode, (code, waiters) -> {
+            waiters.remove(deferredResult);
+            return waiters.isEmpty() ? null : waiters;
+        }));
 
         return deferredResult;
     }
@@ -88,10 +97,7 @@ public class DebtController {
             @PathVariable("eventCode") String eventCode
     ) {
         ResponseEntity<List<DebtDTO>> res = ResponseEntity.ok(
-                debtService.getAllDebts(eventCode)
-                        .stream()
-                        .map(debtDTOMapper::toDTO)
-                        .toList()
+                debtService.getAllDebtDTOs(eventCode)
         );
         return res;
     }
@@ -112,7 +118,7 @@ public class DebtController {
             Debt updated = debtService.updateOne(eventCode, body);
             DebtDTO debtDTO = debtDTOMapper.toDTO(updated);
 
-            listeners.forEach((k, v) -> v.accept(List.of(debtDTO)));
+            notifyWaiting(eventCode);
 
             return new ResponseEntity<>(debtDTO, HttpStatus.OK);
         } catch (NotFoundInDatabaseException e) {
@@ -124,24 +130,62 @@ public class DebtController {
      * Generates open debts from the expenses on the given server and populates the database with them.
      *
      * @param eventCode The code of the event for which debts are to be generated.
-     * @return ResponseEntity containing the list of created debts.
+     * @param strategy  The settlement strategy to use (greedy or pairwise), the server default if absent.
+     * @return ResponseEntity containing the list of created debts, or BAD_REQUEST if the strategy does not exist.
      */
     @PostMapping("")
     public ResponseEntity<List<DebtDTO>> generateDebts(
-            @PathVariable("eventCode") String eventCode
+            @PathVariable("eventCode") String eventCode,
+            @RequestParam(value = "strategy", required = false) String strategy
     ) {
-        List<Debt> generatedDebts = debtService.generateDebtsFromExpenses(eventCode);
+        List<Debt> generatedDebts;
+        try {
+            generatedDebts = debtService.generateDebtsFromExpenses(eventCode, strategy);
+        } catch (UnknownSettlementStrategyException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
 
         List<DebtDTO> dtos = generatedDebts
                 .stream()
                 .map(debtDTOMapper::toDTO)
                 .toList();
 
-        listeners.forEach((k, v) -> v.accept(dtos));
+        notifyWaiting(eventCode);
 
         return new ResponseEntity<>(
                 dtos,
                 HttpStatus.CREATED
         );
     }
+
+    /**
+     * Completes all long polling requests waiting for updates of the given event.
+     * The debts of the event are fetched once and sent to every waiting request.
+     *
+     * @param eventCode The code of the event whose debts changed.
+     */
+    private void notifyWaiting(String eventCode) {
+        Set<DeferredResult<ResponseEntity<List<DebtDTO>>>> waiters = waiting.remove(eventCode);
+        if (waiters == null) return;
+
+        ResponseEntity<List<DebtDTO>> debts = ResponseEntity.ok(
+                debtService.getAllDebtDTOs(eventCode)
+        );
+        for (DeferredResult<ResponseEntity<List<DebtDTO>>> waiter : waiters) {
+            if (waiter.setResult(debts)) notifiedRequests.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return statistics on the long polling requests waiting for debt updates
+     */
+    public DebtUpdateStatsDTO getUpdateStats() {
+        long waitingRequests = waiting.values().stream().mapToLong(Set::size).sum();
+        return new DebtUpdateStatsDTO(
+                waitingRequests,
+                waiting.size(),
+                notifiedRequests.get(),
+                timedOutRequests.get()
+        );
+    }
 }
@@ -0,0 +1,51 @@
+package server.api;
+
+import commons.dto.EventDeltasDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import server.service.EventDeltaLog;
+
+@RestController
+@RequestMapping("api/v1/{eventCode}/delta")
+public class DeltaController {
+
+    private final EventDeltaLog eventDeltaLog;
+
+    /**
+     * Constructs DeltaController
+     * @param eventDeltaLog The EventDeltaLog holding the recent changes to events
+     */
+    public DeltaController(@Autowired EventDeltaLog eventDeltaLog) {
+        this.eventDeltaLog = eventDeltaLog;
+    }
+
+    /**
+     * GET api/v1/{eventCode}/delta?epoch={epoch}&amp;since={sequence}
+     * epoch and since are optional
+     * If they are omitted the current epoch and sequence number of the event are returned without any changes,
+     * a client fetches these before loading an event and applies the changes after them.
+     * If they are given all changes to the event after sequence number since are returned,
+     * these are the same changes that were sent out on "/api/websocket/v1/channel/{eventCode}/delta".
+     *
+     * @param eventCode The event code
+     * @param epoch     The epoch of the sequence number (optional)
+     * @param since     The sequence number of the last change the client has seen (optional)
+     * @return The changes after since.
+     *         Returns HttpStatus.OK if successful.
+     *         Returns HttpStatus.GONE if the changes are no longer known, the client has to reload the event.
+     */
+    @GetMapping
+    public ResponseEntity<EventDeltasDTO> getDeltas(
+            @PathVariable("eventCode") String eventCode,
+            @RequestParam(value = "epoch", required = false) Long epoch,
+            @RequestParam(value = "since", required = false) Long since) {
+        if (epoch == null || since == null)
+            return new ResponseEntity<>(eventDeltaLog.getPosition(eventCode), HttpStatus.OK);
+
+        EventDeltasDTO deltas = eventDeltaLog.getDeltas(eventCode, epoch, since);
+        if (deltas == null) return new ResponseEntity<>(HttpStatus.GONE);
+        return new ResponseEntity<>(deltas, HttpStatus.OK);
+    }
+}
@@ -1,47 +1,57 @@
 package server.api;
 
 import commons.dto.EventDTO;
+import commons.dto.EventPageDTO;
 import commons.dto.WSAction;
 import commons.dto.WSWrapperResponseBody;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 import server.entities.DTOMapper;
 import server.entities.event.Event;
 import server.entities.participant.Participant;
+import server.service.Broadcaster;
+import server.service.EventDeltaLog;
 import server.service.EventService;
 import server.service.exceptions.NotFoundInDatabaseException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("api/v1/")
 public class EventController {
+    private static final int MAX_EVENTS_PER_REQUEST = 100;
+
     private final EventService eventService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final Broadcaster broadcaster;
     private final DTOMapper<Event, EventDTO> eventDTOMapper;
     private final ParticipantController participantController;
+    private final EventDeltaLog eventDeltaLog;
 
     /**
-     * Constructs an EventController with the specified EventService and SimpMessagingTemplate.
+     * Constructs an EventController with the specified EventService and Broadcaster.
      *
      * @param eventService          The EventService to be injected into the controller.
-     * @param simpMessagingTemplate The SimpMessagingTemplate to be injected into the controller.
+     * @param broadcaster The Broadcaster to be injected into the controller.
      * @param eventDTOMapper The EventDTOMapper instance to be injected into the controller.
      * @param participantController The ParticipantController instance to be injected into the controller.
+     * @param eventDeltaLog The EventDeltaLog the changes to events are recorded in.
      */
     public EventController(@Autowired EventService eventService,
-                           @Autowired SimpMessagingTemplate simpMessagingTemplate,
+                           @Autowired Broadcaster broadcaster,
                            @Autowired DTOMapper<Event, EventDTO> eventDTOMapper,
-                           @Autowired ParticipantController participantController
+                           @Autowired ParticipantController participantController,
+                           @Autowired EventDeltaLog eventDeltaLog
     ) {
         this.eventService = eventService;
-        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.broadcaster = broadcaster;
         this.eventDTOMapper = eventDTOMapper;
         this.participantController = participantController;
+        this.eventDeltaLog = eventDeltaLog;
     }
 
     /**
@@ -60,6 +70,81 @@ public class EventController {
         return new ResponseEntity<>(eventDTOs, HttpStatus.OK);
     }
 
+    /**
+     * Retrieves the events with the specified Event Codes through a GET request to
+     * /api/v1/?codes={code}&codes={code}... or /api/v1/?codes={code},{code}...
+     * Codes of events that do not exist are ignored.
+     *
+     * @param codes The Event Codes of the events, at most 100.
+     * @return A ResponseEntity containing the events that exist.
+     *         Returns HttpStatus.OK if successful.
+     *         Returns HttpStatus.BAD_REQUEST if more than 100 codes are given.
+     */
+    @GetMapping(params = "codes")
+    public ResponseEntity<List<EventDTO>> getMany(@RequestParam("codes") Set<String> codes) {
+        if (codes.size() > MAX_EVENTS_PER_REQUEST) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        List<EventDTO> eventDTOs = eventService.getMany(codes)
+                .stream()
+                .map(eventDTOMapper::toDTO)
+                .toList();
+        return new ResponseEntity<>(eventDTOs, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves a page of events through a GET request to
+     * /api/v1/?size={size}&sort={sort}&direction={direction}&after={after}.
+     *
+     * @param size      The maximum number of events on the page, at most 100.
+     * @param sort      The property to sort on: code (default), name, creationDate or lastActivity.
+     * @param direction The sort direction: asc (default) or desc.
+     * @param after     The next cursor of the previous page, absent for the first page.
+     * @return A ResponseEntity containing the page of events and the cursor for the next page.
+     *         Returns HttpStatus.OK if successful.
+     *         Returns HttpStatus.BAD_REQUEST if the size, sort, direction or cursor is invalid.
+     */
+    @GetMapping(params = "size")
+    public ResponseEntity<EventPageDTO> getPage(
+            @RequestParam("size") int size,
+            @RequestParam(value = "sort", defaultValue = "code") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "after", required = false) String after
+    ) {
+        if (size < 1 || size > MAX_EVENTS_PER_REQUEST || !(direction.equals("asc") || direction.equals("desc")))
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        try {
+            Window<Event> page = eventService.getPage(sort, direction.equals("desc"), size, after);
+            List<EventDTO> eventDTOs = page
+                    .stream()
+                    .map(eventDTOMapper::toDTO)
+                    .toList();
+            return new ResponseEntity<>(
+                    new EventPageDTO(eventDTOs, eventService.nextCursor(page, sort)),
+                    HttpStatus.OK
+            );
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Retrieves the event with the specified Event Code through a GET request to /api/v1/{eventCode}.
+     *
+     * @param eventCode The Event Code of the event.
+     * @return A ResponseEntity containing the event if successful.
+     *         Returns HttpStatus.OK if successful.
+     *         Returns HttpStatus.NOT_FOUND if the event is not found in the database.
+     */
+    @GetMapping("/{eventCode}")
+    public ResponseEntity<EventDTO> getOne(@PathVariable("eventCode") String eventCode) {
+        try {
+            return new ResponseEntity<>(eventDTOMapper.toDTO(eventService.getOne(eventCode)), HttpStatus.OK);
+        } catch (NotFoundInDatabaseException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
 
     /**
      * Creates a new Event with the specified name through a POST request to /api/v1/?name={name}.
@@ -74,14 +159,15 @@ public class EventController {
     @PostMapping
     public ResponseEntity<EventDTO> createEvent(@RequestParam("name") String name) {
         Event event = eventService.createOne(name);
+        EventDTO eventDTO = eventDTOMapper.toDTO(event);
 
-        simpMessagingTemplate.convertAndSend("/api/websocket/v1/channel/event",
+        broadcaster.send("/api/websocket/v1/channel/event",
                 new WSWrapperResponseBody<>(
                         WSAction.CREATED,
-                        event
+                        eventDTO
                 ));
 
-        return new ResponseEntity<>(eventDTOMapper.toDTO(event), HttpStatus.CREATED);
+        return new ResponseEntity<>(eventDTO, HttpStatus.CREATED);
     }
 
 
@@ -106,21 +192,15 @@ public class EventController {
             deleteDependants(event);
             eventService.deleteOne(eventCode);
 
-            simpMessagingTemplate.convertAndSend(
-                    "/api/websocket/v1/channel/" + eventCode,
-                    new WSWrapperResponseBody<>(
-                            WSAction.DELETED,
-                            eventDTO
-                    )
-            );
-
-            simpMessagingTemplate.convertAndSend(
-                    "/api/websocket/v1/channel/event",
+            // the same message goes to the listeners on this event and on all events
+            broadcaster.send(
+                    List.of("/api/websocket/v1/channel/" + eventCode, "/api/websocket/v1/channel/event"),
                     new WSWrapperResponseBody<>(
                             WSAction.DELETED,
                             eventDTO
                     )
             );
+            eventDeltaLog.publishEvent(eventCode, WSAction.DELETED, eventDTO);
 
             return new ResponseEntity<>(eventDTO, HttpStatus.OK);
         } catch (NotFoundInDatabaseException e){
@@ -148,21 +228,15 @@ public class EventController {
             Event event = eventService.updateOne(eventCode, name);
             EventDTO eventDTO = eventDTOMapper.toDTO(event);
 
-            simpMessagingTemplate.convertAndSend(
-                    "/api/websocket/v1/channel/" + eventCode,
-                    new WSWrapperResponseBody<>(
-                            WSAction.MODIFIED,
-                            eventDTO
-                    )
-            );
-
-            simpMessagingTemplate.convertAndSend(
-                    "/api/websocket/v1/channel/event",
+            // the same message goes to the listeners on this event and on all events
+            broadcaster.send(
+                    List.of("/api/websocket/v1/channel/" + eventCode, "/api/websocket/v1/channel/event"),
                     new WSWrapperResponseBody<>(
                             WSAction.MODIFIED,
                             eventDTO
                     )
             );
+            eventDeltaLog.publishEvent(eventCode, WSAction.MODIFIED, eventDTO);
 
             return new ResponseEntity<>(eventDTO, HttpStatus.OK);
         } catch (NotFoundInDatabaseException e) {
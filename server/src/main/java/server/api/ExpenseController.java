@@ -6,49 +6,59 @@ import commons.dto.WSWrapperResponseBody;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import server.entities.DTOMapper;
 import server.entities.expense.Expense;
+import server.service.Broadcaster;
+import server.service.EventDeltaLog;
 import server.service.ExpenseService;
 import server.service.exceptions.NotFoundInDatabaseException;
 
+import java.util.Collections;
 import java.util.List;
 
 @Controller
 @RestController
 @RequestMapping("api/v1/{eventCode}/expense")
 public class ExpenseController {
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ExpenseService expenseService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final Broadcaster broadcaster;
+    private final EventDeltaLog eventDeltaLog;
     private final DTOMapper<Expense, ExpenseDTO> expenseDTOMapper;
 
     /**
      * Constructor for initializing the ExpenseController.
      *
      * @param expenseService        The ExpenseService instance to be injected.
-     * @param simpMessagingTemplate The SimpMessagingTemplate instance to be injected.
+     * @param broadcaster The Broadcaster instance to be injected.
      * @param expenseDTOMapper The ExpenseDTOMapper instance to be injected.
+     * @param eventDeltaLog The EventDeltaLog the changes to expenses are recorded in.
      */
     @Autowired
     public ExpenseController(@Autowired ExpenseService expenseService,
-                             @Autowired SimpMessagingTemplate simpMessagingTemplate,
-                             @Autowired DTOMapper<Expense, ExpenseDTO> expenseDTOMapper) {
+                             @Autowired Broadcaster broadcaster,
+                             @Autowired DTOMapper<Expense, ExpenseDTO> expenseDTOMapper,
+                             @Autowired EventDeltaLog eventDeltaLog) {
         this.expenseService = expenseService;
-        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.broadcaster = broadcaster;
+        this.eventDeltaLog = eventDeltaLog;
         this.expenseDTOMapper = expenseDTOMapper;
     }
 
     /**
-     * GET api/v1/{eventCode}/expense?id={id}&participantName={name}
-     * id and participantName are optional
-     * If any of them is omitted all Expenses of event with {eventCode} will be returned
+     * GET api/v1/{eventCode}/expense?id={id}&participantName={name}&involving={debtor}
+     * id, participantName and involving are optional
+     * If id and participantName are omitted all Expenses of event with {eventCode} will be returned,
+     * or only the Expenses shared by the participant with name {debtor} if involving is given
      * If they are both given an Expense belonging to a participant with name {name} of Event
      * with {eventCode} and with id {id} will be returned
      *
      * @param id               The ID of the expense (optional).
      * @param participantName  The name of the participant (optional).
+     * @param involving        The name of a participant sharing the expenses (optional).
      * @param eventCode        The event code.
      * @return                 A ResponseEntity containing a list of ExpenseResponseBody objects
      *                         if id and participantName are omitted
@@ -60,14 +70,13 @@ public class ExpenseController {
     public ResponseEntity<List<ExpenseDTO>> getAllOrOne(
             @RequestParam(value = "id", required = false) Long id,
             @RequestParam(value = "participantName", required = false) String participantName,
+            @RequestParam(value = "involving", required = false) String involving,
             @PathVariable("eventCode") String eventCode
     ) {
         if (id == null && participantName == null) {
-            List<Expense> expenses = expenseService.getAllInEvent(eventCode);
-            List<ExpenseDTO> expenseDTOs = expenses.stream()
-                    .map(expenseDTOMapper::toDTO)
-                    .toList();
-            return new ResponseEntity<>(expenseDTOs, HttpStatus.OK);
+            return new ResponseEntity<>(involving == null
+                    ? expenseService.getAllDTOsInEvent(eventCode)
+                    : expenseService.getAllDTOsInvolving(eventCode, involving), HttpStatus.OK);
         }
 
         try {
@@ -105,12 +114,13 @@ public class ExpenseController {
             Expense expense = expenseService.createOne(eventCode, expenseDTO);
             ExpenseDTO createdDTO = expenseDTOMapper.toDTO(expense);
 
-            simpMessagingTemplate.convertAndSend(
+            broadcaster.send(
                     "/api/websocket/v1/channel/" + eventCode + "/expense",
                     new WSWrapperResponseBody<>(
                             WSAction.CREATED,
                             createdDTO
                     ));
+            eventDeltaLog.publishExpenses(eventCode, WSAction.CREATED, Collections.singletonList(createdDTO));
 
             return new ResponseEntity<>(createdDTO, HttpStatus.CREATED);
         } catch (NotFoundInDatabaseException e) {
@@ -118,6 +128,50 @@ public class ExpenseController {
         }
     }
 
+    /**
+     * POST api/v1/{eventCode}/expense/batch with request body in format of List<ExpenseDTO>
+     * creates a new Expense for every element of the body under an event with {eventCode},
+     * all in a single transaction. IDs get automatically generated
+     * <p>
+     * Sends out one WebSocket STOMP message to all listeners
+     * on "/api/websocket/v1/channel/{eventCode}/expense with WSAction CREATED
+     * and the list of all created expenses
+     *
+     * @param eventCode   The event code.
+     * @param expenseDTOs The ExpenseDTOs containing data for creating the expenses.
+     * @return A ResponseEntity containing the ExpenseDTOs of the created expenses if successful,
+     *         a NOT_FOUND response if the event or any of the participants is not found
+     *         or a BAD_REQUEST response if more than MAX_BATCH_SIZE expenses are given.
+     */
+    @ResponseBody
+    @PostMapping("/batch")
+    public ResponseEntity<List<ExpenseDTO>> createMany(
+            @PathVariable("eventCode") String eventCode,
+            @RequestBody List<ExpenseDTO> expenseDTOs
+    ) {
+        if (expenseDTOs.size() > MAX_BATCH_SIZE) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            List<ExpenseDTO> createdDTOs = expenseService.createMany(eventCode, expenseDTOs)
+                    .stream()
+                    .map(expenseDTOMapper::toDTO)
+                    .toList();
+
+            if (!createdDTOs.isEmpty()) {
+                broadcaster.send(
+                        "/api/websocket/v1/channel/" + eventCode + "/expense",
+                        new WSWrapperResponseBody<>(
+                                WSAction.CREATED,
+                                createdDTOs
+                        ));
+                eventDeltaLog.publishExpenses(eventCode, WSAction.CREATED, createdDTOs);
+            }
+
+            return new ResponseEntity<>(createdDTOs, HttpStatus.CREATED);
+        } catch (NotFoundInDatabaseException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
     /**
      * DELETE api/v1/{eventCode}/expense?id={id}&participantName={name}
      * deletes expense belonging to a Participant with name {name} and id {id} from
@@ -142,12 +196,13 @@ public class ExpenseController {
             Expense expense = expenseService.deleteOne(eventCode, participantName, id);
             ExpenseDTO expenseDTO = expenseDTOMapper.toDTO(expense);
 
-            simpMessagingTemplate.convertAndSend(
+            broadcaster.send(
                     "/api/websocket/v1/channel/" + eventCode + "/expense",
                     new WSWrapperResponseBody<>(
                             WSAction.DELETED,
                             expenseDTO
                     ));
+            eventDeltaLog.publishExpenses(eventCode, WSAction.DELETED, Collections.singletonList(expenseDTO));
 
             return new ResponseEntity<>(expenseDTO, HttpStatus.OK);
         } catch (NotFoundInDatabaseException e) {
@@ -180,12 +235,13 @@ public class ExpenseController {
             Expense updated = expenseService.updateOne(eventCode, id, body);
             ExpenseDTO expenseDTO = expenseDTOMapper.toDTO(updated);
 
-            simpMessagingTemplate.convertAndSend(
+            broadcaster.send(
                     "/api/websocket/v1/channel/" + eventCode + "/expense",
                     new WSWrapperResponseBody<>(
                             WSAction.MODIFIED,
                             expenseDTO
                     ));
+            eventDeltaLog.publishExpenses(eventCode, WSAction.MODIFIED, Collections.singletonList(expenseDTO));
 
             return new ResponseEntity<>(expenseDTO, HttpStatus.OK);
         } catch (NotFoundInDatabaseException e) {
@@ -1,19 +1,28 @@
 package server.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import commons.dto.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import server.entities.DTOMapper;
 import server.entities.debt.Debt;
 import server.entities.event.Event;
 import server.entities.expense.Expense;
 import server.entities.participant.Participant;
+import server.service.Broadcaster;
+import server.service.DumpFormats;
+import server.service.EventDeltaLog;
 import server.service.JSONDumpService;
 import server.service.exceptions.ImproperDumpFormatException;
+import server.service.exceptions.NotFoundInDatabaseException;
 
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
 import java.util.List;
 
 
@@ -25,7 +34,9 @@ public class JSONDumpController {
     private final DTOMapper<Participant, ParticipantDTO> participantDTOMapper;
     private final DTOMapper<Expense, ExpenseDTO> expenseDTOMapper;
     private final DTOMapper<Debt, DebtDTO> debtDTOMapper;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final Broadcaster broadcaster;
+    private final DumpFormats dumpFormats;
+    private final EventDeltaLog eventDeltaLog;
 
     /**
      * Constructs a JSONDumpController with the specified JSONDumpService.
@@ -35,7 +46,9 @@ public class JSONDumpController {
      * @param participantDTOMapper The ParticipantDTOMapper instance to be injected.
      * @param expenseDTOMapper The ExpenseDTOMapper instance to be injected.
      * @param debtDTOMapper The DebtDTOMapper instance to be injected.
-     * @param simpMessagingTemplate The SimpMessaging template to be injected.
+     * @param broadcaster The Broadcaster to be injected.
+     * @param dumpFormats The DumpFormats instance to be injected.
+     * @param eventDeltaLog The EventDeltaLog to reset after a restore.
      */
     public JSONDumpController(
             @Autowired JSONDumpService jsonDumpService,
@@ -43,14 +56,18 @@ public class JSONDumpController {
             @Autowired DTOMapper<Participant, ParticipantDTO> participantDTOMapper,
             @Autowired DTOMapper<Expense, ExpenseDTO> expenseDTOMapper,
             @Autowired DTOMapper<Debt, DebtDTO> debtDTOMapper,
-            @Autowired SimpMessagingTemplate simpMessagingTemplate
+            @Autowired Broadcaster broadcaster,
+            @Autowired DumpFormats dumpFormats,
+            @Autowired EventDeltaLog eventDeltaLog
     ) {
         this.jsonDumpService = jsonDumpService;
         this.eventDTOMapper = eventDTOMapper;
         this.participantDTOMapper = participantDTOMapper;
         this.expenseDTOMapper = expenseDTOMapper;
         this.debtDTOMapper = debtDTOMapper;
-        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.broadcaster = broadcaster;
+        this.dumpFormats = dumpFormats;
+        this.eventDeltaLog = eventDeltaLog;
     }
 
     /**
@@ -66,23 +83,82 @@ public class JSONDumpController {
     }
 
     /**
-     * POST api/v1/admin/jsondump with a request body in List<JSONDumpEventDTO> format
-     * Restores the server to the state in accordance with the passed JSON object
+     * GET api/v1/admin/jsondump/event/{eventCode}
+     * Returns the JSON of a single event, in the same format as one element of GET api/v1/admin/jsondump
+     *
+     * @param eventCode The code of the event.
+     * @return A ResponseEntity containing the EventResponseBody of the event if successful.
+     *         Returns HttpStatus.OK if successful.
+     *         Returns HttpStatus.NOT_FOUND if the event is not found in the database.
+     */
+    @GetMapping("/event/{eventCode}")
+    public ResponseEntity<JSONDumpEventDTO> getJSONDumpOfEvent(@PathVariable("eventCode") String eventCode){
+        try {
+            return new ResponseEntity<>(jsonDumpService.createDumpForEvent(eventCode), HttpStatus.OK);
+        } catch (NotFoundInDatabaseException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * GET api/v1/admin/jsondump/stream
+     * Returns the same JSON as GET api/v1/admin/jsondump, but writes it to the response
+     * one event at a time instead of building the whole dump in memory first.
+     * Sending Accept: application/x-jackson-smile or application/cbor returns the dump in that binary format.
+     *
+     * @param accept The Accept header of the request.
+     * @return A ResponseEntity streaming the list of EventResponseBody objects.
+     *         Returns HttpStatus.OK if successful.
+     *         Returns HttpStatus.NOT_ACCEPTABLE if none of the accepted formats is supported.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamJSONDump(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
+    ){
+        MediaType mediaType = dumpFormats.negotiate(accept);
+        if (mediaType == null) return new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE);
+
+        ObjectMapper mapper = dumpFormats.getMapper(mediaType);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .body(outputStream -> jsonDumpService.writeDump(outputStream, mapper));
+    }
+
+    /**
+     * POST api/v1/admin/jsondump/server with a request body in List<JSONDumpEventDTO> format
+     * Restores the server to the state in accordance with the passed JSON object.
+     * The body is read as a stream, one event at a time, so dumps of any size can be restored.
+     * The progress can be followed through GET api/v1/admin/jsondump/progress.
+     * The body can also be sent as Smile or CBOR, and compressed with gzip.
      *
      * @param body The request body in List<JSONDumpEventDTO> format.
+     * @param contentType The Content-Type header of the request.
+     * @param contentEncoding The Content-Encoding header of the request.
      * @return A ResponseEntity with a status message.
      *         Returns "Restored Successfully" if the restoration is successful (HttpStatus.OK).
      *         Returns "Improper JSON dump format!" if the JSON dump format
      *         is improper (HttpStatus.NOT_MODIFIED).
      *         Returns "Unknown Error!" if an unknown error occurs
      *         (HttpStatus.INTERNAL_SERVER_ERROR).
+     *         Returns "Unsupported dump format!" if the Content-Type or Content-Encoding
+     *         is not supported (HttpStatus.UNSUPPORTED_MEDIA_TYPE).
      */
     @PostMapping("/server")
     public ResponseEntity<String> restoreFromJSONDump(
-            @RequestBody List<JSONDumpEventDTO> body
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding
     ){
+        MediaType mediaType = dumpFormats.forContentType(contentType);
+        boolean gzip = "gzip".equalsIgnoreCase(contentEncoding);
+        if (mediaType == null || !(gzip || contentEncoding == null || "identity".equalsIgnoreCase(contentEncoding)))
+            return new ResponseEntity<>("Unsupported dump format!", HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+
         try {
-            jsonDumpService.restoreFromDump(body);
+            InputStream inputStream = gzip ? new GZIPInputStream(body) : body;
+            jsonDumpService.restoreFromDump(inputStream, dumpFormats.getMapper(mediaType));
+            // clients have to reload the events they show
+            eventDeltaLog.reset();
             return new ResponseEntity<>("Restored Successfully", HttpStatus.OK);
         } catch (ImproperDumpFormatException e){
             return new ResponseEntity<>("Improper JSON dump format!", HttpStatus.NOT_MODIFIED);
@@ -91,6 +167,17 @@ public class JSONDumpController {
         }
     }
 
+    /**
+     * GET api/v1/admin/jsondump/progress
+     * Returns how much of the dump has been restored by the running, or last, restore of the server
+     *
+     * @return A ResponseEntity containing the progress. Returns HttpStatus.OK.
+     */
+    @GetMapping("/progress")
+    public ResponseEntity<RestoreProgressDTO> getRestoreProgress(){
+        return new ResponseEntity<>(jsonDumpService.getRestoreProgress(), HttpStatus.OK);
+    }
+
     /**
      *
      * @param body of the event
@@ -102,12 +189,13 @@ public class JSONDumpController {
     ){
         try {
             jsonDumpService.restoreEventFromDump(body);
+            eventDeltaLog.reset();
 
-            simpMessagingTemplate.convertAndSend(
+            broadcaster.send(
                     "/api/websocket/v1/channel/event",
                     new WSWrapperResponseBody<>(
                             WSAction.CREATED,
-                            body
+                            body.eventDTO()
                     )
             );
 
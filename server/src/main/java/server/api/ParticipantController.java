@@ -1,60 +1,75 @@
 package server.api;
 
+import commons.dto.ExpenseDTO;
 import commons.dto.ParticipantDTO;
 import commons.dto.WSAction;
 import commons.dto.WSWrapperResponseBody;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 import server.database.DebtRepository;
 import server.entities.DTOMapper;
 import server.entities.debt.DebtDTOMapper;
 import server.entities.expense.Expense;
+import server.entities.expense.ExpenseDTOMapper;
 import server.entities.participant.Participant;
+import server.service.Broadcaster;
+import server.service.EventDeltaLog;
 import server.service.ParticipantService;
+import server.service.exceptions.NameTakenException;
 import server.service.exceptions.NotFoundInDatabaseException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/{eventCode}/participant")
 public class ParticipantController {
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final ParticipantService participantService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final Broadcaster broadcaster;
+    private final EventDeltaLog eventDeltaLog;
     private final DTOMapper<Participant, ParticipantDTO> participantDTOMapper;
     private final ExpenseController expenseController;
     private final DebtController debtController;
     private final DebtRepository debtRepository;
     private final DebtDTOMapper debtDTOMapper;
+    private final ExpenseDTOMapper expenseDTOMapper;
 
     /**
      * Constructs a new instance of ParticipantController.
      *
      * @param participantService    The ParticipantService instance to handle participant-related operations
-     * @param simpMessagingTemplate The SimpMessagingTemplate instance to send WebSocket messages
+     * @param broadcaster           The Broadcaster instance to send WebSocket messages
      * @param participantDTOMapper  The ParticipantDTOMapper instance to be injected
      * @param expenseController     The ExpenseController instance to be injected
      * @param debtController        The DebtController instance to be injected
      * @param debtRepository        The DebtRepository instance to be injected
      * @param debtDTOMapper         The DebtDTOMapper instance to be injected
+     * @param eventDeltaLog         The EventDeltaLog the changes to participants are recorded in
+     * @param expenseDTOMapper      The ExpenseDTOMapper for the expenses changed by deleting a participant
      */
     public ParticipantController(@Autowired ParticipantService participantService,
-                                 @Autowired SimpMessagingTemplate simpMessagingTemplate,
+                                 @Autowired Broadcaster broadcaster,
                                  @Autowired DTOMapper<Participant, ParticipantDTO> participantDTOMapper,
                                  @Autowired ExpenseController expenseController,
                                  @Autowired DebtController debtController,
                                  @Autowired DebtRepository debtRepository,
-                                 @Autowired DebtDTOMapper debtDTOMapper) {
+                                 @Autowired DebtDTOMapper debtDTOMapper,
+                                 @Autowired EventDeltaLog eventDeltaLog,
+                                 @Autowired ExpenseDTOMapper expenseDTOMapper) {
         this.participantService = participantService;
-        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.broadcaster = broadcaster;
+        this.eventDeltaLog = eventDeltaLog;
         this.participantDTOMapper = participantDTOMapper;
         this.expenseController = expenseController;
         this.debtController = debtController;
         this.debtRepository = debtRepository;
         this.debtDTOMapper = debtDTOMapper;
+        this.expenseDTOMapper = expenseDTOMapper;
     }
 
     /**
@@ -74,11 +89,7 @@ public class ParticipantController {
             @PathVariable(value = "eventCode") String eventCode,
             @RequestParam(value = "name", required = false) String name) {
         if (name == null) {
-            List<Participant> participants = participantService.getAll(eventCode);
-            List<ParticipantDTO> participantDTOs = participants.stream()
-                    .map(participantDTOMapper::toDTO)
-                    .toList();
-            return new ResponseEntity<>(participantDTOs, HttpStatus.OK);
+            return new ResponseEntity<>(participantService.getAllDTOs(eventCode), HttpStatus.OK);
         }
 
         try {
@@ -111,12 +122,13 @@ public class ParticipantController {
             Participant participant = participantService.createOne(eventCode, participantDTO);
             ParticipantDTO createdDTO = participantDTOMapper.toDTO(participant);
 
-            simpMessagingTemplate.convertAndSend(
+            broadcaster.send(
                     "/api/websocket/v1/channel/" + eventCode + "/participant",
                     new WSWrapperResponseBody<>(
                             WSAction.CREATED,
                             createdDTO
                     ));
+            eventDeltaLog.publishParticipants(eventCode, WSAction.CREATED, Collections.singletonList(createdDTO));
 
             return new ResponseEntity<>(createdDTO, HttpStatus.CREATED);
         } catch (NotFoundInDatabaseException e) {
@@ -124,9 +136,56 @@ public class ParticipantController {
         }
     }
 
+    /**
+     * POST /api/v1/{eventCode}/participant/batch with body in List<ParticipantDTO> format
+     * Creates a new Participant for every element of the body in a single transaction
+     * <p>
+     * Sends out one WebSocket STOMP message to all listeners
+     * on "/api/websocket/v1/channel/{eventCode}/participant
+     * with WSAction CREATED and the list of all created participants
+     *
+     * @param eventCode       The event code
+     * @param participantDTOs The ParticipantDTOs of the participants to create
+     * @return ResponseEntity with the created ParticipantDTOs, HttpStatus.NOT_FOUND if the event is not found,
+     * HttpStatus.BAD_REQUEST if more than MAX_BATCH_SIZE participants are given
+     * or HttpStatus.CONFLICT with the ParticipantDTOs whose name is already taken, in which case none is created
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ParticipantDTO>> createMany(
+            @PathVariable("eventCode") String eventCode,
+            @RequestBody List<ParticipantDTO> participantDTOs) {
+        if (participantDTOs.size() > MAX_BATCH_SIZE) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            List<ParticipantDTO> createdDTOs = participantService.createMany(eventCode, participantDTOs)
+                    .stream()
+                    .map(participantDTOMapper::toDTO)
+                    .toList();
+
+            if (!createdDTOs.isEmpty()) {
+                broadcaster.send(
+                        "/api/websocket/v1/channel/" + eventCode + "/participant",
+                        new WSWrapperResponseBody<>(
+                                WSAction.CREATED,
+                                createdDTOs
+                        ));
+                eventDeltaLog.publishParticipants(eventCode, WSAction.CREATED, createdDTOs);
+            }
+
+            return new ResponseEntity<>(createdDTOs, HttpStatus.CREATED);
+        } catch (NotFoundInDatabaseException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (NameTakenException e) {
+            return new ResponseEntity<>(e.getRejected(), HttpStatus.CONFLICT);
+        }
+    }
+
     /**
      * DELETE /api/v1/{eventCode}/participant?name={participant name}
      * Deletes a Participant specified by the name and eventCode
+     * <p>
+     * The expenses the participant shared are sent out on "/api/websocket/v1/channel/{eventCode}/expense"
+     * with WSAction MODIFIED and their remaining debtors, before the participant itself is sent out
+     * on "/api/websocket/v1/channel/{eventCode}/participant" with WSAction DELETED
      *
      * @param participantName The participant's name
      * @param eventCode       The event code
@@ -143,14 +202,29 @@ public class ParticipantController {
 
             deleteDependants(participant);
 
-            participantService.deleteOne(eventCode, participantName);
+            List<ExpenseDTO> sharedDTOs = participantService.deleteOne(eventCode, participantName)
+                    .stream()
+                    .map(expenseDTOMapper::toDTO)
+                    .toList();
+
+            // the expenses they shared lost a debtor
+            if (!sharedDTOs.isEmpty()) {
+                broadcaster.send(
+                        "/api/websocket/v1/channel/" + eventCode + "/expense",
+                        new WSWrapperResponseBody<>(
+                                WSAction.MODIFIED,
+                                sharedDTOs
+                        ));
+                eventDeltaLog.publishExpenses(eventCode, WSAction.MODIFIED, sharedDTOs);
+            }
 
-            simpMessagingTemplate.convertAndSend(
+            broadcaster.send(
                     "/api/websocket/v1/channel/" + eventCode + "/participant",
                     new WSWrapperResponseBody<>(
                             WSAction.DELETED,
                             participantDTO
                     ));
+            eventDeltaLog.publishParticipants(eventCode, WSAction.DELETED, Collections.singletonList(participantDTO));
 
             return new ResponseEntity<>(participantDTO, HttpStatus.OK);
         } catch (NotFoundInDatabaseException e) {
@@ -177,12 +251,13 @@ public class ParticipantController {
             Participant updated = participantService.updateOne(eventCode, name, body);
             ParticipantDTO participantDTO = participantDTOMapper.toDTO(updated);
 
-            simpMessagingTemplate.convertAndSend(
+            broadcaster.send(
                     "/api/websocket/v1/channel/" + eventCode + "/participant",
                     new WSWrapperResponseBody<>(
                             WSAction.MODIFIED,
                             participantDTO
                     ));
+            eventDeltaLog.publishParticipants(eventCode, WSAction.MODIFIED, Collections.singletonList(participantDTO));
 
             return new ResponseEntity<>(participantDTO, HttpStatus.OK);
 
@@ -201,7 +276,7 @@ public class ParticipantController {
                         participant.getEvent().getCode()
                 );
             }
-            debtController.generateDebts(participant.getEvent().getCode());
+            debtController.generateDebts(participant.getEvent().getCode(), null);
         }
     }
 }
@@ -0,0 +1,93 @@
+package server.api;
+
+import commons.dto.BroadcastStatsDTO;
+import commons.dto.CacheRegionStatsDTO;
+import commons.dto.DebtUpdateStatsDTO;
+import commons.dto.EventCodeStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import server.service.Broadcaster;
+import server.service.CacheStatistics;
+import server.service.EventCodeGenerator;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("api/v1/admin/stats")
+public class StatsController {
+
+    private final DebtController debtController;
+    private final CacheStatistics cacheStatistics;
+    private final EventCodeGenerator eventCodeGenerator;
+    private final Broadcaster broadcaster;
+
+    /**
+     * Constructs StatsController with the controllers whose statistics it exposes
+     * @param debtController The DebtController to be injected
+     * @param cacheStatistics The CacheStatistics of the second-level cache to be injected
+     * @param eventCodeGenerator The EventCodeGenerator to be injected
+     * @param broadcaster The Broadcaster of the WebSocket messages to be injected
+     */
+    public StatsController(@Autowired DebtController debtController,
+                           @Autowired CacheStatistics cacheStatistics,
+                           @Autowired EventCodeGenerator eventCodeGenerator,
+                           @Autowired Broadcaster broadcaster) {
+        this.debtController = debtController;
+        this.cacheStatistics = cacheStatistics;
+        this.eventCodeGenerator = eventCodeGenerator;
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * GET api/v1/admin/stats/debt-updates
+     * Returns how many long polling requests are waiting for debt updates, and for how many events
+     *
+     * @return The statistics on long polling requests for debt updates.
+     *         Returns HttpStatus.OK.
+     */
+    @GetMapping("/debt-updates")
+    public ResponseEntity<DebtUpdateStatsDTO> getDebtUpdateStats() {
+        return new ResponseEntity<>(debtController.getUpdateStats(), HttpStatus.OK);
+    }
+
+    /**
+     * GET api/v1/admin/stats/cache
+     * Returns the hits, misses, puts and evictions of every region of the second-level cache,
+     * such as the cached Events or the cached queries
+     *
+     * @return The statistics on the cache regions.
+     *         Returns HttpStatus.OK.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheStats() {
+        return new ResponseEntity<>(cacheStatistics.getRegionStats(), HttpStatus.OK);
+    }
+
+    /**
+     * GET api/v1/admin/stats/event-codes
+     * Returns how many event codes were generated, how many of them had to be looked up in the database
+     * and how many were taken already, so the collision rate is collisions / generatedCodes
+     *
+     * @return The statistics on the generation of event codes.
+     *         Returns HttpStatus.OK.
+     */
+    @GetMapping("/event-codes")
+    public ResponseEntity<EventCodeStatsDTO> getEventCodeStats() {
+        return new ResponseEntity<>(eventCodeGenerator.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * GET api/v1/admin/stats/broadcasts
+     * Returns how many WebSocket messages and bytes were sent to every kind of destination,
+     * and how long sending them took in nanoseconds
+     *
+     * @return The statistics on the WebSocket messages.
+     *         Returns HttpStatus.OK.
+     */
+    @GetMapping("/broadcasts")
+    public ResponseEntity<List<BroadcastStatsDTO>> getBroadcastStats() {
+        return new ResponseEntity<>(broadcaster.getStats(), HttpStatus.OK);
+    }
+}
@@ -1,8 +1,13 @@
 package server.database;
 
+import commons.dto.DebtDTO;
 import server.entities.debt.Debt;
 import server.entities.debt.DebtId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,21 +18,70 @@ import java.util.Collection;
 public interface DebtRepository extends CrudRepository<Debt, DebtId> {
 
     /**
-     * Retrieves a list of unsettled debts for a specific event
+     * Retrieves a list of unsettled debts for a specific event,
+     * together with their debtors and creditors in the same query.
+     * The event of the participants cannot be fetched through their key, it is loaded once after the query.
      *
      * @param eventCode The code of the event for which settled debts are to be retrieved
      * @return A list of unsettled debts for the specified event
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT d FROM Debt d " +
-            "WHERE d.id.debtor.pkey.event.code = :eventCode")
+            "JOIN FETCH d.id.debtor debtor " +
+            "JOIN FETCH d.id.creditor " +
+            "WHERE debtor.pkey.event.code = :eventCode")
     Collection<Debt> findAllDebts(@Param("eventCode") String eventCode);
 
     /**
-     * Retrieves a list of all debts for a specific event
+     * Retrieves a list of all debts for a specific event,
+     * together with their debtors and creditors in the same query.
+     * The event of the participants cannot be fetched through their key, it is loaded once after the query.
      *
      * @param eventCode The code of the event for which settled debts are to be retrieved
      * @return A list of all debts for the specified event
      */
-    @Query("SELECT d FROM Debt d WHERE d.id.debtor.pkey.event.code = :eventCode")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT d FROM Debt d " +
+            "JOIN FETCH d.id.debtor debtor " +
+            "JOIN FETCH d.id.creditor " +
+            "WHERE debtor.pkey.event.code = :eventCode")
     Collection<Debt> findAllDebtsInEvent(@Param("eventCode") String eventCode);
-}
\ No newline at end of file
+
+    /**
+     * Retrieves all debts for a specific event as DebtDTOs,
+     * without loading the Debt entities or their debtors and creditors
+     *
+     * @param eventCode The code of the event for which debts are to be retrieved
+     * @return A list of DebtDTOs for the specified event
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new commons.dto.DebtDTO(d.id.debtor.pkey.name, d.id.creditor.pkey.name, d.amount, d.received) " +
+            "FROM Debt d WHERE d.id.debtor.pkey.event.code = :eventCode")
+    Collection<DebtDTO> findAllDebtDTOs(@Param("eventCode") String eventCode);
+
+    /**
+     * Retrieves all debts of the given events
+     *
+     * @param eventCodes The codes of the events for which debts are to be retrieved
+     * @return A list of all debts for the specified events
+     */
+    @Query("SELECT d FROM Debt d WHERE d.id.debtor.pkey.event.code IN :eventCodes")
+    Collection<Debt> findAllDebtsInEvents(@Param("eventCodes") Collection<String> eventCodes);
+
+    /**
+     * Deletes all debts of a specific event in a single statement,
+     * leaving the debts of other events untouched
+     *
+     * @param eventCode The code of the event whose debts are to be deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Debt d WHERE d.id.debtor.pkey.event.code = :eventCode")
+    void deleteAllDebtsInEvent(@Param("eventCode") String eventCode);
+
+    /**
+     * Deletes the debts of all events in a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM Debt d")
+    void deleteAllDebts();
+}
@@ -1,9 +1,53 @@
 package server.database;
 
 import server.entities.event.Event;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface EventRepository extends CrudRepository<Event, String> {
+public interface EventRepository extends CrudRepository<Event, String>, JpaSpecificationExecutor<Event> {
+
+    /**
+     * Fetches a page of Events ordered by code, starting after the given code.
+     * Paging on the code instead of an offset keeps every page equally cheap to fetch.
+     *
+     * @param after    code after which to start, the empty string for the first page
+     * @param pageable the size of the page
+     * @return the fetched Events
+     */
+    @Query("SELECT e FROM Event e WHERE e.code > :after ORDER BY e.code")
+    List<Event> findAllAfter(@Param("after") String after, Pageable pageable);
+
+    /**
+     * Fetches the codes of all Events, without loading the Events themselves
+     *
+     * @return the codes of all Events
+     */
+    @Query("SELECT e.code FROM Event e")
+    List<String> findAllCodes();
+
+    /**
+     * Deletes an Event in a single statement, without cascading to its participants.
+     * Its participants, expenses and debts have to be deleted first.
+     *
+     * @param code code of the Event to delete
+     */
+    @Modifying
+    @Query("DELETE FROM Event e WHERE e.code = :code")
+    void deleteEvent(@Param("code") String code);
+
+    /**
+     * Deletes all Events in a single statement, without cascading to their participants.
+     * All participants, expenses and debts have to be deleted first.
+     */
+    @Modifying
+    @Query("DELETE FROM Event e")
+    void deleteAllEvents();
 }
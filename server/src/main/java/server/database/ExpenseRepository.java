@@ -1,8 +1,13 @@
 package server.database;
 
+import commons.dto.ExpenseDTO;
 import server.entities.expense.Expense;
 import server.entities.expense.ExpenseId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,24 +18,127 @@ import java.util.Collection;
 public interface ExpenseRepository extends CrudRepository<Expense, ExpenseId> {
 
     /**
-     * Fetches all Expenses in a given Event
+     * Fetches all Expenses in a given Event, together with their payers and debtors in the same query.
+     * The Event of the payers cannot be fetched through their key, it is loaded once after the query.
      * @param eventCode the code of the Event from which to fetch expenses.
      * @return Collection of fetched Expenses
      */
-    @Query("SELECT e FROM Expense e WHERE e.pkey.paidBy.pkey.event.code = :eventCode")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT e FROM Expense e " +
+            "JOIN FETCH e.pkey.paidBy p " +
+            "LEFT JOIN FETCH e.debtors " +
+            "WHERE p.pkey.event.code = :eventCode")
     Collection<Expense> findAllExpensesInEvent(@Param("eventCode") String eventCode);
 
+    /**
+     * Fetches all Expenses in a given Event as ExpenseDTOs,
+     * without loading the Expense entities or their payers
+     * @param eventCode the code of the Event from which to fetch expenses.
+     * @return Collection of ExpenseDTOs
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new commons.dto.ExpenseDTO(e.pkey.id, e.price, e.item, e.pkey.paidBy.pkey.name, e.date) " +
+            "FROM Expense e WHERE e.pkey.paidBy.pkey.event.code = :eventCode")
+    Collection<ExpenseDTO> findAllExpenseDTOsInEvent(@Param("eventCode") String eventCode);
+
+    /**
+     * Fetches the Expenses in a given Event that are shared by a given Participant as ExpenseDTOs,
+     * without loading the Expense entities. The debtors are found through the index on the
+     * participant side of expense_debtors, so only the rows of this participant are read.
+     * @param eventCode the code of the Event from which to fetch expenses.
+     * @param debtorName name of the participant sharing the expenses
+     * @return Collection of ExpenseDTOs, without their debtors
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new commons.dto.ExpenseDTO(e.pkey.id, e.price, e.item, e.pkey.paidBy.pkey.name, e.date) " +
+            "FROM Expense e JOIN e.debtors d " +
+            "WHERE d.pkey.event.code = :eventCode AND d.pkey.name = :debtorName")
+    Collection<ExpenseDTO> findAllExpenseDTOsInvolving(
+            @Param("eventCode") String eventCode,
+            @Param("debtorName") String debtorName);
+
+    /**
+     * Fetches the Expenses in a given Event that are shared by a given Participant
+     * @param eventCode code of the event
+     * @param debtorName name of the participant sharing the expenses
+     * @return Collection of fetched Expenses
+     */
+    @Query("SELECT e FROM Expense e JOIN e.debtors d " +
+            "WHERE d.pkey.event.code = :eventCode AND d.pkey.name = :debtorName")
+    Collection<Expense> findAllExpensesInvolving(
+            @Param("eventCode") String eventCode,
+            @Param("debtorName") String debtorName);
+
+    /**
+     * Fetches the id of every Expense in a given Event together with the name of one of its debtors,
+     * without loading the Expense entities themselves
+     * @param eventCode code of the event
+     * @return rows of [expense id, debtor name]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT e.pkey.id, d.pkey.name FROM Expense e JOIN e.debtors d " +
+            "WHERE e.pkey.paidBy.pkey.event.code = :eventCode")
+    Collection<Object[]> findAllDebtorNamesInEvent(@Param("eventCode") String eventCode);
+
+    /**
+     * Fetches the names of the debtors of given Expenses in a given Event,
+     * without loading the Expense entities themselves
+     * @param eventCode code of the event
+     * @param ids ids of the expenses
+     * @return rows of [expense id, debtor name]
+     */
+    @Query("SELECT e.pkey.id, d.pkey.name FROM Expense e JOIN e.debtors d " +
+            "WHERE e.pkey.paidBy.pkey.event.code = :eventCode AND e.pkey.id IN :ids")
+    Collection<Object[]> findDebtorNamesOfExpenses(
+            @Param("eventCode") String eventCode,
+            @Param("ids") Collection<Long> ids);
+
     /**
      * Fetches all Expenses paid by a given Participant in a given Event
      * @param eventCode code of the event
      * @param paidByName name of the participant
      * @return Collection of fetched Expenses
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT e FROM Expense e " +
             "WHERE e.pkey.paidBy.pkey.event.code = :eventCode " +
             "AND e.pkey.paidBy.pkey.name = :paidByName")
     Collection<Expense> findAllExpensesInEventDependantOnParticipant(
             @Param("eventCode") String eventCode,
             @Param("paidByName") String paidByName);
-}
 
+    /**
+     * Fetches the id, the payer's name and the price of every Expense in a given Event,
+     * without loading the Expense entities themselves
+     * @param eventCode code of the event
+     * @return rows of [id, paidBy name, price]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT e.pkey.id, e.pkey.paidBy.pkey.name, e.price FROM Expense e " +
+            "WHERE e.pkey.paidBy.pkey.event.code = :eventCode")
+    Collection<Object[]> findAllPaymentsInEvent(@Param("eventCode") String eventCode);
+
+    /**
+     * Fetches all Expenses in the given Events, together with their debtors in the same query
+     * @param eventCodes codes of the Events from which to fetch expenses
+     * @return Collection of fetched Expenses
+     */
+    @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.debtors " +
+            "WHERE e.pkey.paidBy.pkey.event.code IN :eventCodes")
+    Collection<Expense> findAllExpensesInEvents(@Param("eventCodes") Collection<String> eventCodes);
+
+    /**
+     * Deletes all Expenses in a given Event in a single statement
+     * @param eventCode code of the Event from which to delete expenses
+     */
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.pkey.paidBy.pkey.event.code = :eventCode")
+    void deleteAllExpensesInEvent(@Param("eventCode") String eventCode);
+
+    /**
+     * Deletes the Expenses of all Events in a single statement
+     */
+    @Modifying
+    @Query("DELETE FROM Expense e")
+    void deleteAllExpenses();
+}
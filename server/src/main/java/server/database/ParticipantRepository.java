@@ -1,27 +1,46 @@
 package server.database;
 
+import commons.dto.ParticipantDTO;
 import server.entities.participant.Participant;
 import server.entities.participant.ParticipantId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ParticipantRepository extends CrudRepository<Participant, ParticipantId> {
 
     /**
-     * Fetches all participants in a given Event
+     * Fetches all participants in a given Event, together with the Event in the same query
      *
      * @param eventCode code of the Event from which to fetch Participants
      * @return A collection of fetched participants
      */
-    @Query("SELECT p FROM Participant p WHERE p.pkey.event.code = :eventCode")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT p FROM Participant p JOIN FETCH p.pkey.event e WHERE e.code = :eventCode")
     Collection<Participant> findAllParticipantsInEvent(@Param("eventCode") String eventCode);
 
+    /**
+     * Fetches all participants in a given Event as ParticipantDTOs,
+     * without loading the Participant entities themselves
+     *
+     * @param eventCode code of the Event from which to fetch Participants
+     * @return A collection of ParticipantDTOs
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new commons.dto.ParticipantDTO(p.pkey.name, p.email, p.iban, p.bic) " +
+            "FROM Participant p WHERE p.pkey.event.code = :eventCode")
+    Collection<ParticipantDTO> findAllParticipantDTOsInEvent(@Param("eventCode") String eventCode);
+
     /**
      * Fetches a participant given their name and an event's code
      *
@@ -29,11 +48,58 @@ public interface ParticipantRepository extends CrudRepository<Participant, Parti
      * @param eventCode event's code
      * @return An Optional containing the fetched Participant, or empty if not found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT p FROM Participant p " +
             "WHERE p.pkey.name = :name " +
             "AND p.pkey.event.code = :eventCode")
     Optional<Participant> findParticipantByEventCodeAndName(@Param("name") String name,
                                                             @Param("eventCode") String eventCode);
 
+    /**
+     * Fetches the names of all participants in a given Event
+     *
+     * @param eventCode code of the Event from which to fetch the names
+     * @return A collection of participant names
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT p.pkey.name FROM Participant p WHERE p.pkey.event.code = :eventCode")
+    Collection<String> findAllParticipantNamesInEvent(@Param("eventCode") String eventCode);
+
+    /**
+     * Fetches which of the given names are taken by participants of an Event
+     *
+     * @param eventCode code of the Event
+     * @param names     names to look up
+     * @return the names among the given ones that belong to a participant of the Event
+     */
+    @Query("SELECT p.pkey.name FROM Participant p WHERE p.pkey.event.code = :eventCode AND p.pkey.name IN :names")
+    List<String> findParticipantNamesInEvent(@Param("eventCode") String eventCode,
+                                             @Param("names") Collection<String> names);
 
-}
\ No newline at end of file
+    /**
+     * Fetches all participants in the given Events
+     *
+     * @param eventCodes codes of the Events from which to fetch Participants
+     * @return A collection of fetched participants
+     */
+    @Query("SELECT p FROM Participant p WHERE p.pkey.event.code IN :eventCodes")
+    Collection<Participant> findAllParticipantsInEvents(@Param("eventCodes") Collection<String> eventCodes);
+
+    /**
+     * Deletes all participants in a given Event in a single statement.
+     * Their expenses and debts have to be deleted first.
+     *
+     * @param eventCode code of the Event from which to delete Participants
+     */
+    @Modifying
+    @Query("DELETE FROM Participant p WHERE p.pkey.event.code = :eventCode")
+    void deleteAllParticipantsInEvent(@Param("eventCode") String eventCode);
+
+    /**
+     * Deletes the participants of all Events in a single statement.
+     * All expenses and debts have to be deleted first.
+     */
+    @Modifying
+    @Query("DELETE FROM Participant p")
+    void deleteAllParticipants();
+}
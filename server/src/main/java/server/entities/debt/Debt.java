@@ -3,12 +3,16 @@
 package server.entities.debt;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import server.entities.participant.Participant;
 
 import java.util.*;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "debt")
 @Table(name = "debt")
 public class Debt {
 
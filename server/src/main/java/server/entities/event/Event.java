@@ -1,6 +1,8 @@
 package server.entities.event;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import server.entities.expense.Expense;
 import server.entities.participant.Participant;
 
@@ -10,6 +12,9 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "event")
+// the indexes for the sort orders of the admin overview are created in db/migration
 @Table(name="event")
 public class Event {
 
@@ -207,7 +212,9 @@ public class Event {
      *
      * @param expenses A map where each expense is associated with its participants
      * @return A map representing the total debts between participants
+     * @deprecated debts are settled by the SettlementStrategy implementations in server.service.settlement
      */
+    @Deprecated
     public static Map<Participant, Map<Participant, Double>> settleDebts(Map<Expense, List<Participant>> expenses) {
         Map<Participant, Map<Participant, Double>> debts = new HashMap<>();
         DecimalFormat df = new DecimalFormat("#.##");
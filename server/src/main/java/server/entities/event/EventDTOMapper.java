@@ -4,6 +4,7 @@ import commons.dto.EventDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import server.entities.DTOMapper;
+import server.service.ActivityTracker;
 import server.service.EventService;
 import server.service.exceptions.NotFoundInDatabaseException;
 
@@ -13,17 +14,22 @@ import java.time.LocalDateTime;
 public class EventDTOMapper implements DTOMapper<Event, EventDTO> {
 
     private final EventService eventService;
+    private final ActivityTracker activityTracker;
 
     /**
      * Constructor for EventDTOMapper
      * @param eventService EventService instance to be injected
+     * @param activityTracker ActivityTracker instance holding the latest activity of events
      */
-    public EventDTOMapper(@Autowired EventService eventService) {
+    public EventDTOMapper(@Autowired EventService eventService,
+                          @Autowired ActivityTracker activityTracker) {
         this.eventService = eventService;
+        this.activityTracker = activityTracker;
     }
 
     /**
-     * Transforms Event entity to corresponding EventDTO
+     * Transforms Event entity to corresponding EventDTO.
+     * The last activity is taken from the ActivityTracker when it is newer than the stored one.
      * @param event entity to transform
      * @return corresponding DTO
      */
@@ -33,7 +39,7 @@ public class EventDTOMapper implements DTOMapper<Event, EventDTO> {
                 event.getName(),
                 event.getCode(),
                 event.getCreationDate(),
-                event.getLastActivity()
+                activityTracker.getLastActivity(event)
         );
     }
 
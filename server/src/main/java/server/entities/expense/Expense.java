@@ -1,13 +1,17 @@
 package server.entities.expense;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import server.entities.participant.Participant;
 
 import java.time.LocalDate;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
@@ -15,6 +19,8 @@ import java.util.Set;
  * Represents an expense entity.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "expense")
 @Table(name = "expense")
 public class Expense {
 
@@ -25,6 +31,7 @@ public class Expense {
     private String item;
     private LocalDate date;
 
+    // the participants who share the expense, see db/migration for the index on the participant side
     @ManyToMany
     private Set<Participant> debtors = new LinkedHashSet<>();
 
@@ -173,6 +180,14 @@ public class Expense {
     public void setDebtors(Set<Participant> debtors) {
         this.debtors = debtors;
     }
+
+    /**
+     * Getter for the names of the debtors
+     * @return names of the debtors in alphabetical order
+     */
+    public List<String> getDebtorNames() {
+        return debtors.stream().map(Participant::getName).sorted().toList();
+    }
     /**
      * Returns a string representation of the expense.
      *
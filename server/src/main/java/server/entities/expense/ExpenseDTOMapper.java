@@ -38,7 +38,8 @@ public class ExpenseDTOMapper implements DTOMapper<Expense, ExpenseDTO> {
                 expense.getPrice(),
                 expense.getItem(),
                 expense.getPaidBy().getName(),
-                expense.getDate()
+                expense.getDate(),
+                expense.getDebtorNames()
         );
     }
 
@@ -2,6 +2,8 @@ package server.entities.participant;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import server.entities.expense.Expense;
 import server.entities.debt.Debt;
 import server.entities.event.Event;
@@ -12,6 +14,8 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "participant")
 @Table(name = "participant")
 public class Participant {
 
@@ -0,0 +1,124 @@
+package server.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import server.entities.event.Event;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last activity of events in memory and writes it to the database behind the requests.
+ * Every change to an event only records a timestamp here, so concurrent edits of the same event no
+ * longer all read and update its row. The recorded timestamps are written to the event table in one
+ * batched UPDATE every activity.flush-interval milliseconds and when the server shuts down.
+ * Until then they are served by getLastActivity, so clients always see the latest activity.
+ * The written events are evicted from the second-level cache, which does not see these UPDATEs.
+ */
+@Service
+public class ActivityTracker {
+    private static final String UPDATE_SQL =
+            "UPDATE event SET last_activity = ? WHERE code = ? AND (last_activity IS NULL OR last_activity < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an ActivityTracker
+     *
+     * @param jdbcTemplate         The JdbcTemplate used to write the recorded activity to the database
+     * @param entityManagerFactory The EntityManagerFactory whose cache holds the written events
+     */
+    public ActivityTracker(@Autowired JdbcTemplate jdbcTemplate,
+                           @Autowired EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Records that an event has been changed just now
+     *
+     * @param eventCode code of the changed event
+     * @return the recorded last activity of the event
+     */
+    public LocalDateTime touch(String eventCode) {
+        return pending.merge(eventCode, LocalDateTime.now(),
+                (old, now) -> now.isAfter(old) ? now : old);
+    }
+
+    /**
+     * Fetches the last activity of an event, taking activity that is not written to the database yet into account
+     *
+     * @param event the event as loaded from the database
+     * @return the latest of the recorded and the stored last activity of the event
+     */
+    public LocalDateTime getLastActivity(Event event) {
+        LocalDateTime recorded = pending.get(event.getCode());
+        LocalDateTime stored = event.getLastActivity();
+        if (recorded == null) return stored;
+        if (stored == null) return recorded;
+        return recorded.isAfter(stored) ? recorded : stored;
+    }
+
+    /**
+     * Drops the recorded activity of an event, used when the event is deleted or replaced
+     *
+     * @param eventCode code of the event
+     */
+    public void forget(String eventCode) {
+        pending.remove(eventCode);
+    }
+
+    /**
+     * Drops all recorded activity, used when the database is replaced in bulk
+     */
+    public void forgetAll() {
+        pending.clear();
+    }
+
+    /**
+     * @return the number of events with activity that is not written to the database yet
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Writes all recorded activity to the database in one batched UPDATE.
+     * Activity recorded while the batch is written stays pending until the next flush.
+     *
+     * @return the number of events written
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${activity.flush-interval:1000}")
+    public synchronized int flush() {
+        if (pending.isEmpty()) return 0;
+
+        List<Map.Entry<String, LocalDateTime>> batch = new ArrayList<>(pending.size());
+        pending.forEach((code, lastActivity) -> batch.add(Map.entry(code, lastActivity)));
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+            Timestamp lastActivity = Timestamp.valueOf(entry.getValue());
+            ps.setTimestamp(1, lastActivity);
+            ps.setString(2, entry.getKey());
+            ps.setTimestamp(3, lastActivity);
+        });
+
+        Cache cache = entityManagerFactory.getCache();
+        batch.forEach(entry -> cache.evict(Event.class, entry.getKey()));
+
+        // only drop the entries that did not change in the meantime
+        batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+        return batch.size();
+    }
+}
@@ -0,0 +1,129 @@
+package server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.dto.BroadcastStatsDTO;
+import commons.dto.WSWrapperResponseBody;
+import jakarta.persistence.Entity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends WebSocket STOMP messages to the subscribers of a destination.
+ * Every payload is serialized to JSON once, however many destinations it goes to, and the broker
+ * hands the same bytes to every subscriber. Payloads have to be DTOs: a JPA entity would drag its
+ * lazy relations into the message.
+ */
+@Service
+public class Broadcaster {
+    private static final String CHANNEL = "/api/websocket/v1/channel/";
+    private static final String ALL_EVENTS = CHANNEL + "event";
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a Broadcaster
+     *
+     * @param simpMessagingTemplate The SimpMessagingTemplate used to send the messages
+     * @param objectMapper          The ObjectMapper used to serialize the payloads
+     */
+    public Broadcaster(@Autowired SimpMessagingTemplate simpMessagingTemplate,
+                       @Autowired ObjectMapper objectMapper) {
+        this.simpMessagingTemplate = simpMessagingTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Sends a payload to all subscribers of a destination
+     *
+     * @param destination the destination, such as "/api/websocket/v1/channel/event"
+     * @param payload     the DTO to send
+     */
+    public void send(String destination, Object payload) {
+        send(List.of(destination), payload);
+    }
+
+    /**
+     * Sends the same payload to all subscribers of several destinations, serializing it only once
+     *
+     * @param destinations the destinations
+     * @param payload      the DTO to send
+     */
+    public void send(List<String> destinations, Object payload) {
+        byte[] body = serialize(payload);
+        for (String destination : destinations) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers.setLeaveMutable(true);
+
+            long start = System.nanoTime();
+            simpMessagingTemplate.send(destination, MessageBuilder.createMessage(body, headers.getMessageHeaders()));
+            stats.computeIfAbsent(statsKey(destination), key -> new Stats())
+                    .record(body.length, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Fetches the number of messages and bytes sent to each kind of destination
+     *
+     * @return the statistics of every destination, ordered by destination
+     */
+    public List<BroadcastStatsDTO> getStats() {
+        return stats.entrySet().stream()
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .sorted(Comparator.comparing(BroadcastStatsDTO::destination))
+                .toList();
+    }
+
+    private byte[] serialize(Object payload) {
+        Object dto = payload instanceof WSWrapperResponseBody<?> wrapper ? wrapper.object() : payload;
+        if (dto != null && dto.getClass().isAnnotationPresent(Entity.class)) {
+            throw new IllegalArgumentException(
+                    "Broadcast a DTO instead of the entity " + dto.getClass().getSimpleName());
+        }
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new MessageConversionException("Could not serialize " + payload.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Replaces the event code in a destination, so that the statistics do not grow with every event
+     */
+    private static String statsKey(String destination) {
+        if (!destination.startsWith(CHANNEL) || destination.equals(ALL_EVENTS)) return destination;
+        int end = destination.indexOf('/', CHANNEL.length());
+        return CHANNEL + "{eventCode}" + (end < 0 ? "" : destination.substring(end));
+    }
+
+    private static final class Stats {
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder sendNanos = new LongAdder();
+
+        private void record(int size, long nanos) {
+            messages.increment();
+            bytes.add(size);
+            sendNanos.add(nanos);
+        }
+
+        private BroadcastStatsDTO toDTO(String destination) {
+            return new BroadcastStatsDTO(destination, messages.sum(), bytes.sum(), sendNanos.sum());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package server.service;
+
+import commons.dto.CacheRegionStatsDTO;
+import org.springframework.stereotype.Service;
+
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads the hit, miss and eviction counts of the regions of the second-level cache.
+ * Every JCache cache with statistics enabled registers them as an MXBean, see caffeine.conf.
+ */
+@Service
+public class CacheStatistics {
+    private static final ObjectName STATISTICS = statisticsPattern();
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    /**
+     * Fetches the statistics of all cache regions
+     *
+     * @return the statistics of every region, ordered by name
+     */
+    public List<CacheRegionStatsDTO> getRegionStats() {
+        return mBeanServer.queryNames(STATISTICS, null).stream()
+                .map(this::getRegionStats)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(CacheRegionStatsDTO::region))
+                .toList();
+    }
+
+    private CacheRegionStatsDTO getRegionStats(ObjectName name) {
+        CacheStatisticsMXBean statistics = JMX.newMXBeanProxy(mBeanServer, name, CacheStatisticsMXBean.class);
+        try {
+            return new CacheRegionStatsDTO(
+                    name.getKeyProperty("Cache"),
+                    statistics.getCacheHits(),
+                    statistics.getCacheMisses(),
+                    statistics.getCachePuts(),
+                    statistics.getCacheEvictions());
+        } catch (RuntimeException e) {
+            // the cache was closed in the meantime
+            return null;
+        }
+    }
+
+    private static ObjectName statisticsPattern() {
+        try {
+            return new ObjectName("javax.cache:type=CacheStatistics,*");
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package server.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of codes. mightContain never answers false for a code that was added,
+ * but answers true for about one in a hundred codes that were not.
+ * <p>
+ * Once more codes are added than the filter was sized for, it grows by another layer twice as large,
+ * with half the false positive rate of the previous one, so the rate of all layers together stays below
+ * one in a hundred. The codes already added are never hashed again.
+ * Codes can be added and tested concurrently.
+ */
+class CodeFilter {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private volatile Layer[] layers;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates an empty filter
+     *
+     * @param capacity the number of codes the filter keeps its false positive rate for before it grows
+     */
+    CodeFilter(int capacity) {
+        this.layers = new Layer[]{new Layer(Math.max(capacity, 1), FALSE_POSITIVE_RATE / 2)};
+    }
+
+    /**
+     * Adds a code
+     *
+     * @param code the code to add
+     */
+    void add(String code) {
+        while (true) {
+            Layer[] current = layers;
+            Layer last = current[current.length - 1];
+            if (last.claim()) {
+                last.add(code);
+                size.incrementAndGet();
+                return;
+            }
+            grow(current);
+        }
+    }
+
+    /**
+     * @param code the code to test
+     * @return false if the code was never added, true if it might have been
+     */
+    boolean mightContain(String code) {
+        for (Layer layer : layers) {
+            if (layer.mightContain(code)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of codes added
+     */
+    int size() {
+        return size.get();
+    }
+
+    /**
+     * @return the number of layers the filter has grown to
+     */
+    int layerCount() {
+        return layers.length;
+    }
+
+    /**
+     * Adds a layer after the last one of current, unless another thread already did
+     */
+    private synchronized void grow(Layer[] current) {
+        if (layers != current) return;
+        Layer last = current[current.length - 1];
+        Layer[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new Layer(last.capacity * 2, last.falsePositiveRate / 2);
+        layers = grown;
+    }
+
+    /**
+     * Hashes the characters of a code with the finalizer of MurmurHash3, so that codes
+     * differing in a single character set unrelated bits
+     */
+    private static long hash(String code) {
+        long hash = 0;
+        for (int i = 0; i < code.length(); i++) {
+            hash = (hash ^ code.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Derives the distance between the bits of a code, the i-th bit is hash + i * step
+     */
+    private static long step(long hash) {
+        return Long.rotateLeft(hash, 32) | 1;
+    }
+
+    /**
+     * The bits of a fixed number of codes
+     */
+    private static final class Layer {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final int capacity;
+        private final double falsePositiveRate;
+        private final AtomicInteger claimed = new AtomicInteger();
+
+        private Layer(int capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate)
+                    / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((optimalBits + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        /**
+         * Reserves room for one more code
+         *
+         * @return false if the layer is full
+         */
+        private boolean claim() {
+            return claimed.getAndIncrement() < capacity;
+        }
+
+        private void add(String code) {
+            long hash = hash(code);
+            long step = step(hash);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash + i * step, bitCount);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                if ((bits.get(word) & mask) == 0) bits.getAndAccumulate(word, mask, (a, b) -> a | b);
+            }
+        }
+
+        private boolean mightContain(String code) {
+            long hash = hash(code);
+            long step = step(hash);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash + i * step, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -2,40 +2,54 @@ package server.service;
 
 import commons.dto.DebtDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import server.database.DebtRepository;
 import server.entities.debt.Debt;
 import server.entities.debt.DebtId;
-import server.entities.expense.Expense;
 import server.entities.participant.Participant;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.exceptions.UnknownSettlementStrategyException;
+import server.service.settlement.BalanceLedger;
+import server.service.settlement.BalanceSnapshot;
+import server.service.settlement.SettlementStrategy;
+import server.service.settlement.Transfer;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.*;
 
 @Service
 public class DebtService {
     private final DebtRepository debtRepository;
     private final ParticipantService participantService;
-    private final ExpenseService expenseService;
+    private final BalanceLedger balanceLedger;
+    private final Map<String, SettlementStrategy> strategies = new HashMap<>();
+    private final String defaultStrategy;
 
     /**
      * Constructs a DebtService with the specified DebtRepository
      *
      * @param debtRepository The repository for accessing and managing Debt entities
      * @param participantService ParticipantService instance
-     * @param expenseService ExpenseService instance
+     * @param balanceLedger BalanceLedger holding the balance of every event
+     * @param strategies all available settlement strategies
+     * @param defaultStrategy name of the strategy used when none is requested
      */
     @Autowired
     public DebtService(
             DebtRepository debtRepository,
             ParticipantService participantService,
-            ExpenseService expenseService
+            BalanceLedger balanceLedger,
+            List<SettlementStrategy> strategies,
+            @Value("${debt.settlement.default-strategy:greedy}") String defaultStrategy
     ) {
         this.debtRepository = debtRepository;
         this.participantService = participantService;
-        this.expenseService = expenseService;
+        this.balanceLedger = balanceLedger;
+        strategies.forEach(s -> this.strategies.put(s.getName(), s));
+        if (!this.strategies.containsKey(defaultStrategy)) throw new IllegalArgumentException(
+                "Default settlement strategy " + defaultStrategy + " does not exist");
+        this.defaultStrategy = defaultStrategy;
     }
 
     /**
@@ -66,6 +80,17 @@ public class DebtService {
 
     }
 
+    /**
+     * Retrieves all debts for a specific event as DebtDTOs, in a single query
+     * and without loading the Debt entities or their debtors and creditors
+     *
+     * @param eventCode The code of the event for which debts are to be retrieved
+     * @return A list of DebtDTOs for the specified event.
+     */
+    public List<DebtDTO> getAllDebtDTOs(String eventCode) {
+        return new ArrayList<>(debtRepository.findAllDebtDTOs(eventCode));
+    }
+
     /**
      * Gets a Debt object from the given names that form its primary key
      * @param eventCode of the object
@@ -113,67 +138,51 @@ public class DebtService {
     }
 
     /**
-     * Generates and populates the database with new debt entities generated from the expense instances on that event
-     * (currently does not support selective expenses)
+     * Regenerates the debts of a single event from its balance using the default settlement strategy.
+     * Only the debts of the given event are replaced.
      * @param eventCode code of the event to generate debts on
      * @return list of the newly generated debts
      */
+    @Transactional
     public List<Debt> generateDebtsFromExpenses(String eventCode){
-        List<Expense> expenseList = expenseService.getAllInEvent(eventCode);
-        List<Participant> participantList = participantService.getAll(eventCode);
+        return generateDebts(eventCode, strategies.get(defaultStrategy));
+    }
 
-        return calculateDebts(expenseList, participantList);
+    /**
+     * Regenerates the debts of a single event from its balance using the given settlement strategy.
+     * Only the debts of the given event are replaced.
+     * @param eventCode code of the event to generate debts on
+     * @param strategyName name of the settlement strategy, or null for the default one
+     * @return list of the newly generated debts
+     * @throws UnknownSettlementStrategyException if no strategy with the given name exists
+     */
+    @Transactional
+    public List<Debt> generateDebtsFromExpenses(String eventCode, String strategyName)
+            throws UnknownSettlementStrategyException {
+        if (strategyName == null || strategyName.isEmpty()) return generateDebtsFromExpenses(eventCode);
+
+        SettlementStrategy strategy = strategies.get(strategyName);
+        if (strategy == null) throw new UnknownSettlementStrategyException(
+                "Settlement strategy " + strategyName + " does not exist");
+        return generateDebts(eventCode, strategy);
     }
 
-    private List<Debt> calculateDebts(List<Expense> expenses, List<Participant> participants){
-        Map<Expense, List<Participant>> inputMap = new HashMap<>();
-        expenses.forEach(e -> inputMap.put(e, new ArrayList<>(participants)));
-
-        Map<Participant, Map<Participant, BigDecimal>> debts = new HashMap<>();
-
-        // Now we are analyzing each expense and for each, its participants in that specific expense
-        for (Map.Entry<Expense, List<Participant>> entry : inputMap.entrySet()) {
-            Expense expense = entry.getKey();
-            Participant paidBy = expense.getPaidBy();
-            // People who are participating in that expense
-            List<Participant> participantList = entry.getValue();
-
-            // Calculate the share per participant (it is split equally among every participant)
-            BigDecimal total = BigDecimal.valueOf(expense.getPrice());
-            BigDecimal share = total.divide(BigDecimal.valueOf(participantList.size()),
-                    2, RoundingMode.HALF_UP);
-
-            BigDecimal remaining = total.subtract(share.multiply(BigDecimal.valueOf(participantList.size())));
-
-            for (Participant debtor : participantList) {
-                if (!debtor.equals(paidBy)) {
-                    // Update the debt between participants
-                    BigDecimal amount = debts.getOrDefault(debtor, new HashMap<>()).getOrDefault(
-                            paidBy, BigDecimal.ZERO);
-                    amount = amount.add(share);
-                    // Split without loss
-                    if (remaining.compareTo(BigDecimal.ZERO) > 0) {
-                        amount = amount.add(BigDecimal.valueOf(0.01));
-                        remaining = remaining.subtract(BigDecimal.valueOf(0.01));
-                    }
-                    Map<Participant, BigDecimal> debtorDebts = debts.computeIfAbsent(debtor, k -> new HashMap<>());
-                    debtorDebts.put(paidBy, amount);
-                }
-            }
-        }
+    private List<Debt> generateDebts(String eventCode, SettlementStrategy strategy) {
+        BalanceSnapshot snapshot = balanceLedger.getBalance(eventCode).snapshot();
+        Map<String, Participant> participants = new HashMap<>();
+        participantService.getAll(eventCode).forEach(p -> participants.put(p.getName(), p));
 
         List<Debt> newDebts = new ArrayList<>();
-
-        debtRepository.deleteAll();
-        for (Participant debtor : debts.keySet()){
-            Map<Participant, BigDecimal> creditors = debts.get(debtor);
-            for (Participant creditor : creditors.keySet()){
-                Debt newDebt = new Debt(debtor, creditor, creditors.get(creditor).doubleValue());
-                debtRepository.save(newDebt);
-                newDebts.add(newDebt);
-            }
+        for (Transfer transfer : strategy.settle(snapshot)) {
+            newDebts.add(new Debt(
+                    participants.get(snapshot.names()[transfer.debtor()]),
+                    participants.get(snapshot.names()[transfer.creditor()]),
+                    transfer.cents() / 100.0
+            ));
         }
 
+        debtRepository.deleteAllDebtsInEvent(eventCode);
+        debtRepository.saveAll(newDebts);
         return newDebts;
     }
 }
@@ -0,0 +1,100 @@
+package server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formats in which dumps can be downloaded and restored.
+ * Next to JSON, dumps can be exchanged as Smile or CBOR, binary encodings of the same JSON structure
+ * that leave out the repeated field names and write dates as numbers.
+ */
+@Service
+public class DumpFormats {
+    public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    /**
+     * Constructs the DumpFormats from the ObjectMapper used for JSON
+     *
+     * @param objectMapper the ObjectMapper used for JSON, copied for the binary formats
+     */
+    public DumpFormats(@Autowired ObjectMapper objectMapper) {
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(SMILE, objectMapper.copyWith(new SmileFactory())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        mappers.put(CBOR, objectMapper.copyWith(new CBORFactory())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    /**
+     * @return the media types of all supported formats, JSON first
+     */
+    public List<MediaType> getMediaTypes() {
+        return new ArrayList<>(mappers.keySet());
+    }
+
+    /**
+     * Picks the format to respond with, given the Accept header of a request
+     *
+     * @param accept value of the Accept header, may be null
+     * @return the preferred supported format, JSON if there is no preference,
+     *         or null if none of the accepted formats is supported
+     */
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) return MediaType.APPLICATION_JSON;
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType acceptedType : accepted) {
+            for (MediaType supported : mappers.keySet()) {
+                if (acceptedType.includes(supported)) return supported;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the format of a request body, given its Content-Type header
+     *
+     * @param contentType value of the Content-Type header, may be null
+     * @return the matching supported format, JSON if no type is given, or null if the type is not supported
+     */
+    public MediaType forContentType(String contentType) {
+        if (contentType == null || contentType.isBlank()) return MediaType.APPLICATION_JSON;
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return mappers.keySet().stream()
+                    .filter(supported -> supported.equalsTypeAndSubtype(type))
+                    .findFirst()
+                    .orElse(null);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param mediaType one of the supported media types
+     * @return the ObjectMapper reading and writing that format
+     */
+    public ObjectMapper getMapper(MediaType mediaType) {
+        return mappers.get(mediaType);
+    }
+}
@@ -0,0 +1,177 @@
+package server.service;
+
+import commons.dto.EventCodeStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import server.database.EventRepository;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique 8 character event codes of the characters [0-9A-Za-z].
+ * <p>
+ * Anyone knowing the code of an event can join it, so the codes are drawn from a SecureRandom.
+ * The random bytes are fetched in blocks per thread and every code takes 48 of their bits,
+ * which are written out in base 62, so generating a code allocates nothing but the code itself.
+ * <p>
+ * Whether a code is taken is decided by a Bloom filter of all codes in the database, loaded on first use.
+ * Only when the filter answers that the code might be taken, about once every hundred codes,
+ * the database is asked whether the code is actually taken.
+ * Every generated code is added to the filter, which grows with them instead of being loaded again.
+ * Events inserted without a generated code, such as restored dumps, have to be registered.
+ */
+@Service
+public class EventCodeGenerator {
+    /**
+     * Length of a generated code
+     */
+    public static final int CODE_LENGTH = 8;
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    // 62^8, just below 2^48, so a random 48 bit number is a valid code about 3 times out of 4
+    private static final long CODE_COUNT = 218_340_105_584_896L;
+    private static final int BYTES_PER_CODE = 6;
+    private static final int CODES_PER_BLOCK = 64;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+    private final EventRepository eventRepository;
+    private final int expectedEvents;
+    private final AtomicLong generatedCodes = new AtomicLong();
+    private final AtomicLong filterHits = new AtomicLong();
+    private final AtomicLong collisions = new AtomicLong();
+    private volatile CodeFilter filter;
+
+    /**
+     * Constructs an EventCodeGenerator
+     *
+     * @param eventRepository The EventRepository holding the taken codes
+     * @param expectedEvents  The number of events the filter is sized for, it grows once there are more
+     */
+    @Autowired
+    public EventCodeGenerator(@Autowired EventRepository eventRepository,
+                              @Value("${event.code.expected-events:100000}") int expectedEvents) {
+        this.eventRepository = eventRepository;
+        this.expectedEvents = expectedEvents;
+    }
+
+    /**
+     * Constructs an EventCodeGenerator with an already loaded filter of the taken codes
+     *
+     * @param eventRepository The EventRepository holding the taken codes
+     * @param filter          The filter of the taken codes
+     */
+    EventCodeGenerator(EventRepository eventRepository, CodeFilter filter) {
+        this(eventRepository, filter.size());
+        this.filter = filter;
+    }
+
+    /**
+     * Generates a code that is not taken by any Event in the database, and registers it as taken
+     *
+     * @return a unique 8 character code to be used as an Event code
+     */
+    public String generate() {
+        CodeFilter codes = loadedFilter();
+        while (true) {
+            String code = nextCandidate();
+            generatedCodes.incrementAndGet();
+            if (codes.mightContain(code)) {
+                filterHits.incrementAndGet();
+                if (eventRepository.existsById(code)) {
+                    collisions.incrementAndGet();
+                    continue;
+                }
+            }
+            register(code);
+            return code;
+        }
+    }
+
+    /**
+     * Registers a code as taken, for Events that are inserted with a code that was not generated
+     *
+     * @param code code of the inserted Event
+     */
+    public void register(String code) {
+        CodeFilter codes = filter;
+        if (codes == null) {
+            // until the filter is loaded, the code is read from the database with all others,
+            // a load that is running might have read the codes before this one was inserted
+            synchronized (this) {
+                codes = filter;
+                if (codes == null) return;
+            }
+        }
+        codes.add(code);
+    }
+
+    /**
+     * @return how many codes were generated, and how many of them had to be looked up or generated again
+     */
+    public EventCodeStatsDTO getStats() {
+        CodeFilter codes = filter;
+        return new EventCodeStatsDTO(
+                generatedCodes.get(),
+                filterHits.get(),
+                collisions.get(),
+                codes == null ? 0 : codes.size()
+        );
+    }
+
+    private CodeFilter loadedFilter() {
+        CodeFilter codes = filter;
+        if (codes != null) return codes;
+        synchronized (this) {
+            if (filter == null) filter = load();
+            return filter;
+        }
+    }
+
+    private CodeFilter load() {
+        List<String> codes = eventRepository.findAllCodes();
+        CodeFilter loaded = new CodeFilter(Math.max(expectedEvents, codes.size() * 2));
+        codes.forEach(loaded::add);
+        return loaded;
+    }
+
+    private String nextCandidate() {
+        Block block = blocks.get();
+        long value;
+        do {
+            value = block.next(random);
+        } while (value >= CODE_COUNT);
+
+        char[] chars = block.chars;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            chars[i] = ALPHABET[(int) (value % ALPHABET.length)];
+            value /= ALPHABET.length;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Random bytes of one thread, and the characters of the code it is generating
+     */
+    private static final class Block {
+        private final byte[] bytes = new byte[BYTES_PER_CODE * CODES_PER_BLOCK];
+        private final char[] chars = new char[CODE_LENGTH];
+        private int position = bytes.length;
+
+        private long next(SecureRandom random) {
+            if (position == bytes.length) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            long value = 0;
+            for (int i = 0; i < BYTES_PER_CODE; i++) {
+                value = (value << 8) | (bytes[position++] & 0xff);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package server.service;
+
+import commons.dto.EventDTO;
+import commons.dto.EventDeltaDTO;
+import commons.dto.EventDeltasDTO;
+import commons.dto.ExpenseDTO;
+import commons.dto.ParticipantDTO;
+import commons.dto.WSAction;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Numbers the changes to every event and sends them out on "/api/websocket/v1/channel/{eventCode}/delta".
+ * The last delta.log.capacity changes of every event are kept in memory, so a client that missed
+ * some messages can fetch only those instead of reloading the whole event.
+ * <p>
+ * Only the changes of the most recently used events are kept. Every log of changes has its own epoch,
+ * so sequence numbers start over in a new epoch when the changes of an event are dropped, the server
+ * restarts or its database is replaced, and clients holding the old epoch reload the event.
+ */
+@Service
+public class EventDeltaLog {
+    private static final int MAX_EVENTS = 10000;
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+
+    private final Broadcaster broadcaster;
+    private final int capacity;
+    private final Cache<String, Log> logs;
+    private final AtomicLong lastEpoch = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Constructs an EventDeltaLog
+     *
+     * @param broadcaster The Broadcaster used to send out the changes
+     * @param capacity    The number of changes kept per event
+     */
+    @Autowired
+    public EventDeltaLog(Broadcaster broadcaster, @Value("${delta.log.capacity:200}") int capacity) {
+        this(broadcaster, capacity, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructs an EventDeltaLog that expires the changes of unused events by the given clock
+     *
+     * @param broadcaster The Broadcaster used to send out the changes
+     * @param capacity    The number of changes kept per event
+     * @param ticker      The clock of the expiry
+     */
+    EventDeltaLog(Broadcaster broadcaster, int capacity, Ticker ticker) {
+        this.broadcaster = broadcaster;
+        this.capacity = capacity;
+        this.logs = Caffeine.newBuilder()
+                .maximumSize(MAX_EVENTS)
+                .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Records and sends out a change to an event itself.
+     * The changes of a deleted event are dropped once its deletion is sent out.
+     *
+     * @param eventCode code of the event
+     * @param action    kind of change
+     * @param event     the event after the change
+     * @return the sent message
+     */
+    public EventDeltasDTO publishEvent(String eventCode, WSAction action, EventDTO event) {
+        EventDeltasDTO message = publish(eventCode, List.of(event),
+                (sequence, e) -> EventDeltaDTO.ofEvent(sequence, action, e));
+        if (action == WSAction.DELETED) logs.invalidate(eventCode);
+        return message;
+    }
+
+    /**
+     * Records and sends out changes to participants of an event, in one message
+     *
+     * @param eventCode    code of the event
+     * @param action       kind of change
+     * @param participants the participants after the change
+     * @return the sent message
+     */
+    public EventDeltasDTO publishParticipants(String eventCode, WSAction action, List<ParticipantDTO> participants) {
+        return publish(eventCode, participants, (sequence, p) -> EventDeltaDTO.ofParticipant(sequence, action, p));
+    }
+
+    /**
+     * Records and sends out changes to expenses of an event, in one message
+     *
+     * @param eventCode code of the event
+     * @param action    kind of change
+     * @param expenses  the expenses after the change
+     * @return the sent message
+     */
+    public EventDeltasDTO publishExpenses(String eventCode, WSAction action, List<ExpenseDTO> expenses) {
+        return publish(eventCode, expenses, (sequence, e) -> EventDeltaDTO.ofExpense(sequence, action, e));
+    }
+
+    /**
+     * Fetches the current epoch and sequence number of an event, without any changes
+     *
+     * @param eventCode code of the event
+     * @return the current position in the changes of the event
+     */
+    public EventDeltasDTO getPosition(String eventCode) {
+        // the log is created here already, so that the changes after this position are numbered in its epoch
+        Log log = logs.get(eventCode, code -> new Log(lastEpoch.incrementAndGet()));
+        synchronized (log) {
+            return new EventDeltasDTO(eventCode, log.epoch, log.sequence, List.of());
+        }
+    }
+
+    /**
+     * Fetches all changes to an event after a given sequence number
+     *
+     * @param eventCode code of the event
+     * @param epoch     epoch of the sequence number
+     * @param since     sequence number of the last change the client has seen
+     * @return the changes after since, or null if they are no longer known
+     *         and the client has to reload the event
+     */
+    public EventDeltasDTO getDeltas(String eventCode, long epoch, long since) {
+        Log log = logs.getIfPresent(eventCode);
+        if (log == null || log.epoch != epoch) return null;
+        synchronized (log) {
+            long oldest = log.deltas.isEmpty() ? log.sequence + 1 : log.deltas.getFirst().sequence();
+            if (since > log.sequence || since < oldest - 1) return null;
+
+            List<EventDeltaDTO> missed = log.deltas.stream()
+                    .filter(delta -> delta.sequence() > since)
+                    .toList();
+            return new EventDeltasDTO(eventCode, epoch, log.sequence, missed);
+        }
+    }
+
+    /**
+     * Starts a new epoch and drops all changes, used when the database is replaced in bulk.
+     * Every event with recorded changes is sent the new epoch, so its clients reload it.
+     */
+    public synchronized void reset() {
+        List<String> eventCodes = new ArrayList<>(logs.asMap().keySet());
+        logs.invalidateAll();
+        for (String eventCode : eventCodes) {
+            Log log = new Log(lastEpoch.incrementAndGet());
+            logs.put(eventCode, log);
+            broadcaster.send(channel(eventCode), new EventDeltasDTO(eventCode, log.epoch, 0, List.of()));
+        }
+    }
+
+    private <T> EventDeltasDTO publish(String eventCode, List<T> changed,
+                                       BiFunction<Long, T, EventDeltaDTO> toDelta) {
+        // a log dropped while this change is recorded in it is replaced by one in a new epoch,
+        // so its clients reload the event instead of missing the change
+        Log log = logs.get(eventCode, code -> new Log(lastEpoch.incrementAndGet()));
+        // numbering and handing over to the broker happen under one lock, and the broker keeps
+        // the publish order per client (see WebSocketConfig), so messages arrive in order
+        synchronized (log) {
+            List<EventDeltaDTO> deltas = new ArrayList<>(changed.size());
+            for (T entity : changed) {
+                EventDeltaDTO delta = toDelta.apply(++log.sequence, entity);
+                log.deltas.addLast(delta);
+                if (log.deltas.size() > capacity) log.deltas.removeFirst();
+                deltas.add(delta);
+            }
+            EventDeltasDTO message = new EventDeltasDTO(eventCode, log.epoch, log.sequence, deltas);
+            broadcaster.send(channel(eventCode), message);
+            return message;
+        }
+    }
+
+    private static String channel(String eventCode) {
+        return "/api/websocket/v1/channel/" + eventCode + "/delta";
+    }
+
+    private static final class Log {
+        private final long epoch;
+        private final Deque<EventDeltaDTO> deltas = new ArrayDeque<>();
+        private long sequence;
+
+        private Log(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package server.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import server.database.EventRepository;
 import server.entities.event.Event;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -16,9 +31,17 @@ import java.util.*;
  */
 @Service
 public class EventService {
+    /**
+     * Properties Events can be sorted on when fetched page by page
+     */
+    public static final Set<String> SORT_PROPERTIES = Set.of("code", "name", "creationDate", "lastActivity");
+
     private final EventRepository eventRepository;
     private final ParticipantService participantService;
     private final SimpMessagingTemplate simpMessagingTemplate;
+    private final BalanceLedger balanceLedger;
+    private final ActivityTracker activityTracker;
+    private final EventCodeGenerator eventCodeGenerator;
 
     /**
      * Constructs an EventService instance with the specified EventRepository.
@@ -26,13 +49,22 @@ public class EventService {
      * @param eventRepository The EventRepository to be injected into the service.
      * @param participantService The ParticipantService to be injected into the service.
      * @param simpMessagingTemplate The simpMessagingTemplate to be injected into the service.
+     * @param balanceLedger The BalanceLedger holding the balances of the events.
+     * @param activityTracker The ActivityTracker recording the last activity of the events.
+     * @param eventCodeGenerator The EventCodeGenerator generating the codes of new events.
      */
     public EventService(@Autowired EventRepository eventRepository,
                         @Autowired ParticipantService participantService,
-                        @Autowired SimpMessagingTemplate simpMessagingTemplate) {
+                        @Autowired SimpMessagingTemplate simpMessagingTemplate,
+                        @Autowired BalanceLedger balanceLedger,
+                        @Autowired ActivityTracker activityTracker,
+                        @Autowired EventCodeGenerator eventCodeGenerator) {
         this.eventRepository = eventRepository;
         this.participantService = participantService;
         this.simpMessagingTemplate = simpMessagingTemplate;
+        this.balanceLedger = balanceLedger;
+        this.activityTracker = activityTracker;
+        this.eventCodeGenerator = eventCodeGenerator;
     }
 
     /**
@@ -65,6 +97,199 @@ public class EventService {
         return events;
     }
 
+    /**
+     * Fetches the Events with the given codes in a single query.
+     * Codes that are not present in the database are ignored.
+     *
+     * @param codes codes of the Events to fetch
+     * @return the fetched Events, in no particular order
+     */
+    public List<Event> getMany(Collection<String> codes) {
+        List<Event> events = new ArrayList<>();
+        eventRepository.findAllById(codes).forEach(events::add);
+        return events;
+    }
+
+    /**
+     * Fetches a page of Events sorted on the given property.
+     * Ties are broken by event code, so the order is stable between pages.
+     * Events without a value for the property come last, in both directions. They are fetched
+     * separately from the Events with a value, so a page holding both takes two queries.
+     *
+     * @param sortBy     property to sort on, one of SORT_PROPERTIES
+     * @param descending whether to sort in descending order
+     * @param size       maximum number of Events on the page
+     * @param after      cursor returned with the previous page, or null for the first page
+     * @return the page of Events
+     * @throws IllegalArgumentException if the property or the cursor is invalid
+     */
+    public Window<Event> getPage(String sortBy, boolean descending, int size, String after) {
+        if (!SORT_PROPERTIES.contains(sortBy))
+            throw new IllegalArgumentException("Events cannot be sorted on " + sortBy);
+
+        Map<String, Object> position = after == null ? null : fromCursor(sortBy, after);
+        // one Event more than asked for tells whether there is a next page
+        List<Event> events = new ArrayList<>();
+        boolean afterValue = position != null && position.get(sortBy) != null;
+        if (sortBy.equals("code") || position == null || afterValue) {
+            events.addAll(findRange(valueRange(sortBy, descending, position), size + 1));
+        }
+        if (!sortBy.equals("code") && events.size() <= size) {
+            events.addAll(findRange(nullRange(sortBy, descending, afterValue ? null : position),
+                    size + 1 - events.size()));
+        }
+        boolean hasNext = events.size() > size;
+        List<Event> content = hasNext ? events.subList(0, size) : events;
+        return Window.from(content, i -> ScrollPosition.forward(keysOf(content.get(i), sortBy)), hasNext);
+    }
+
+    private List<Event> findRange(Specification<Event> range, int limit) {
+        return eventRepository.findBy(range, query -> query.limit(limit).all());
+    }
+
+    /**
+     * Selects the Events with a value for the property after a position, sorted on the property and the code.
+     * After a value x and code y come the Events with a value past x and those with value x and a code
+     * past y. Both conditions are bound by the value x, so the page is a range scan of the index of the
+     * sort order that stops after the page, see db/migration.
+     *
+     * @param sortBy     property the Events are sorted on
+     * @param descending whether the Events are sorted in descending order
+     * @param after      keys of the Event the page starts after, with a value, or null for the first page
+     * @return the ordered condition
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Specification<Event> valueRange(String sortBy, boolean descending, Map<String, Object> after) {
+        return (root, query, builder) -> {
+            Path<Comparable> code = root.get("code");
+            Path<Comparable> value = root.get(sortBy);
+            if (sortBy.equals("code")) orderBy(query, builder, descending, code);
+            else orderBy(query, builder, descending, value, code);
+            if (after == null) return sortBy.equals("code") ? null : builder.isNotNull(value);
+
+            Comparable afterCode = (Comparable) after.get("code");
+            Predicate codeAfter = descending
+                    ? builder.lessThan(code, afterCode)
+                    : builder.greaterThan(code, afterCode);
+            if (sortBy.equals("code")) return codeAfter;
+
+            Comparable afterValue = (Comparable) after.get(sortBy);
+            Predicate valueFrom = descending
+                    ? builder.lessThanOrEqualTo(value, afterValue)
+                    : builder.greaterThanOrEqualTo(value, afterValue);
+            Predicate valueAfter = descending
+                    ? builder.lessThan(value, afterValue)
+                    : builder.greaterThan(value, afterValue);
+            return builder.and(valueFrom,
+                    builder.or(valueAfter, builder.and(builder.equal(value, afterValue), codeAfter)));
+        };
+    }
+
+    /**
+     * Selects the Events without a value for the property after a position, sorted on the code.
+     * They come after all Events with a value, in both directions, and are a range of the index of
+     * the sort order as well.
+     *
+     * @param sortBy     property the Events are sorted on
+     * @param descending whether the Events are sorted in descending order
+     * @param after      keys of the Event without a value the page starts after,
+     *                   or null to start with the first Event without a value
+     * @return the ordered condition
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Specification<Event> nullRange(String sortBy, boolean descending, Map<String, Object> after) {
+        return (root, query, builder) -> {
+            Path<Comparable> code = root.get("code");
+            Path<Comparable> value = root.get(sortBy);
+            // sorting on the value as well, which is null for all of them, lets the index keep the order
+            orderBy(query, builder, descending, value, code);
+            if (after == null) return builder.isNull(value);
+
+            Comparable afterCode = (Comparable) after.get("code");
+            return builder.and(builder.isNull(value), descending
+                    ? builder.lessThan(code, afterCode)
+                    : builder.greaterThan(code, afterCode));
+        };
+    }
+
+    private static void orderBy(CriteriaQuery<?> query, CriteriaBuilder builder, boolean descending,
+                                Path<?>... keys) {
+        List<Order> order = new ArrayList<>();
+        for (Path<?> key : keys) order.add(descending ? builder.desc(key) : builder.asc(key));
+        query.orderBy(order);
+    }
+
+    /**
+     * Creates the cursor pointing after the last Event of a page.
+     * The cursor holds the property, whether the Event has a value for it, the value and the code,
+     * written with their lengths so that any name can be encoded.
+     *
+     * @param page the page of Events
+     * @param sortBy property the page is sorted on
+     * @return the cursor for the next page, or null if this is the last page
+     */
+    public String nextCursor(Window<Event> page, String sortBy) {
+        if (!page.hasNext() || page.isEmpty()) return null;
+        Event last = page.getContent().getLast();
+        Object value = keysOf(last, sortBy).get(sortBy);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream cursor = new DataOutputStream(bytes)) {
+            cursor.writeUTF(sortBy);
+            cursor.writeBoolean(value != null);
+            if (value != null) cursor.writeUTF(value.toString());
+            cursor.writeUTF(last.getCode());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Turns a cursor back into the keys of the Event it points after
+     *
+     * @param sortBy property the pages are sorted on
+     * @param cursor the cursor
+     * @return the value of the property, possibly null, and the code of the Event
+     * @throws IllegalArgumentException if the cursor is invalid or belongs to another sort property
+     */
+    private static Map<String, Object> fromCursor(String sortBy, String cursor) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (!in.readUTF().equals(sortBy))
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+            String value = in.readBoolean() ? in.readUTF() : null;
+            keys.put(sortBy, value == null ? null : switch (sortBy) {
+                case "creationDate", "lastActivity" -> LocalDateTime.parse(value);
+                default -> value;
+            });
+            keys.put("code", in.readUTF());
+            if (in.available() > 0)
+                throw new IllegalArgumentException("Invalid cursor " + cursor);
+        } catch (IOException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+        }
+        return keys;
+    }
+
+    /**
+     * @param event  an Event
+     * @param sortBy property the Events are sorted on
+     * @return the value of the property, possibly null, and the code of the Event
+     */
+    private static Map<String, Object> keysOf(Event event, String sortBy) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put(sortBy, switch (sortBy) {
+            case "name" -> event.getName();
+            case "creationDate" -> event.getCreationDate();
+            case "lastActivity" -> event.getLastActivity();
+            default -> event.getCode();
+        });
+        keys.put("code", event.getCode());
+        return keys;
+    }
+
     /**
      * Creates and saves an Event with given name
      *
@@ -94,6 +319,8 @@ public class EventService {
         // if not found exception will be thrown
 
         eventRepository.deleteById(eventCode);
+        balanceLedger.invalidate(eventCode);
+        activityTracker.forget(eventCode);
 
         return found;
     }
@@ -111,47 +338,19 @@ public class EventService {
         // if not found exception will be thrown
 
         found.setName(newName);
-        LocalDateTime l = new Date().toInstant()
-                .atZone(ZoneId.systemDefault())
-                .toLocalDateTime();
-        found.setLastActivity(l);
         eventRepository.save(found);
+        activityTracker.touch(eventCode);
         return found;
 
     }
 
     /**
      * Generates a UNIQUE 8 character code.
-     * Checks if it is already present in the Event database table, if it is the code gets
-     * regenerated until it is unique.
+     * The code is not present in the Event database table, see EventCodeGenerator.
      *
      * @return a unique 8 character code to be used as a Event code
      */
     public String generateCode() {
-        // Creates a list of characters [[0-9], [A-Z], [a-z]]
-        List<Character> possibleCharacters = new ArrayList<>();
-        for (int i = 48; i <= 57; i++) {
-            possibleCharacters.add((char) i);
-        }
-        for (int i = 65; i <= 90; i++) {
-            possibleCharacters.add((char) i);
-        }
-        for (int i = 97; i <= 122; i++) {
-            possibleCharacters.add((char) i);
-        }
-
-        String code = "";
-
-        while (code.isEmpty() || eventRepository.findById(code).isPresent()) {
-            code = "";
-            for (int i = 0; i < 8; i++) {
-                Character c = possibleCharacters.get(
-                        (int) ((Math.random() * Integer.MAX_VALUE) % possibleCharacters.size())
-                );
-                code += c;
-            }
-        }
-        // code is now unique
-        return code;
+        return eventCodeGenerator.generate();
     }
 }
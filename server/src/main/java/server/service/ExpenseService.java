@@ -4,6 +4,7 @@ import commons.dto.ExpenseDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.database.ParticipantRepository;
@@ -12,13 +13,19 @@ import server.entities.expense.Expense;
 import server.entities.expense.ExpenseId;
 import server.entities.participant.Participant;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
 
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Handles input and output of saved Expense objects
@@ -29,7 +36,8 @@ public class ExpenseService {
     private final ParticipantRepository participantRepository;
     private final SimpMessagingTemplate simpMessagingTemplate;
     private final EventRepository eventRepository;
-
+    private final BalanceLedger balanceLedger;
+    private final ActivityTracker activityTracker;
 
     /**
      * Constructs an ExpenseService instance with
@@ -39,17 +47,23 @@ public class ExpenseService {
      * @param participantRepository The ParticipantRepository to be injected into the service.
      * @param simpMessagingTemplate The SimpMessagingTemplate to be injected into the service.
      * @param eventRepository       The EventRepository to be injected into the service.
+     * @param balanceLedger         The BalanceLedger to keep up to date with changes in expenses.
+     * @param activityTracker       The ActivityTracker recording the last activity of events.
      */
     public ExpenseService(
             @Autowired ExpenseRepository expenseRepository,
             @Autowired ParticipantRepository participantRepository,
             @Autowired SimpMessagingTemplate simpMessagingTemplate,
-            @Autowired EventRepository eventRepository
+            @Autowired EventRepository eventRepository,
+            @Autowired BalanceLedger balanceLedger,
+            @Autowired ActivityTracker activityTracker
     ) {
         this.expenseRepository = expenseRepository;
         this.participantRepository = participantRepository;
         this.simpMessagingTemplate = simpMessagingTemplate;
         this.eventRepository = eventRepository;
+        this.balanceLedger = balanceLedger;
+        this.activityTracker = activityTracker;
     }
 
     /**
@@ -66,6 +80,56 @@ public class ExpenseService {
         return result;
     }
 
+    /**
+     * Fetches all Expenses in a given Event as ExpenseDTOs, in a single query
+     * and without loading the Expense entities or their payers
+     *
+     * @param eventCode code of the Event to which the Expenses belong
+     * @return a List of ExpenseDTOs of all Expenses in a given Event
+     */
+    public List<ExpenseDTO> getAllDTOsInEvent(String eventCode) {
+        return withDebtorNames(expenseRepository.findAllExpenseDTOsInEvent(eventCode),
+                expenseRepository.findAllDebtorNamesInEvent(eventCode));
+    }
+
+    /**
+     * Fetches the Expenses in a given Event that are shared by a given Participant as ExpenseDTOs.
+     * The Expenses are looked up through the index on the debtors, and only their own debtors
+     * are fetched, so the other Expenses of the Event are not read.
+     *
+     * @param eventCode  code of the Event to which the Expenses belong
+     * @param debtorName name of the Participant sharing the Expenses
+     * @return a List of ExpenseDTOs of the Expenses shared by the Participant
+     */
+    public List<ExpenseDTO> getAllDTOsInvolving(String eventCode, String debtorName) {
+        Collection<ExpenseDTO> expenses = expenseRepository.findAllExpenseDTOsInvolving(eventCode, debtorName);
+        if (expenses.isEmpty()) return new ArrayList<>();
+        return withDebtorNames(expenses, expenseRepository.findDebtorNamesOfExpenses(eventCode,
+                expenses.stream().map(ExpenseDTO::id).toList()));
+    }
+
+    /**
+     * Adds the debtors to ExpenseDTOs fetched without them
+     *
+     * @param expenses    ExpenseDTOs without debtors
+     * @param debtorNames rows of [expense id, debtor name] covering at least the given Expenses
+     * @return the ExpenseDTOs with their debtors, in the same order
+     */
+    private List<ExpenseDTO> withDebtorNames(Collection<ExpenseDTO> expenses, Collection<Object[]> debtorNames) {
+        Map<Long, List<String>> debtors = new HashMap<>();
+        for (Object[] row : debtorNames) {
+            debtors.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        List<ExpenseDTO> result = new ArrayList<>(expenses.size());
+        for (ExpenseDTO expense : expenses) {
+            List<String> names = debtors.getOrDefault(expense.id(), new ArrayList<>());
+            Collections.sort(names);
+            result.add(expense.withDebtorNames(names));
+        }
+        return result;
+    }
+
     /**
      * Fetches all Expenses in a given Event and paid by given participant
      *
@@ -107,7 +171,9 @@ public class ExpenseService {
     }
 
     /**
-     * Creates and saves a new Expense object
+     * Creates and saves a new Expense object.
+     * Its debtors are stored with it: an Expense created without debtors is shared by the Participants
+     * the Event has now, not by Participants who join the Event afterwards.
      *
      * @param eventCode code of the Event to which the Expense belongs
      * @param body      data to populate the new Expense object with
@@ -121,12 +187,57 @@ public class ExpenseService {
         Participant paidBy = getOneParticipant(eventCode, body.paidByName());
 
         Expense newExpense = new Expense(body.price(), body.item(), paidBy, body.date());
+        newExpense.setDebtors(getDebtors(eventCode, body.debtorNames(), participantsInEvent(eventCode)));
 
-        expenseRepository.save(newExpense);
+        newExpense = expenseRepository.save(newExpense);
+        balanceLedger.expenseAdded(eventCode, newExpense.getId(), paidBy.getName(), newExpense.getPrice(),
+                newExpense.getDebtorNames());
         updateDate(eventCode);
         return newExpense;
     }
 
+    /**
+     * Creates and saves a list of new Expense objects in a single transaction.
+     * The owners of all expenses are fetched in one query, the inserts are sent to the
+     * database in JDBC batches and the last activity of the event is updated once for the whole list.
+     *
+     * @param eventCode code of the Event to which the Expenses belong
+     * @param bodies    data to populate the new Expense objects with
+     * @return the newly created Expense objects, in the order of bodies
+     * @throws NotFoundInDatabaseException if an owner of any of the Expenses
+     *                                     or the specified Event does not exist
+     */
+    @Transactional(rollbackFor = NotFoundInDatabaseException.class)
+    public List<Expense> createMany(String eventCode, List<ExpenseDTO> bodies)
+            throws NotFoundInDatabaseException {
+        Event event = getOneEvent(eventCode);
+        if (bodies.isEmpty()) return List.of();
+
+        Map<String, Participant> participants = participantsInEvent(eventCode);
+
+        List<Expense> newExpenses = new ArrayList<>(bodies.size());
+        for (ExpenseDTO body : bodies) {
+            Participant paidBy = participants.get(body.paidByName());
+            if (paidBy == null) throw new NotFoundInDatabaseException(
+                    "A Participant of event " + eventCode + " with name "
+                            + body.paidByName() + "cannot be found!"
+            );
+            Expense expense = new Expense(body.price(), body.item(), paidBy, body.date());
+            expense.setDebtors(getDebtors(eventCode, body.debtorNames(), participants));
+            newExpenses.add(expense);
+        }
+
+        List<Expense> saved = new ArrayList<>(newExpenses.size());
+        for (Expense expense : expenseRepository.saveAll(newExpenses)) {
+            balanceLedger.expenseAdded(eventCode, expense.getId(), expense.getPaidBy().getName(),
+                    expense.getPrice(), expense.getDebtorNames());
+            saved.add(expense);
+        }
+
+        updateDate(eventCode);
+        return saved;
+    }
+
     /**
      * Deletes a specified Expense from the database
      *
@@ -147,6 +258,7 @@ public class ExpenseService {
                 participantName,
                 id
         ));
+        balanceLedger.expenseRemoved(eventCode, id);
 
         updateDate(eventCode);
         return found;
@@ -171,13 +283,74 @@ public class ExpenseService {
         if(!(body.item().isEmpty())) found.setItem(body.item());
         if(body.price() != -1) found.setPrice(body.price());
         if(body.date() != null) found.setDate(body.date());
+        if(!(body.debtorNames().isEmpty()))
+            found.setDebtors(getDebtors(eventCode, body.debtorNames(), participantsInEvent(eventCode)));
 
         expenseRepository.save(found);
+        balanceLedger.expenseChanged(eventCode, id, found.getPaidBy().getName(), found.getPrice(),
+                found.getDebtorNames());
 
         updateDate(eventCode);
         return found;
     }
 
+    /**
+     * Removes a Participant from the debtors of all Expenses they share,
+     * has to be called before the Participant is deleted.
+     * Expenses shared by nobody else are from then on shared by their payer alone.
+     *
+     * @param eventCode  code of the Event to which the Participant belongs
+     * @param debtorName name of the Participant
+     * @return the changed Expenses, with their remaining debtors
+     */
+    public List<Expense> removeDebtor(String eventCode, String debtorName) {
+        List<Expense> changed = new ArrayList<>();
+        for (Expense expense : expenseRepository.findAllExpensesInvolving(eventCode, debtorName)) {
+            expense.getDebtors().removeIf(debtor -> debtor.getName().equals(debtorName));
+            // an expense nobody else shared is left to its payer
+            if (expense.getDebtors().isEmpty()) expense.getDebtors().add(expense.getPaidBy());
+            changed.add(expenseRepository.save(expense));
+        }
+        return changed;
+    }
+
+    /**
+     * Fetches all Participants of an Event in one query
+     *
+     * @param eventCode code of the Event
+     * @return the Participants by name
+     */
+    private Map<String, Participant> participantsInEvent(String eventCode) {
+        Map<String, Participant> participants = new HashMap<>();
+        participantRepository.findAllParticipantsInEvent(eventCode)
+                .forEach(p -> participants.put(p.getName(), p));
+        return participants;
+    }
+
+    /**
+     * Looks up the debtors of an Expense
+     *
+     * @param eventCode    code of the Event to which the Expense belongs
+     * @param names        names of the debtors, empty for all current Participants of the Event
+     * @param participants all Participants of the Event by name
+     * @return the debtors
+     * @throws NotFoundInDatabaseException if one of the debtors is not a Participant of the Event
+     */
+    private Set<Participant> getDebtors(String eventCode, List<String> names, Map<String, Participant> participants)
+            throws NotFoundInDatabaseException {
+        if (names.isEmpty()) return new LinkedHashSet<>(participants.values());
+
+        Set<Participant> debtors = new LinkedHashSet<>();
+        for (String name : names) {
+            Participant debtor = participants.get(name);
+            if (debtor == null) throw new NotFoundInDatabaseException(
+                    "A Participant of event " + eventCode + " with name " + name + "cannot be found!"
+            );
+            debtors.add(debtor);
+        }
+        return debtors;
+    }
+
     /**
      * Creates a ExpenseId object given arguments
      *
@@ -231,20 +404,13 @@ public class ExpenseService {
     }
 
     /**
-     * Updates the Last Activity date on the Event
+     * Updates the Last Activity date on the Event.
+     * The date is recorded by the ActivityTracker, which writes it to the database later on.
      *
-     * @param eventCode code of the fetched Event object
-     * @throws NotFoundInDatabaseException if an object with given code
-     *                                     is not present in the database
+     * @param eventCode code of the changed Event
+     * @return the new Last Activity date of the Event
      */
-    public void updateDate(String eventCode) throws NotFoundInDatabaseException {
-        Event found = getOneEvent(eventCode);
-        // if not found exception will be thrown
-        LocalDateTime l = new Date().toInstant()
-                .atZone(ZoneId.systemDefault())
-                .toLocalDateTime();
-
-        found.setLastActivity(l);
-        eventRepository.save(found);
+    public LocalDateTime updateDate(String eventCode) {
+        return activityTracker.touch(eventCode);
     }
 }
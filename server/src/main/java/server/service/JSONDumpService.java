@@ -1,7 +1,15 @@
 package server.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import commons.dto.*;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import server.database.DebtRepository;
@@ -14,16 +22,19 @@ import server.entities.event.Event;
 import server.entities.expense.Expense;
 import server.entities.participant.Participant;
 import server.service.exceptions.ImproperDumpFormatException;
+import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Service
 public class JSONDumpService {
-    private final EventService eventService;
-    private final ParticipantService participantService;
-    private final ExpenseService expenseService;
-    private final DebtService debtService;
     private final EventRepository eventRepository;
     private final ParticipantRepository participantRepository;
     private final ExpenseRepository expenseRepository;
@@ -32,14 +43,22 @@ public class JSONDumpService {
     private final DTOMapper<Participant, ParticipantDTO> participantDTOMapper;
     private final DTOMapper<Expense, ExpenseDTO> expenseDTOMapper;
     private final DTOMapper<Debt, DebtDTO> debtDTOMapper;
+    private final BalanceLedger balanceLedger;
+    private final ActivityTracker activityTracker;
+    private final EventCodeGenerator eventCodeGenerator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final int pageSize;
+    private final int restoreChunkSize;
+    private final AtomicLong restoredEvents = new AtomicLong();
+    private final AtomicLong restoredParticipants = new AtomicLong();
+    private final AtomicLong restoredExpenses = new AtomicLong();
+    private final AtomicLong restoredDebts = new AtomicLong();
+    private volatile boolean restoreRunning;
 
     /**
      * Constructs a JSONDumpService with the specified dependencies.
      *
-     * @param eventService          The EventService instance.
-     * @param participantService    The ParticipantService instance.
-     * @param expenseService        The ExpenseService instance.
-     * @param debtService           The DebtService instance.
      * @param eventRepository       The EventRepository instance.
      * @param participantRepository The ParticipantRepository instance.
      * @param expenseRepository     The ExpenseRepository instance.
@@ -48,12 +67,15 @@ public class JSONDumpService {
      * @param participantDTOMapper  The ParticipantDTOMapper instance.
      * @param expenseDTOMapper      The ExpenseDTOMapper instance.
      * @param debtDTOMapper         The DebtDTOMapper instance.
+     * @param balanceLedger         The BalanceLedger instance.
+     * @param activityTracker       The ActivityTracker instance.
+     * @param eventCodeGenerator    The EventCodeGenerator the restored codes are registered with.
+     * @param objectMapper          The ObjectMapper used for JSON dumps.
+     * @param entityManager         The EntityManager, cleared after every page of a dump.
+     * @param pageSize              The number of events read from the database at once.
+     * @param restoreChunkSize      The number of rows inserted between flushes when restoring.
      */
     public JSONDumpService(
-            @Autowired EventService eventService,
-            @Autowired ParticipantService participantService,
-            @Autowired ExpenseService expenseService,
-            @Autowired DebtService debtService,
             @Autowired EventRepository eventRepository,
             @Autowired ParticipantRepository participantRepository,
             @Autowired ExpenseRepository expenseRepository,
@@ -61,12 +83,15 @@ public class JSONDumpService {
             @Autowired DTOMapper<Event, EventDTO> eventDTOMapper,
             @Autowired DTOMapper<Participant, ParticipantDTO> participantDTOMapper,
             @Autowired DTOMapper<Expense, ExpenseDTO> expenseDTOMapper,
-            @Autowired DTOMapper<Debt, DebtDTO> debtDTOMapper
+            @Autowired DTOMapper<Debt, DebtDTO> debtDTOMapper,
+            @Autowired BalanceLedger balanceLedger,
+            @Autowired ActivityTracker activityTracker,
+            @Autowired EventCodeGenerator eventCodeGenerator,
+            @Autowired ObjectMapper objectMapper,
+            @Autowired EntityManager entityManager,
+            @Value("${jsondump.page-size:500}") int pageSize,
+            @Value("${jsondump.restore.chunk-size:1000}") int restoreChunkSize
     ) {
-        this.eventService = eventService;
-        this.participantService = participantService;
-        this.expenseService = expenseService;
-        this.debtService = debtService;
         this.eventRepository = eventRepository;
         this.participantRepository = participantRepository;
         this.expenseRepository = expenseRepository;
@@ -75,6 +100,13 @@ public class JSONDumpService {
         this.participantDTOMapper = participantDTOMapper;
         this.expenseDTOMapper = expenseDTOMapper;
         this.debtDTOMapper = debtDTOMapper;
+        this.balanceLedger = balanceLedger;
+        this.activityTracker = activityTracker;
+        this.eventCodeGenerator = eventCodeGenerator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.pageSize = pageSize;
+        this.restoreChunkSize = restoreChunkSize;
     }
 
     /**
@@ -83,45 +115,114 @@ public class JSONDumpService {
      *
      * @return state of the server in List<EventDump>
      */
+    @Transactional(readOnly = true)
     public List<JSONDumpEventDTO> createDump() {
-
         List<JSONDumpEventDTO> response = new ArrayList<>();
+        forEachPage(response::addAll);
+        return response;
+    }
 
-        List<Event> events = eventService.getAll();
+    /**
+     * Writes the same dump as createDump to the given stream as JSON, one event at a time.
+     * Only one page of events is held in memory at once, so the dump can be larger than the heap.
+     *
+     * @param outputStream stream to write the JSON array of EventDumps to, left open
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void writeDump(OutputStream outputStream) throws IOException {
+        writeDump(outputStream, objectMapper);
+    }
 
-        for (Event event : events) {
-            JSONDumpEventDTO jsonDumpEventDTO =
-                    new JSONDumpEventDTO(eventDTOMapper.toDTO(event), new ArrayList<>(),
-                            new ArrayList<>(), new ArrayList<>());
+    /**
+     * Writes the same dump as createDump to the given stream in the format of the given mapper,
+     * one event at a time.
+     *
+     * @param outputStream stream to write the array of EventDumps to, left open
+     * @param mapper       ObjectMapper of the format to write, see DumpFormats
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void writeDump(OutputStream outputStream, ObjectMapper mapper) throws IOException {
+        try (JsonGenerator generator = mapper.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            forEachPage(page -> {
+                try {
+                    for (JSONDumpEventDTO jsonDumpEventDTO : page) {
+                        generator.writeObject(jsonDumpEventDTO);
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-            List<Participant> participants = participantService.getAll(event.getCode());
-            List<Expense> expenses = expenseService.getAllInEvent(event.getCode());
-            List<Debt> debts = debtService.getAllDebts(event.getCode());
+    /**
+     * Reads all events page by page, ordered by code, and passes every page as EventDumps to the consumer.
+     * The participants, expenses and debts of a page are fetched with one query each. This has to run
+     * in a transaction, so that the participants referenced by expenses and debts are taken from the
+     * persistence context instead of being loaded one by one.
+     *
+     * @param consumer consumer of the pages
+     */
+    private void forEachPage(Consumer<List<JSONDumpEventDTO>> consumer) {
+        String after = "";
+        List<Event> events;
+        do {
+            events = eventRepository.findAllAfter(after, PageRequest.of(0, pageSize));
+            if (events.isEmpty()) break;
 
-            for (Participant participant : participants) {
-                ParticipantDTO participantDTO = participantDTOMapper.toDTO(participant);
-                jsonDumpEventDTO.participantDTOs().add(participantDTO);
-            }
+            consumer.accept(toDump(events));
 
-            for (Expense expense : expenses) {
-                ExpenseDTO expenseDTO = expenseDTOMapper.toDTO(expense);
-                jsonDumpEventDTO.expenseDTOs().add(expenseDTO);
-            }
+            after = events.get(events.size() - 1).getCode();
+            // nothing of this page is needed anymore, so don't let the persistence context grow
+            entityManager.clear();
+        } while (events.size() == pageSize);
+    }
 
-            for (Debt debt : debts) {
-                DebtDTO debtDTO = debtDTOMapper.toDTO(debt);
-                jsonDumpEventDTO.debtDTOs().add(debtDTO);
-            }
+    private List<JSONDumpEventDTO> toDump(List<Event> events) {
+        Map<String, JSONDumpEventDTO> dump = new LinkedHashMap<>();
+        for (Event event : events) {
+            dump.put(event.getCode(), new JSONDumpEventDTO(eventDTOMapper.toDTO(event),
+                    new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        }
+        Set<String> codes = dump.keySet();
 
-            response.add(jsonDumpEventDTO);
+        for (Participant participant : participantRepository.findAllParticipantsInEvents(codes)) {
+            dump.get(participant.getEvent().getCode()).participantDTOs()
+                    .add(participantDTOMapper.toDTO(participant));
+        }
+        for (Expense expense : expenseRepository.findAllExpensesInEvents(codes)) {
+            dump.get(expense.getPaidBy().getEvent().getCode()).expenseDTOs()
+                    .add(expenseDTOMapper.toDTO(expense));
         }
+        for (Debt debt : debtRepository.findAllDebtsInEvents(codes)) {
+            dump.get(debt.getDebtor().getEvent().getCode()).debtDTOs()
+                    .add(debtDTOMapper.toDTO(debt));
+        }
+        return new ArrayList<>(dump.values());
+    }
 
-        return response;
+    /**
+     * Freezes the state of a single event into the JSON dump format,
+     * with the same number of queries as one page of createDump.
+     *
+     * @param eventCode code of the event
+     * @return the EventDump of the event
+     * @throws NotFoundInDatabaseException if there is no event with the given code
+     */
+    @Transactional(readOnly = true)
+    public JSONDumpEventDTO createDumpForEvent(String eventCode) throws NotFoundInDatabaseException {
+        Event event = eventRepository.findById(eventCode).orElseThrow(() -> new NotFoundInDatabaseException(
+                "Event with code: " + eventCode + " is not present in the database!"));
+        return toDump(List.of(event)).get(0);
     }
-//
-//    public JSONDumpEventDTO createDumpForEvent(EventDTO eventDTO){
-//        Event eventToDump = eventService.getOne(eventDTO.code());
-//    }
 
     /**
      * Restores the state of the server to that stored inside the passed List<EventDump>
@@ -129,95 +230,207 @@ public class JSONDumpService {
      * @param jsonDump List<EventDump> containing the desired state of the server
      * @throws ImproperDumpFormatException if the passed jsonDump is formatted improperly
      */
-    @Transactional
+    @Transactional(rollbackFor = ImproperDumpFormatException.class)
     public void restoreFromDump(List<JSONDumpEventDTO> jsonDump)
             throws ImproperDumpFormatException {
-        debtRepository.deleteAll();
-        expenseRepository.deleteAll();
-        participantRepository.deleteAll();
-        eventRepository.deleteAll();
+        startRestore();
         try {
+            deleteAll();
+            RestoreChunk chunk = new RestoreChunk();
             for (JSONDumpEventDTO jsonDumpEventDTO : jsonDump) {
+                persistEvent(jsonDumpEventDTO, chunk);
+            }
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            throw new ImproperDumpFormatException("Improper dump format");
+        } finally {
+            restoreRunning = false;
+        }
+    }
 
-                EventDTO eventDTO = jsonDumpEventDTO.eventDTO();
-                eventRepository.save(eventDTOMapper.newEntity(eventDTO));
-
-                for (ParticipantDTO participantDTO : jsonDumpEventDTO.participantDTOs()) {
-                    participantRepository.save(
-                            participantDTOMapper.newEntity(
-                                    participantDTO,
-                                    eventDTO.code()
-                            )
-                    );
-                }
+    /**
+     * Restores the state of the server to that stored in the JSON array of EventDumps read from the stream.
+     * The dump is parsed one event at a time and inserted in JDBC batches, flushing every
+     * jsondump.restore.chunk-size rows, so the dump never has to fit in memory as a whole.
+     *
+     * @param inputStream stream containing a JSON array of EventDumps
+     * @throws ImproperDumpFormatException if the dump is formatted improperly
+     * @throws IOException if reading from the stream fails
+     */
+    @Transactional(rollbackFor = {ImproperDumpFormatException.class, IOException.class})
+    public void restoreFromDump(InputStream inputStream)
+            throws ImproperDumpFormatException, IOException {
+        restoreFromDump(inputStream, objectMapper);
+    }
 
-                for (ExpenseDTO expenseDTO : jsonDumpEventDTO.expenseDTOs()) {
-                    expenseRepository.save(
-                            expenseDTOMapper.newEntity(
-                                   expenseDTO,
-                                   eventDTO.code()
-                            )
-                    );
-                }
+    /**
+     * Restores the state of the server to that stored in the array of EventDumps read from the stream,
+     * in the format of the given mapper.
+     *
+     * @param inputStream stream containing an array of EventDumps
+     * @param mapper      ObjectMapper of the format to read, see DumpFormats
+     * @throws ImproperDumpFormatException if the dump is formatted improperly
+     * @throws IOException if reading from the stream fails
+     */
+    @Transactional(rollbackFor = {ImproperDumpFormatException.class, IOException.class})
+    public void restoreFromDump(InputStream inputStream, ObjectMapper mapper)
+            throws ImproperDumpFormatException, IOException {
+        startRestore();
+        try (JsonParser parser = mapper.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY)
+                throw new ImproperDumpFormatException("A dump has to be a JSON array");
 
-                for (DebtDTO debtDTO : jsonDumpEventDTO.debtDTOs()) {
-                    debtRepository.save(
-                            debtDTOMapper.newEntity(
-                                    debtDTO,
-                                    eventDTO.code()
-                            )
-                    );
-                }
+            deleteAll();
+            RestoreChunk chunk = new RestoreChunk();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                persistEvent(mapper.readValue(parser, JSONDumpEventDTO.class), chunk);
             }
-        } catch (Exception e) {
+            if (parser.currentToken() != JsonToken.END_ARRAY)
+                throw new ImproperDumpFormatException("A dump has to be a JSON array of events");
+            entityManager.flush();
+        } catch (JsonProcessingException | RuntimeException e) {
             throw new ImproperDumpFormatException("Improper dump format");
+        } finally {
+            restoreRunning = false;
         }
     }
 
     /**
-     * Restores the state of an event to that stored inside the passed DTO
+     * Restores the state of an event to that stored inside the passed DTO.
+     * If the event already exists, its participants, expenses and debts are replaced.
      * @param jsonDumpEventDTO EventDump containing the desired event
      * @throws ImproperDumpFormatException if the passed jsonDump is formatted improperly
      */
-    @Transactional
+    @Transactional(rollbackFor = ImproperDumpFormatException.class)
     public void restoreEventFromDump(JSONDumpEventDTO jsonDumpEventDTO)
             throws ImproperDumpFormatException {
         try {
-
-            EventDTO eventDTO = jsonDumpEventDTO.eventDTO();
-            if(eventDTO.code() == null || eventDTO.code().isEmpty())
+            String code = jsonDumpEventDTO.eventDTO().code();
+            if (code == null || code.isEmpty())
                 throw new ImproperDumpFormatException("Event code is invalid");
-            eventRepository.save(eventDTOMapper.newEntity(eventDTO));
-
-            for (ParticipantDTO participantDTO : jsonDumpEventDTO.participantDTOs()) {
-                participantRepository.save(
-                        participantDTOMapper.newEntity(
-                                participantDTO,
-                                eventDTO.code()
-                        )
-                );
-            }
 
-            for (ExpenseDTO expenseDTO : jsonDumpEventDTO.expenseDTOs()) {
-                expenseRepository.save(
-                        expenseDTOMapper.newEntity(
-                                expenseDTO,
-                                eventDTO.code()
-                        )
-                );
-            }
+            debtRepository.deleteAllDebtsInEvent(code);
+            expenseRepository.deleteAllExpensesInEvent(code);
+            participantRepository.deleteAllParticipantsInEvent(code);
+            eventRepository.deleteEvent(code);
+            entityManager.clear();
 
-            for (DebtDTO debtDTO : jsonDumpEventDTO.debtDTOs()) {
-                debtRepository.save(
-                    debtDTOMapper.newEntity(
-                            debtDTO,
-                            eventDTO.code()
-                    )
-                );
-            }
+            persistEvent(jsonDumpEventDTO, new RestoreChunk());
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            throw new ImproperDumpFormatException("Improper dump format");
+        }
+    }
 
-        } catch (Exception e) {
+    /**
+     * @return the progress of the running restore, or the totals of the last finished one
+     */
+    public RestoreProgressDTO getRestoreProgress() {
+        return new RestoreProgressDTO(
+                restoreRunning,
+                restoredEvents.get(),
+                restoredParticipants.get(),
+                restoredExpenses.get(),
+                restoredDebts.get()
+        );
+    }
+
+    private void startRestore() {
+        restoreRunning = true;
+        restoredEvents.set(0);
+        restoredParticipants.set(0);
+        restoredExpenses.set(0);
+        restoredDebts.set(0);
+    }
+
+    private void deleteAll() {
+        debtRepository.deleteAllDebts();
+        expenseRepository.deleteAllExpenses();
+        participantRepository.deleteAllParticipants();
+        eventRepository.deleteAllEvents();
+        entityManager.clear();
+        balanceLedger.invalidateAll();
+        activityTracker.forgetAll();
+    }
+
+    /**
+     * Persists an event with its participants, expenses and debts.
+     * The rows are persisted directly instead of through save(), which would first select every row.
+     *
+     * @param jsonDumpEventDTO the event to persist
+     * @param chunk            rows persisted since the last flush
+     * @throws ImproperDumpFormatException if the event refers to participants it does not contain
+     */
+    private void persistEvent(JSONDumpEventDTO jsonDumpEventDTO, RestoreChunk chunk)
+            throws ImproperDumpFormatException {
+        EventDTO eventDTO = jsonDumpEventDTO.eventDTO();
+        if (eventDTO.code() == null || eventDTO.code().isEmpty())
+            throw new ImproperDumpFormatException("Event code is invalid");
+
+        Event event;
+        try {
+            event = eventDTOMapper.newEntity(eventDTO);
+        } catch (NotFoundInDatabaseException e) {
             throw new ImproperDumpFormatException("Improper dump format");
         }
+        entityManager.persist(event);
+        eventCodeGenerator.register(event.getCode());
+
+        Map<String, Participant> participants = new HashMap<>();
+        for (ParticipantDTO participantDTO : jsonDumpEventDTO.participantDTOs()) {
+            Participant participant = new Participant(participantDTO.name(), event,
+                    participantDTO.email(), participantDTO.iban(), participantDTO.bic());
+            entityManager.persist(participant);
+            participants.put(participant.getName(), participant);
+        }
+        for (ExpenseDTO expenseDTO : jsonDumpEventDTO.expenseDTOs()) {
+            Expense expense = new Expense(expenseDTO.price(), expenseDTO.item(),
+                    findParticipant(participants, expenseDTO.paidByName()), expenseDTO.date());
+            // dumps made before expenses had debtors share every expense among all participants
+            if (expenseDTO.debtorNames().isEmpty()) {
+                expense.getDebtors().addAll(participants.values());
+            } else {
+                for (String name : expenseDTO.debtorNames()) {
+                    expense.getDebtors().add(findParticipant(participants, name));
+                }
+            }
+            entityManager.persist(expense);
+        }
+        for (DebtDTO debtDTO : jsonDumpEventDTO.debtDTOs()) {
+            entityManager.persist(new Debt(findParticipant(participants, debtDTO.debtorName()),
+                    findParticipant(participants, debtDTO.creditorName()),
+                    debtDTO.amount(), debtDTO.received()));
+        }
+        balanceLedger.invalidate(eventDTO.code());
+        activityTracker.forget(eventDTO.code());
+
+        restoredEvents.incrementAndGet();
+        restoredParticipants.addAndGet(jsonDumpEventDTO.participantDTOs().size());
+        restoredExpenses.addAndGet(jsonDumpEventDTO.expenseDTOs().size());
+        restoredDebts.addAndGet(jsonDumpEventDTO.debtDTOs().size());
+
+        // only flush between events, so that the participants of an event stay managed while it is persisted
+        chunk.rows += 1 + participants.size() + jsonDumpEventDTO.expenseDTOs().size()
+                + jsonDumpEventDTO.debtDTOs().size();
+        if (chunk.rows >= restoreChunkSize) {
+            entityManager.flush();
+            entityManager.clear();
+            chunk.rows = 0;
+        }
+    }
+
+    private Participant findParticipant(Map<String, Participant> participants, String name)
+            throws ImproperDumpFormatException {
+        Participant participant = participants.get(name);
+        if (participant == null)
+            throw new ImproperDumpFormatException("Participant " + name + " is not part of the event");
+        return participant;
+    }
+
+    /**
+     * Number of rows persisted since the last flush of a restore
+     */
+    private static class RestoreChunk {
+        private int rows;
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,28 @@
 package server.service;
 
 import commons.dto.ParticipantDTO;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import server.database.EventRepository;
 import server.database.ParticipantRepository;
 import server.entities.event.Event;
+import server.entities.expense.Expense;
 import server.entities.participant.Participant;
 import server.entities.participant.ParticipantId;
+import server.service.exceptions.NameTakenException;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
 
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Handles input and output for saved Participant objects
@@ -27,6 +33,9 @@ public class ParticipantService {
     private final EventRepository eventRepository;
     private final ExpenseService expenseService;
     private final SimpMessagingTemplate simpMessagingTemplate;
+    private final BalanceLedger balanceLedger;
+    private final ActivityTracker activityTracker;
+    private final EntityManager entityManager;
 
     /**
      * Constructor for ParticipantService
@@ -35,16 +44,25 @@ public class ParticipantService {
      * @param eventRepository The EventRepository instance to interact with the database
      * @param expenseService The ExpenseService instance to interact with the expenses
      * @param simpMessagingTemplate The SimpMessagingService instance to send STOMP messages
+     * @param balanceLedger The BalanceLedger to keep up to date with changes in participants
+     * @param activityTracker The ActivityTracker recording the last activity of events
+     * @param entityManager The EntityManager persisting batches of new participants
      */
     public ParticipantService(@Autowired ParticipantRepository participantRepository,
                               @Autowired EventRepository eventRepository,
                               @Autowired ExpenseService expenseService,
-                              @Autowired SimpMessagingTemplate simpMessagingTemplate
+                              @Autowired SimpMessagingTemplate simpMessagingTemplate,
+                              @Autowired BalanceLedger balanceLedger,
+                              @Autowired ActivityTracker activityTracker,
+                              @Autowired EntityManager entityManager
     ) {
         this.participantRepository = participantRepository;
         this.eventRepository = eventRepository;
         this.expenseService = expenseService;
         this.simpMessagingTemplate = simpMessagingTemplate;
+        this.balanceLedger = balanceLedger;
+        this.activityTracker = activityTracker;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -79,6 +97,17 @@ public class ParticipantService {
         return result;
     }
 
+    /**
+     * Fetches all participants in given event as ParticipantDTOs, in a single query
+     * and without loading the Participant entities
+     *
+     * @param eventCode a code of the event from which to fetch participants
+     * @return a List of ParticipantDTOs
+     */
+    public List<ParticipantDTO> getAllDTOs(String eventCode) {
+        return new ArrayList<>(participantRepository.findAllParticipantDTOsInEvent(eventCode));
+    }
+
     /**
      * Creates and saves a new Participant entity
      *
@@ -101,31 +130,86 @@ public class ParticipantService {
         );
 
         participantRepository.save(newParticipant);
+        balanceLedger.participantAdded(eventCode, newParticipant.getName());
         updateDate(eventCode);
         return newParticipant;
     }
 
     /**
-     * Deletes a participant from the database.
+     * Creates and saves a list of new Participant entities in a single transaction.
+     * The names taken in the event are looked up in one query, after which the participants
+     * are persisted without being merged, so the inserts are sent to the database in JDBC batches
+     * without a select per participant. The last activity of the event is updated once for the whole list.
+     *
+     * @param eventCode code of the event for which the participants should be created
+     * @param bodies    data to be used when creating the participant objects
+     * @return the newly created Participant entities, in the order of bodies
+     * @throws NotFoundInDatabaseException if an event with the given eventCode
+     *                                     is not present in the database
+     * @throws NameTakenException          if a name is taken by a participant of the event or occurs more than
+     *                                     once in bodies, in which case no participant is created
+     */
+    @Transactional(rollbackFor = {NotFoundInDatabaseException.class, NameTakenException.class})
+    public List<Participant> createMany(String eventCode, List<ParticipantDTO> bodies)
+            throws NotFoundInDatabaseException, NameTakenException {
+        Event event = getOneEvent(eventCode);
+        if (bodies.isEmpty()) return List.of();
+
+        Set<String> names = new HashSet<>(participantRepository.findParticipantNamesInEvent(
+                eventCode,
+                bodies.stream().map(ParticipantDTO::name).toList()
+        ));
+        List<ParticipantDTO> rejected = bodies.stream()
+                .filter(body -> !names.add(body.name()))
+                .toList();
+        if (!rejected.isEmpty()) throw new NameTakenException(
+                rejected.size() + " participants of event " + eventCode + " have a name that is already taken!",
+                rejected
+        );
+
+        List<Participant> saved = new ArrayList<>(bodies.size());
+        for (ParticipantDTO body : bodies) {
+            Participant participant = new Participant(
+                    body.name(),
+                    event,
+                    body.email(),
+                    body.iban(),
+                    body.bic()
+            );
+            entityManager.persist(participant);
+            balanceLedger.participantAdded(eventCode, participant.getName());
+            saved.add(participant);
+        }
+
+        updateDate(eventCode);
+        return saved;
+    }
+
+    /**
+     * Deletes a participant from the database, together with the expenses they paid for.
+     * The expenses they shared are from then on shared by the remaining debtors.
      *
      * @param eventCode       The code of the event.
      * @param participantName The name of the participant.
-     * @return The deleted participant.
+     * @return The expenses the participant shared, with their remaining debtors.
      * @throws NotFoundInDatabaseException If the participant is not found in the database.
      */
-    public Participant deleteOne(String eventCode, String participantName)
+    @Transactional(rollbackFor = NotFoundInDatabaseException.class)
+    public List<Expense> deleteOne(String eventCode, String participantName)
             throws NotFoundInDatabaseException {
-        Participant found = getOne(eventCode, participantName);
+        getOne(eventCode, participantName);
         // if not found, exception will be thrown
 
+        List<Expense> shared = expenseService.removeDebtor(eventCode, participantName);
+
         participantRepository.deleteById(getParticipantId(
                 eventCode,
                 participantName
         ));
-
+        balanceLedger.participantRemoved(eventCode, participantName);
 
         updateDate(eventCode);
-        return found;
+        return shared;
     }
 
     /**
@@ -185,21 +269,13 @@ public class ParticipantService {
         return searchResult.get();
     }
     /**
-     * Updates the Last Activity date on the Event
+     * Updates the Last Activity date on the Event.
+     * The date is recorded by the ActivityTracker, which writes it to the database later on.
      *
-     * @param eventCode code of the fetched Event object
-     * @return the instance of the event on which the lastActivity date was updated
-     * @throws NotFoundInDatabaseException if an object with given code
-     *                                     is not present in the database
+     * @param eventCode code of the changed Event
+     * @return the new Last Activity date of the Event
      */
-    public Event updateDate(String eventCode) throws NotFoundInDatabaseException {
-        Event found = getOneEvent(eventCode);
-        // if not found exception will be thrown
-        LocalDateTime l = new Date().toInstant()
-                .atZone(ZoneId.systemDefault())
-                .toLocalDateTime();
-        found.setLastActivity(l);
-        eventRepository.save(found);
-        return found;
+    public LocalDateTime updateDate(String eventCode) {
+        return activityTracker.touch(eventCode);
     }
 }
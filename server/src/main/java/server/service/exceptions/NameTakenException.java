@@ -0,0 +1,27 @@
+package server.service.exceptions;
+
+import commons.dto.ParticipantDTO;
+
+import java.util.List;
+
+public class NameTakenException extends Exception {
+    private final List<ParticipantDTO> rejected;
+
+    /**
+     * Constructs a NameTakenException with the specified detail message.
+     *
+     * @param message  The detail message.
+     * @param rejected The participants whose name is already taken in the event.
+     */
+    public NameTakenException(String message, List<ParticipantDTO> rejected) {
+        super(message);
+        this.rejected = List.copyOf(rejected);
+    }
+
+    /**
+     * @return The participants whose name is already taken in the event.
+     */
+    public List<ParticipantDTO> getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,13 @@
+package server.service.exceptions;
+
+public class UnknownSettlementStrategyException extends Exception {
+
+    /**
+     * Constructs an UnknownSettlementStrategyException with the specified detail message.
+     *
+     * @param message The detail message.
+     */
+    public UnknownSettlementStrategyException(String message) {
+        super(message);
+    }
+}
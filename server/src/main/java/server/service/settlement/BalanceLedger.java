@@ -0,0 +1,186 @@
+package server.service.settlement;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import server.database.ExpenseRepository;
+import server.database.ParticipantRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an EventBalance per event in memory so that debts can be derived without
+ * reloading every expense of the event.
+ * A balance is built from the database the first time it is requested and from then on
+ * updated, without querying the database, by the services that create, update or delete expenses
+ * and participants.
+ * Changes to events that have no balance loaded are ignored, they get picked up when
+ * the balance is first built.
+ * <p>
+ * Changes made in a transaction are only applied once it commits, so a rolled back transaction
+ * leaves no trace and a balance built while it was running cannot be invalidated too early.
+ * Every change is idempotent: a balance built after the commit already contains the change and is
+ * left as it is when the change is applied again.
+ * Only the balances of the most recently used events are kept, and only for events with participants.
+ */
+@Service
+public class BalanceLedger {
+    private static final int MAX_BALANCES = 10000;
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+
+    private final ExpenseRepository expenseRepository;
+    private final ParticipantRepository participantRepository;
+    private final Cache<String, EventBalance> balances = Caffeine.newBuilder()
+            .maximumSize(MAX_BALANCES)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .build();
+
+    /**
+     * Constructs a BalanceLedger
+     *
+     * @param expenseRepository     The ExpenseRepository used to build balances
+     * @param participantRepository The ParticipantRepository used to build balances
+     */
+    public BalanceLedger(@Autowired ExpenseRepository expenseRepository,
+                         @Autowired ParticipantRepository participantRepository) {
+        this.expenseRepository = expenseRepository;
+        this.participantRepository = participantRepository;
+    }
+
+    /**
+     * Fetches the balance of an event, building it from the database if it is not loaded yet
+     *
+     * @param eventCode code of the event
+     * @return the balance of the event
+     */
+    public EventBalance getBalance(String eventCode) {
+        EventBalance balance = balances.get(eventCode, this::load);
+        // events without participants, or that do not exist, have nothing worth keeping
+        return balance != null ? balance : new EventBalance();
+    }
+
+    /**
+     * Records a newly created expense
+     *
+     * @param eventCode code of the event to which the expense belongs
+     * @param id        id of the expense
+     * @param paidBy    name of the participant who paid
+     * @param price     price of the expense
+     * @param debtors   names of the participants who share the expense
+     */
+    public void expenseAdded(String eventCode, Long id, String paidBy, Double price, Collection<String> debtors) {
+        List<String> names = List.copyOf(debtors);
+        update(eventCode, balance -> balance.addExpense(id, paidBy, EventBalance.toCents(price), names));
+    }
+
+    /**
+     * Records a change in the price or the debtors of an expense
+     *
+     * @param eventCode code of the event to which the expense belongs
+     * @param id        id of the expense
+     * @param paidBy    name of the participant who paid
+     * @param price     price after the change
+     * @param debtors   names of the participants who share the expense after the change
+     */
+    public void expenseChanged(String eventCode, Long id, String paidBy, Double price, Collection<String> debtors) {
+        expenseAdded(eventCode, id, paidBy, price, debtors);
+    }
+
+    /**
+     * Records the deletion of an expense
+     *
+     * @param eventCode code of the event to which the expense belonged
+     * @param id        id of the deleted expense
+     */
+    public void expenseRemoved(String eventCode, Long id) {
+        update(eventCode, balance -> balance.removeExpense(id));
+    }
+
+    /**
+     * Records a newly created participant
+     *
+     * @param eventCode code of the event the participant joined
+     * @param name      name of the participant
+     */
+    public void participantAdded(String eventCode, String name) {
+        update(eventCode, balance -> balance.addParticipant(name));
+    }
+
+    /**
+     * Records the deletion of a participant, together with the expenses they paid for
+     * and their shares in other expenses
+     *
+     * @param eventCode code of the event the participant left
+     * @param name      name of the participant
+     */
+    public void participantRemoved(String eventCode, String name) {
+        update(eventCode, balance -> balance.removeParticipant(name));
+    }
+
+    /**
+     * Drops the balance of an event, it will be rebuilt from the database when next needed
+     *
+     * @param eventCode code of the event
+     */
+    public void invalidate(String eventCode) {
+        afterCommit(() -> balances.invalidate(eventCode));
+    }
+
+    /**
+     * Drops all balances, used when the database is modified in bulk
+     */
+    public void invalidateAll() {
+        afterCommit(balances::invalidateAll);
+    }
+
+    private void update(String eventCode, Consumer<EventBalance> change) {
+        afterCommit(() -> balances.asMap().computeIfPresent(eventCode, (code, balance) -> {
+            change.accept(balance);
+            return balance;
+        }));
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or right away outside of a transaction
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private EventBalance load(String eventCode) {
+        Collection<String> participants = participantRepository.findAllParticipantNamesInEvent(eventCode);
+        if (participants.isEmpty()) return null;
+
+        EventBalance balance = new EventBalance();
+        participants.forEach(balance::addParticipant);
+
+        Map<Long, List<String>> debtors = new HashMap<>();
+        for (Object[] row : expenseRepository.findAllDebtorNamesInEvent(eventCode)) {
+            debtors.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        for (Object[] row : expenseRepository.findAllPaymentsInEvent(eventCode)) {
+            Long id = (Long) row[0];
+            balance.addExpense(id, (String) row[1], EventBalance.toCents((Double) row[2]),
+                    debtors.getOrDefault(id, List.of()));
+        }
+        return balance;
+    }
+}
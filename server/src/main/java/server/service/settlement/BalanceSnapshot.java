@@ -0,0 +1,117 @@
+package server.service.settlement;
+
+/**
+ * Immutable view of an EventBalance at one point in time.
+ * Expense e was paid by names[payers[e]], cost cents[e] cents and is shared by the participants
+ * whose bits are set in debtors[e], bit i of the bitset being bit i % 64 of word i / 64.
+ * <p>
+ * An expense is split equally among its debtors. The cents that cannot be split equally are owed
+ * one each by the next debtors in turn, the turns going round all participants over all expenses,
+ * so that no participant owes more than a cent over their share. An expense without debtors is
+ * owed by its payer alone.
+ *
+ * @param names   names of all participants of the event
+ * @param payers  index of the participant who paid each expense
+ * @param cents   price of each expense, in cents
+ * @param debtors participants sharing each expense, as a bitset over the indices of names
+ */
+public record BalanceSnapshot(
+        String[] names,
+        int[] payers,
+        long[] cents,
+        long[][] debtors
+) {
+
+    /**
+     * Receives the share of one debtor in one expense
+     */
+    @FunctionalInterface
+    private interface ShareConsumer {
+        void accept(int debtor, int creditor, long cents);
+    }
+
+    /**
+     * @return the number of participants in the event
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the amount paid by each participant, in cents
+     */
+    public long[] paidCents() {
+        long[] paid = new long[size()];
+        for (int e = 0; e < payers.length; e++) paid[payers[e]] += cents[e];
+        return paid;
+    }
+
+    /**
+     * @return what each participant paid minus their shares in the expenses, in cents,
+     *         positive if the participant is owed money, negative if they owe money
+     */
+    public long[] netBalances() {
+        long[] net = new long[size()];
+        forEachShare((debtor, creditor, amount) -> {
+            net[creditor] += amount;
+            net[debtor] -= amount;
+        });
+        return net;
+    }
+
+    /**
+     * @return at [creditor][debtor] the sum of the shares of the debtor in the expenses paid
+     *         by the creditor, in cents, with the shares in their own expenses left out.
+     *         The row of a participant who paid for nothing is null, so this takes memory linear
+     *         in the number of participants times the number of payers.
+     */
+    public long[][] owedCents() {
+        long[][] owed = new long[size()][];
+        for (int payer : payers) {
+            if (owed[payer] == null) owed[payer] = new long[size()];
+        }
+        forEachShare((debtor, creditor, amount) -> {
+            if (debtor != creditor) owed[creditor][debtor] += amount;
+        });
+        return owed;
+    }
+
+    /**
+     * Splits every expense among its debtors, in time linear in the number of expenses
+     * times the number of debtors per expense
+     *
+     * @param consumer receives every share
+     */
+    private void forEachShare(ShareConsumer consumer) {
+        int[] shared = new int[size()];
+        int turn = 0;
+        for (int e = 0; e < payers.length; e++) {
+            int count = 0;
+            for (int word = 0; word < debtors[e].length; word++) {
+                for (long bits = debtors[e][word]; bits != 0; bits &= bits - 1) {
+                    shared[count++] = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            if (count == 0) {
+                consumer.accept(payers[e], payers[e], cents[e]);
+                continue;
+            }
+
+            long share = Math.floorDiv(cents[e], count);
+            long remaining = Math.floorMod(cents[e], count);
+            // the turn continues at the first debtor after the one that owed the last extra cent
+            int first = 0;
+            while (first < count && shared[first] < turn) first++;
+            for (int i = 0; i < count; i++) {
+                int debtor = shared[(first + i) % count];
+                long amount = share;
+                if (remaining > 0) {
+                    amount++;
+                    remaining--;
+                    turn = debtor + 1;
+                }
+                consumer.accept(debtor, payers[e], amount);
+            }
+        }
+    }
+}
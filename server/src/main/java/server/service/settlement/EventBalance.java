@@ -0,0 +1,160 @@
+package server.service.settlement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The expenses of a single event, each with the participants who share it.
+ * The participants sharing an expense are kept as a bitset over the participants of the event,
+ * so an event with N participants takes N / 8 bytes per expense.
+ * How the expenses are split is decided by the BalanceSnapshot.
+ */
+public class EventBalance {
+
+    /**
+     * An expense as seen by the balance
+     *
+     * @param payer   slot of the participant who paid
+     * @param cents   price in cents
+     * @param debtors bitset of the slots of the participants who share the expense
+     */
+    private record Share(int payer, long cents, long[] debtors) { }
+
+    // names of the participants by slot, null for participants that were removed
+    private final List<String> slots = new ArrayList<>();
+    private final Map<String, Integer> slotOf = new HashMap<>();
+    private final Map<Long, Share> expenses = new LinkedHashMap<>();
+    private long totalCents;
+
+    /**
+     * Registers a participant that has not paid for or shared anything yet
+     *
+     * @param name name of the participant
+     */
+    public synchronized void addParticipant(String name) {
+        slotOf(name);
+    }
+
+    /**
+     * Removes a participant together with the expenses they paid for.
+     * The expenses they shared are split among the remaining debtors.
+     *
+     * @param name name of the participant
+     */
+    public synchronized void removeParticipant(String name) {
+        Integer slot = slotOf.remove(name);
+        if (slot == null) return;
+        slots.set(slot, null);
+
+        for (Iterator<Share> it = expenses.values().iterator(); it.hasNext(); ) {
+            Share share = it.next();
+            if (share.payer() == slot) {
+                totalCents -= share.cents();
+                it.remove();
+            } else if (slot / Long.SIZE < share.debtors().length) {
+                share.debtors()[slot / Long.SIZE] &= ~(1L << slot);
+            }
+        }
+    }
+
+    /**
+     * Adds an expense, or replaces the expense with the same id.
+     * Participants that are not known yet are registered.
+     *
+     * @param id      id of the expense
+     * @param paidBy  name of the participant who paid
+     * @param cents   price in cents
+     * @param debtors names of the participants who share the expense
+     */
+    public synchronized void addExpense(long id, String paidBy, long cents, Collection<String> debtors) {
+        int payer = slotOf(paidBy);
+        int[] debtorSlots = debtors.stream().mapToInt(this::slotOf).toArray();
+        long[] bits = new long[slots.size() / Long.SIZE + 1];
+        for (int slot : debtorSlots) bits[slot / Long.SIZE] |= 1L << slot;
+
+        Share old = expenses.put(id, new Share(payer, cents, bits));
+        if (old != null) totalCents -= old.cents();
+        totalCents += cents;
+    }
+
+    /**
+     * Removes an expense
+     *
+     * @param id id of the expense
+     */
+    public synchronized void removeExpense(long id) {
+        Share old = expenses.remove(id);
+        if (old != null) totalCents -= old.cents();
+    }
+
+    /**
+     * @return the sum of all expenses of the event in cents
+     */
+    public synchronized long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Takes a consistent copy of the current balance, in time linear in the number of expenses
+     *
+     * @return the participants and expenses of the event, participants in the order they were added
+     */
+    public synchronized BalanceSnapshot snapshot() {
+        int[] indexOf = new int[slots.size()];
+        List<String> names = new ArrayList<>(slotOf.size());
+        for (int slot = 0; slot < slots.size(); slot++) {
+            if (slots.get(slot) == null) continue;
+            indexOf[slot] = names.size();
+            names.add(slots.get(slot));
+        }
+        boolean compact = names.size() == slots.size();
+
+        int[] payers = new int[expenses.size()];
+        long[] cents = new long[expenses.size()];
+        long[][] debtors = new long[expenses.size()][];
+        int e = 0;
+        for (Share share : expenses.values()) {
+            payers[e] = indexOf[share.payer()];
+            cents[e] = share.cents();
+            debtors[e] = compact ? share.debtors().clone() : renumber(share.debtors(), indexOf, names.size());
+            e++;
+        }
+        return new BalanceSnapshot(names.toArray(new String[0]), payers, cents, debtors);
+    }
+
+    /**
+     * Converts a price as stored on an Expense to cents
+     *
+     * @param price price of an expense, may be null
+     * @return the price in cents
+     */
+    public static long toCents(Double price) {
+        return price == null ? 0L : Math.round(price * 100);
+    }
+
+    private int slotOf(String name) {
+        return slotOf.computeIfAbsent(name, n -> {
+            slots.add(n);
+            return slots.size() - 1;
+        });
+    }
+
+    /**
+     * Moves the bits of a bitset over slots to the indices of the participants in a snapshot
+     */
+    private static long[] renumber(long[] bits, int[] indexOf, int size) {
+        long[] renumbered = new long[size / Long.SIZE + 1];
+        for (int word = 0; word < bits.length; word++) {
+            for (long b = bits[word]; b != 0; b &= b - 1) {
+                int index = indexOf[word * Long.SIZE + Long.numberOfTrailingZeros(b)];
+                renumbered[index / Long.SIZE] |= 1L << index;
+            }
+        }
+        return renumbered;
+    }
+}
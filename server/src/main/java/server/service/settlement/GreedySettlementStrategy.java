@@ -0,0 +1,72 @@
+package server.service.settlement;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Settles the net balance of every participant instead of every single share.
+ * The largest debtor always pays the largest creditor, so every transfer clears at least
+ * one participant and an event with N participants needs at most N - 1 transfers.
+ */
+@Component
+public class GreedySettlementStrategy implements SettlementStrategy {
+    public static final String NAME = "greedy";
+
+    /**
+     * @return the name of this strategy
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Computes the net balance of every participant and matches debtors with creditors,
+     * largest amounts first.
+     *
+     * @param snapshot the expenses of the event and who shares them
+     * @return at most N - 1 transfers
+     */
+    @Override
+    public List<Transfer> settle(BalanceSnapshot snapshot) {
+        int size = snapshot.size();
+        List<Transfer> transfers = new ArrayList<>();
+        if (size < 2) return transfers;
+
+        long[] net = snapshot.netBalances();
+        int[] creditors = sortedIndices(net, true);
+        int[] debtors = sortedIndices(net, false);
+
+        int c = 0;
+        int d = 0;
+        while (c < creditors.length && d < debtors.length) {
+            int creditor = creditors[c];
+            int debtor = debtors[d];
+            long amount = Math.min(net[creditor], -net[debtor]);
+            transfers.add(new Transfer(debtor, creditor, amount));
+            net[creditor] -= amount;
+            net[debtor] += amount;
+            if (net[creditor] == 0) c++;
+            if (net[debtor] == 0) d++;
+        }
+        return transfers;
+    }
+
+    /**
+     * @param net      net balances
+     * @param positive whether to select the creditors or the debtors
+     * @return indices of the selected participants, largest absolute balance first
+     */
+    private int[] sortedIndices(long[] net, boolean positive) {
+        return IntStream.range(0, net.length)
+                .filter(i -> positive ? net[i] > 0 : net[i] < 0)
+                .boxed()
+                .sorted(Comparator.comparingLong(i -> positive ? -net[i] : net[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
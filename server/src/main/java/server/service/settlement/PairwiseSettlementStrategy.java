@@ -0,0 +1,45 @@
+package server.service.settlement;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets every participant pay back their share to every participant who paid for something.
+ * This produces up to N * (N - 1) transfers for an event with N participants.
+ */
+@Component
+public class PairwiseSettlementStrategy implements SettlementStrategy {
+    public static final String NAME = "pairwise";
+
+    /**
+     * @return the name of this strategy
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Lets every debtor owe every creditor their shares in the expenses that creditor paid.
+     *
+     * @param snapshot the expenses of the event and who shares them
+     * @return one transfer per debtor and creditor pair
+     */
+    @Override
+    public List<Transfer> settle(BalanceSnapshot snapshot) {
+        int size = snapshot.size();
+        List<Transfer> transfers = new ArrayList<>();
+        if (size < 2) return transfers;
+
+        long[][] owed = snapshot.owedCents();
+        for (int c = 0; c < size; c++) {
+            if (owed[c] == null) continue;
+            for (int d = 0; d < size; d++) {
+                if (owed[c][d] > 0) transfers.add(new Transfer(d, c, owed[c][d]));
+            }
+        }
+        return transfers;
+    }
+}
@@ -0,0 +1,24 @@
+package server.service.settlement;
+
+import java.util.List;
+
+/**
+ * Decides which transfers settle the balance of an event.
+ * Implementations are registered as beans and picked by name in the DebtService.
+ */
+public interface SettlementStrategy {
+
+    /**
+     * @return the name under which this strategy can be selected
+     */
+    String getName();
+
+    /**
+     * Computes the transfers that settle the given balance.
+     * Every expense is split equally among its own debtors in the snapshot, see BalanceSnapshot.
+     *
+     * @param snapshot what every participant of the event has paid
+     * @return the transfers that settle the event
+     */
+    List<Transfer> settle(BalanceSnapshot snapshot);
+}
@@ -0,0 +1,16 @@
+package server.service.settlement;
+
+/**
+ * A single payment that settles (part of) the balance of an event.
+ * Participants are referred to by their index in the BalanceSnapshot the transfer was computed from.
+ *
+ * @param debtor   index of the participant who has to pay
+ * @param creditor index of the participant who receives the money
+ * @param cents    amount to be paid, in cents
+ */
+public record Transfer(
+        int debtor,
+        int creditor,
+        long cents
+) {
+}
@@ -0,0 +1,78 @@
+-- The schema as Hibernate generated it (ddl-auto=update) before the migrations were introduced.
+-- Databases created that way are baselined at this version, see spring.flyway.baseline-version.
+
+create sequence entity_id_sequence start with 1 increment by 50;
+
+create table event (
+    creation_date timestamp(6),
+    last_activity timestamp(6),
+    code varchar(255) not null,
+    name varchar(255),
+    primary key (code)
+);
+
+create table participant (
+    bic varchar(255),
+    email varchar(255),
+    event_code varchar(255) not null,
+    iban varchar(255),
+    name varchar(255) not null,
+    primary key (event_code, name)
+);
+
+create table expense (
+    date date,
+    price float(53),
+    id bigint not null,
+    item varchar(255),
+    paid_by_event_code varchar(255) not null,
+    paid_by_name varchar(255) not null,
+    primary key (id, paid_by_event_code, paid_by_name)
+);
+
+create table expense_debtors (
+    expense_id bigint not null,
+    debtors_event_code varchar(255) not null,
+    debtors_name varchar(255) not null,
+    expense_paid_by_event_code varchar(255) not null,
+    expense_paid_by_name varchar(255) not null,
+    primary key (expense_id, debtors_event_code, debtors_name, expense_paid_by_event_code, expense_paid_by_name)
+);
+
+create table debt (
+    amount float(53) not null,
+    received boolean not null,
+    creditor_event_code varchar(255) not null,
+    creditor_name varchar(255) not null,
+    debtor_event_code varchar(255) not null,
+    debtor_name varchar(255) not null,
+    primary key (creditor_event_code, creditor_name, debtor_event_code, debtor_name)
+);
+
+create index event_name_idx on event (name, code);
+create index event_creation_date_idx on event (creation_date, code);
+create index event_last_activity_idx on event (last_activity, code);
+
+alter table debt
+    add constraint FK2mqsqj2fmhhhvqrb5ysj033c3
+    foreign key (debtor_event_code, debtor_name) references participant;
+
+alter table debt
+    add constraint FKjlqo5q2qxxu45t85uxsvgwmki
+    foreign key (creditor_event_code, creditor_name) references participant;
+
+alter table expense
+    add constraint FK5b7auw36kwjiy6opxogx5p8x8
+    foreign key (paid_by_event_code, paid_by_name) references participant;
+
+alter table expense_debtors
+    add constraint FKk6kxnh8ovevwu56xtxm4v8q73
+    foreign key (debtors_event_code, debtors_name) references participant;
+
+alter table expense_debtors
+    add constraint FKhtxu2tlqsisww1kjo8cp6ik75
+    foreign key (expense_id, expense_paid_by_event_code, expense_paid_by_name) references expense;
+
+alter table participant
+    add constraint FKf9wu10au2cclcfa52g8j17g3y
+    foreign key (event_code) references event;
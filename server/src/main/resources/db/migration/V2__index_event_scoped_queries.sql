@@ -0,0 +1,22 @@
+-- Every query on participants, expenses and debts filters on the code of their event.
+--
+-- H2 creates an index for every foreign key, so these lookups never scanned the tables, but they
+-- found the rows through the index of the foreign key to the participant and then read every
+-- row from the table. These indexes lead with the code of the event and hold all other columns,
+-- so listing the rows of an event is a range scan of one index.
+-- H2 keeps its own indexes for the foreign keys next to them, it only reuses an index for a
+-- foreign key when it has exactly the columns of the key.
+
+-- expenses by event and payer: findAllExpensesInEvent, findAllExpenseDTOsInEvent, findAllPaymentsInEvent
+create index expense_event_idx on expense (paid_by_event_code, paid_by_name, id, price, item, date);
+
+-- debts by the event of their debtor: findAllDebts, findAllDebtsInEvent, findAllDebtDTOs
+create index debt_debtor_event_idx
+    on debt (debtor_event_code, debtor_name, creditor_event_code, creditor_name, amount, received);
+
+-- participants by event are found through the primary key (event_code, name), which already leads
+-- with the code of the event
+
+-- the sort orders of the admin overview, EventService.getPage, keep the indexes of V1 on the sort
+-- property and the code: a page reads the rows it returns from the table, and an update of the
+-- last activity of an event only changes the index of that sort order
@@ -0,0 +1,21 @@
+-- Expenses used to be shared by all participants of their event without this being stored,
+-- from now on every expense has its debtors in expense_debtors.
+-- Expenses without debtors get all participants of their event, which is what they were split among.
+insert into expense_debtors (expense_id, expense_paid_by_event_code, expense_paid_by_name,
+                             debtors_event_code, debtors_name)
+select e.id, e.paid_by_event_code, e.paid_by_name, p.event_code, p.name
+from expense e
+join participant p on p.event_code = e.paid_by_event_code
+where not exists (
+    select 1 from expense_debtors d
+    where d.expense_id = e.id
+      and d.expense_paid_by_event_code = e.paid_by_event_code
+      and d.expense_paid_by_name = e.paid_by_name
+);
+
+-- the expenses shared by a participant: findAllExpenseDTOsInvolving, findAllExpensesInvolving.
+-- The primary key of expense_debtors leads with the expense, this index leads with the participant
+-- and holds the key of the expense, so the expenses of one debtor are a range scan of one index.
+create index expense_debtors_debtor_idx
+    on expense_debtors (debtors_event_code, debtors_name, expense_id, expense_paid_by_event_code,
+                        expense_paid_by_name);
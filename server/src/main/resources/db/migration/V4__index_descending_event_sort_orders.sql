@@ -0,0 +1,7 @@
+-- H2 only reads an index in its own order, so the descending sort orders of the admin overview,
+-- EventService.getPage, sorted every Event before returning a page. These indexes hold the same
+-- keys in descending order, so a descending page is a range scan that stops after the page as well.
+create index event_code_desc_idx on event (code desc);
+create index event_name_desc_idx on event (name desc, code desc);
+create index event_creation_date_desc_idx on event (creation_date desc, code desc);
+create index event_last_activity_desc_idx on event (last_activity desc, code desc);
@@ -2,6 +2,7 @@
 package server.api;
 
 import commons.dto.DebtDTO;
+import commons.dto.DebtUpdateStatsDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import server.database.DebtRepository;
 import server.entities.DTOMapper;
@@ -20,13 +22,21 @@ import server.entities.event.Event;
 import server.entities.participant.Participant;
 import server.service.DebtService;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.exceptions.UnknownSettlementStrategyException;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
@@ -116,4 +126,59 @@ public class DebtControllerTest {
                                 "    }"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    public void generateDebtsTest() throws Exception{
+        String eventCode = "1234";
+        when(debtService.generateDebtsFromExpenses(eventCode, "greedy")).thenReturn(new ArrayList<>());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/{eventCode}/debt", eventCode)
+                        .param("strategy", "greedy"))
+                .andExpect(status().isCreated());
+
+        when(debtService.generateDebtsFromExpenses(eventCode, "unknown"))
+                .thenThrow(UnknownSettlementStrategyException.class);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/{eventCode}/debt", eventCode)
+                        .param("strategy", "unknown"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void debtUpdatesTest() throws Exception{
+        Event event = new Event();
+        event.setCode("1234");
+        Participant participant = new Participant("A", event, "123", "134", "123");
+        Debt debt = new Debt(participant, participant, 123);
+        DebtDTO debtDTO = new DebtDTO("A", "A", 123, true);
+        when(debtService.updateOne(anyString(), any(DebtDTO.class))).thenReturn(debt);
+        when(debtService.getAllDebtDTOs("1234")).thenReturn(List.of(debtDTO));
+        when(debtDTOMapper.toDTO(debt)).thenReturn(debtDTO);
+
+        MvcResult first = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/debt/updates", "1234"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult second = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/debt/updates", "1234"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/debt/updates", "5678"))
+                .andExpect(request().asyncStarted());
+        assertEquals(new DebtUpdateStatsDTO(3, 2, 0, 0), debtController.getUpdateStats());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/{eventCode}/debt", "1234")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"debtorName\": \"A\", \"creditorName\": \"A\", "
+                                + "\"amount\": 123.0, \"received\": true}"))
+                .andExpect(status().isOk());
+
+        for (MvcResult result : List.of(first, second)) {
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(content().json("[{\"debtorName\":\"A\",\"creditorName\":\"A\","
+                            + "\"amount\":123.0,\"received\":true}]"));
+        }
+        verify(debtService, times(1)).getAllDebtDTOs("1234");
+        verify(debtService, never()).getAllDebtDTOs("5678");
+        assertEquals(new DebtUpdateStatsDTO(1, 1, 2, 0), debtController.getUpdateStats());
+    }
 }
@@ -0,0 +1,87 @@
+package server.api;
+
+import commons.dto.EventDeltaDTO;
+import commons.dto.EventDeltasDTO;
+import commons.dto.ParticipantDTO;
+import commons.dto.WSAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import server.service.EventDeltaLog;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class DeltaControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private EventDeltaLog eventDeltaLog;
+
+    @InjectMocks
+    private DeltaController deltaController;
+
+    /**
+     * Builds a MockMvc around the controller
+     */
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(deltaController).build();
+    }
+
+    /**
+     * Without a position the current epoch and sequence are returned, without deltas
+     */
+    @Test
+    public void getPositionTest() throws Exception {
+        when(eventDeltaLog.getPosition("ABC")).thenReturn(new EventDeltasDTO("ABC", 42, 7, List.of()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/delta", "ABC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventCode").value("ABC"))
+                .andExpect(jsonPath("$.epoch").value(42))
+                .andExpect(jsonPath("$.sequence").value(7));
+        verify(eventDeltaLog, never()).getDeltas(anyString(), anyLong(), anyLong());
+    }
+
+    /**
+     * The deltas after a known position are returned
+     */
+    @Test
+    public void getDeltasTest() throws Exception {
+        ParticipantDTO participant = new ParticipantDTO("Alice", "alice@example.com", "", "");
+        when(eventDeltaLog.getDeltas("ABC", 42, 6)).thenReturn(new EventDeltasDTO("ABC", 42, 7,
+                List.of(EventDeltaDTO.ofParticipant(7, WSAction.CREATED, participant))));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/delta", "ABC")
+                        .param("epoch", "42")
+                        .param("since", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deltas[0].sequence").value(7))
+                .andExpect(jsonPath("$.deltas[0].participant.name").value("Alice"));
+    }
+
+    /**
+     * A position that is not in the log anymore is answered with 410 Gone
+     */
+    @Test
+    public void getDeltasGoneTest() throws Exception {
+        when(eventDeltaLog.getDeltas("ABC", 41, 6)).thenReturn(null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/delta", "ABC")
+                        .param("epoch", "41")
+                        .param("since", "6"))
+                .andExpect(status().isGone());
+    }
+}
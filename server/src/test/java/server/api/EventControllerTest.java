@@ -3,6 +3,7 @@ package server.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import commons.dto.EventDTO;
+import commons.dto.EventPageDTO;
 import commons.dto.ParticipantDTO;
 import commons.dto.WSAction;
 import commons.dto.WSWrapperResponseBody;
@@ -14,10 +15,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import server.database.EventRepository;
@@ -25,6 +27,8 @@ import server.entities.DTOMapper;
 import server.entities.event.Event;
 import server.entities.event.EventDTOMapper;
 import server.entities.participant.Participant;
+import server.service.Broadcaster;
+import server.service.EventDeltaLog;
 import server.service.EventService;
 import server.service.ParticipantService;
 import server.service.exceptions.NotFoundInDatabaseException;
@@ -33,12 +37,14 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 
@@ -52,7 +58,7 @@ public class EventControllerTest {
     private EventRepository eventRepository;
 
     @Mock
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private Broadcaster broadcaster;
 
     @Mock
     private EventService eventService;
@@ -66,6 +72,9 @@ public class EventControllerTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Mock
+    private EventDeltaLog eventDeltaLog;
+
     @InjectMocks
     private EventController eventController;
 
@@ -113,23 +122,24 @@ public class EventControllerTest {
         EventDTO eventDTO = new EventDTO(name, code, LocalDateTime.now(), LocalDateTime.now());
 
         when(eventService.createOne("Name")).thenReturn(event);
+        when(eventDTOMapper.toDTO(event)).thenReturn(eventDTO);
 
         mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/")
                         .param("name", name))
                 .andExpect(status().isCreated());
 
         ArgumentCaptor<String> destinationCaptor = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<WSWrapperResponseBody<Event>> payloadCaptor = ArgumentCaptor
+        ArgumentCaptor<WSWrapperResponseBody<EventDTO>> payloadCaptor = ArgumentCaptor
                 .forClass(WSWrapperResponseBody.class);
-        verify(simpMessagingTemplate).convertAndSend(destinationCaptor.capture(), payloadCaptor.capture());
+        verify(broadcaster).send(destinationCaptor.capture(), payloadCaptor.capture());
 
         String actualDestination = destinationCaptor.getValue();
-        WSWrapperResponseBody<Event> actualPayload = payloadCaptor.getValue();
+        WSWrapperResponseBody<EventDTO> actualPayload = payloadCaptor.getValue();
 
         // Assert that the destination and payload are correct
         assertEquals("/api/websocket/v1/channel/event", actualDestination);
         assertEquals(WSAction.CREATED, actualPayload.action());
-        assertEquals(event, actualPayload.object());
+        assertEquals(eventDTO, actualPayload.object());
     }
 
     @Test
@@ -203,7 +213,8 @@ public class EventControllerTest {
             ParticipantDTO participantDTO = new ParticipantDTO(name, email, iban, bic);
 
 
-            when(participantController.deleteOne(eq(participant.getName()), eq(eventCode))).thenReturn(ResponseEntity.ok(participantDTO));
+            when(participantController.deleteOne(eq(participant.getName()), eq(eventCode)))
+                    .thenReturn(ResponseEntity.ok(participantDTO));
         }
 
 
@@ -242,10 +253,73 @@ public class EventControllerTest {
 
 
         verify(eventService).deleteOne(eq(eventCode));
+        // one message, serialized once, for the listeners on this event and on all events
+        verify(broadcaster).send(
+                List.of("/api/websocket/v1/channel/" + eventCode, "/api/websocket/v1/channel/event"),
+                new WSWrapperResponseBody<>(WSAction.DELETED, eventDTO));
 
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(eventDTO, response.getBody());
     }
 
+
+    @Test
+    public void testGetOne() throws Exception {
+        Event event = new Event("name", "1234", LocalDateTime.of(2024, 3, 1, 12, 30));
+        when(eventService.getOne("1234")).thenReturn(event);
+        when(eventDTOMapper.toDTO(event)).thenReturn(new EventDTO("name", "1234", null, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}", "1234"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"name\":\"name\",\"code\":\"1234\"}"));
+
+        when(eventService.getOne("5678")).thenThrow(NotFoundInDatabaseException.class);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}", "5678"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetPage() throws Exception {
+        Event event = new Event("name", "1234", LocalDateTime.of(2024, 3, 1, 12, 30));
+        Window<Event> page = Window.from(List.of(event), i -> ScrollPosition.keyset(), true);
+        when(eventService.getPage("name", true, 1, "cursor")).thenReturn(page);
+        when(eventService.nextCursor(page, "name")).thenReturn("next");
+        when(eventDTOMapper.toDTO(event)).thenReturn(new EventDTO("name", "1234", null, null));
+
+        String response = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/")
+                        .param("size", "1")
+                        .param("sort", "name")
+                        .param("direction", "desc")
+                        .param("after", "cursor"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(new EventPageDTO(List.of(new EventDTO("name", "1234", null, null)), "next"),
+                objectMapper.readValue(response, EventPageDTO.class));
+
+        when(eventService.getPage("email", false, 10, null)).thenThrow(IllegalArgumentException.class);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/").param("size", "10").param("sort", "email"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/").param("size", "1000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/").param("size", "10").param("direction", "up"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetMany() throws Exception {
+        Event event = new Event("name", "1234", LocalDateTime.of(2024, 3, 1, 12, 30));
+        when(eventService.getMany(Set.of("1234", "5678"))).thenReturn(List.of(event));
+        when(eventDTOMapper.toDTO(event)).thenReturn(new EventDTO("name", "1234", null, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/")
+                        .param("codes", "1234", "5678"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"name\":\"name\",\"code\":\"1234\"}]"));
+
+        String[] tooMany = new String[101];
+        for (int i = 0; i < tooMany.length; i++) tooMany[i] = "code" + i;
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/").param("codes", tooMany))
+                .andExpect(status().isBadRequest());
+    }
 }
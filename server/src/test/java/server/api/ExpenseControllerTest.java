@@ -2,6 +2,8 @@
 package server.api;
 
 import commons.dto.ExpenseDTO;
+import commons.dto.WSAction;
+import commons.dto.WSWrapperResponseBody;
 import server.entities.DTOMapper;
 import server.entities.event.Event;
 import server.entities.participant.*;
@@ -17,11 +19,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import server.database.ExpenseRepository;
+import server.service.Broadcaster;
+import server.service.EventDeltaLog;
 import server.service.ExpenseService;
 import server.service.exceptions.NotFoundInDatabaseException;
 
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -29,7 +32,11 @@ import java.util.LinkedList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 @ExtendWith(MockitoExtension.class)
@@ -41,7 +48,7 @@ public class ExpenseControllerTest {
     private ExpenseRepository expenseRepository;
 
     @Mock
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private Broadcaster broadcaster;
 
     @Mock
     private DTOMapper<Expense, ExpenseDTO> expenseDTOMapper;
@@ -50,6 +57,9 @@ public class ExpenseControllerTest {
     @Mock
     private ExpenseService expenseService;
 
+    @Mock
+    private EventDeltaLog eventDeltaLog;
+
     @InjectMocks
     private ExpenseController expenseController;
     @BeforeEach
@@ -73,18 +83,16 @@ public class ExpenseControllerTest {
         Expense expense = new Expense(price, item, participant, LocalDate.now());
         long id = 1;
         expense.setId(id);
-        List<Expense> ev = new LinkedList<>();
-        ev.add(expense);
 
         // Mocking successful update
-        when(expenseService.getAllInEvent(eventCode)).thenReturn(ev);
-        List<ExpenseDTO> expenseDTOs = ev.stream()
-                .map(expenseDTOMapper::toDTO)
-                .toList();
+        List<ExpenseDTO> expenseDTOs = List.of(
+                new ExpenseDTO(id, price, item, newName, expense.getDate()));
+        when(expenseService.getAllDTOsInEvent(eventCode)).thenReturn(expenseDTOs);
         // Perform Get request and validate response
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/expense", eventCode)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].paidByName").value(newName));
 
         when(expenseService.getOne(eventCode, newName, id)).thenReturn(expense);
 //        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/expense", eventCode)
@@ -102,6 +110,22 @@ public class ExpenseControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void testGetInvolving() throws Exception {
+        String eventCode = "1234";
+        List<ExpenseDTO> expenseDTOs = List.of(
+                new ExpenseDTO(1L, 30.0, "food", "A", LocalDate.of(2024, 1, 1), List.of("A", "B")));
+        when(expenseService.getAllDTOsInvolving(eventCode, "B")).thenReturn(expenseDTOs);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/expense", eventCode)
+                        .param("involving", "B")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item").value("food"))
+                .andExpect(jsonPath("$[0].debtorNames[1]").value("B"));
+        verify(expenseService, never()).getAllDTOsInEvent(eventCode);
+    }
+
     @Test
     public void createExpenseTest() throws Exception {
         String name = "A";
@@ -145,6 +169,38 @@ public class ExpenseControllerTest {
                                 "    }"))
                 .andExpect(status().isNotFound());
     }
+    @Test
+    public void createManyExpensesTest() throws Exception {
+        String eventCode = "1234";
+        Participant participant = new Participant("A", new Event("Event", eventCode, LocalDateTime.now()),
+                "123", "134", "123");
+        Expense food = new Expense(12.5, "food", participant, LocalDate.of(2024, 1, 1));
+        Expense drinks = new Expense(7.5, "drinks", participant, LocalDate.of(2024, 1, 2));
+        ExpenseDTO foodDTO = new ExpenseDTO(1L, 12.5, "food", "A", LocalDate.of(2024, 1, 1));
+        ExpenseDTO drinksDTO = new ExpenseDTO(2L, 7.5, "drinks", "A", LocalDate.of(2024, 1, 2));
+        when(expenseService.createMany(eq(eventCode), anyList())).thenReturn(List.of(food, drinks));
+        when(expenseDTOMapper.toDTO(food)).thenReturn(foodDTO);
+        when(expenseDTOMapper.toDTO(drinks)).thenReturn(drinksDTO);
+
+        String body = "[{\"price\": 12.5, \"item\": \"food\", \"paidByName\": \"A\", \"date\": \"2024-01-01\"},"
+                + " {\"price\": 7.5, \"item\": \"drinks\", \"paidByName\": \"A\", \"date\": \"2024-01-02\"}]";
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/{eventCode}/expense/batch", eventCode)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated());
+
+        // one message for the whole batch
+        verify(broadcaster).send("/api/websocket/v1/channel/" + eventCode + "/expense",
+                new WSWrapperResponseBody<>(WSAction.CREATED, List.of(foodDTO, drinksDTO)));
+
+        when(expenseService.createMany(eq(eventCode), anyList())).thenThrow(NotFoundInDatabaseException.class);
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/{eventCode}/expense/batch", eventCode)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isNotFound());
+        verifyNoMoreInteractions(broadcaster);
+    }
+
     @Test
     public void deleteExpenseTest() throws Exception {
         String name = "A";
@@ -1,32 +1,55 @@
 // CHECKSTYLE:OFF
 package server.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import commons.dto.EventDTO;
 import commons.dto.ExpenseDTO;
 import commons.dto.JSONDumpEventDTO;
 import commons.dto.ParticipantDTO;
+import commons.dto.RestoreProgressDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import server.entities.DTOMapper;
 import server.entities.event.Event;
 import server.entities.expense.Expense;
 import server.entities.participant.Participant;
+import server.service.DumpFormats;
+import server.service.EventDeltaLog;
 import server.service.JSONDumpService;
+import server.service.exceptions.ImproperDumpFormatException;
+import server.service.exceptions.NotFoundInDatabaseException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
 @ExtendWith(MockitoExtension.class)
@@ -42,6 +65,12 @@ public class JSONDumpControllerTest {
     @Mock
     private JSONDumpService jsonDumpService;
 
+    @Spy
+    private DumpFormats dumpFormats = new DumpFormats(new ObjectMapper());
+
+    @Mock
+    private EventDeltaLog eventDeltaLog;
+
     @InjectMocks
     private JSONDumpController jsonDumpController;
     @BeforeEach
@@ -77,4 +106,120 @@ public class JSONDumpControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void getEventTest() throws Exception{
+        JSONDumpEventDTO dump = new JSONDumpEventDTO(new EventDTO("A", "1234", null, null),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        when(jsonDumpService.createDumpForEvent("1234")).thenReturn(dump);
+        when(jsonDumpService.createDumpForEvent("4321")).thenThrow(NotFoundInDatabaseException.class);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/jsondump/event/1234"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.eventDTO.code").value("1234"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/jsondump/event/4321"))
+                .andExpect(status().isNotFound());
+        verify(jsonDumpService, never()).createDump();
+    }
+
+    @Test
+    public void streamTest() throws Exception{
+        ObjectMapper json = dumpFormats.getMapper(MediaType.APPLICATION_JSON);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("[]".getBytes());
+            return null;
+        }).when(jsonDumpService).writeDump(any(OutputStream.class), eq(json));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/jsondump/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    public void streamSmileTest() throws Exception{
+        ObjectMapper smile = dumpFormats.getMapper(DumpFormats.SMILE);
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/jsondump/stream")
+                        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/x-jackson-smile"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(DumpFormats.SMILE));
+        verify(jsonDumpService).writeDump(any(OutputStream.class), eq(smile));
+    }
+
+    @Test
+    public void streamNotAcceptableTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/jsondump/stream")
+                        .header(HttpHeaders.ACCEPT, "text/csv"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    public void restoreTest() throws Exception{
+        ObjectMapper json = dumpFormats.getMapper(MediaType.APPLICATION_JSON);
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/admin/jsondump/server")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isOk());
+        verify(jsonDumpService).restoreFromDump(any(InputStream.class), eq(json));
+
+        doThrow(ImproperDumpFormatException.class).when(jsonDumpService).restoreFromDump(any(InputStream.class), any());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/admin/jsondump/server")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void restoreCompressedCBORTest() throws Exception{
+        ObjectMapper cbor = dumpFormats.getMapper(DumpFormats.CBOR);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            cbor.writeValue(gzip, List.of());
+        }
+        doAnswer(invocation -> {
+            InputStream inputStream = invocation.getArgument(0);
+            ObjectMapper mapper = invocation.getArgument(1);
+            mapper.readTree(inputStream);
+            return null;
+        }).when(jsonDumpService).restoreFromDump(any(InputStream.class), eq(cbor));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/admin/jsondump/server")
+                        .contentType(DumpFormats.CBOR)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(compressed.toByteArray()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void restoreUnsupportedFormatTest() throws Exception{
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/admin/jsondump/server")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<events/>"))
+                .andExpect(status().isUnsupportedMediaType());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/admin/jsondump/server")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+        verify(jsonDumpService, never()).restoreFromDump(any(InputStream.class), any());
+    }
+
+    @Test
+    public void progressTest() throws Exception{
+        when(jsonDumpService.getRestoreProgress()).thenReturn(new RestoreProgressDTO(true, 1, 2, 3, 4));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/jsondump/progress"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"running\":true,\"events\":1,\"participants\":2,"
+                        + "\"expenses\":3,\"debts\":4}"));
+    }
 }
@@ -1,31 +1,41 @@
 package server.api;
 
+import commons.dto.ExpenseDTO;
 import commons.dto.ParticipantDTO;
+import commons.dto.WSAction;
+import commons.dto.WSWrapperResponseBody;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import server.entities.DTOMapper;
 import server.entities.event.Event;
+import server.entities.expense.Expense;
+import server.entities.expense.ExpenseDTOMapper;
 import server.entities.participant.Participant;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import server.service.Broadcaster;
+import server.service.EventDeltaLog;
 import server.service.ParticipantService;
+import server.service.exceptions.NameTakenException;
 import server.service.exceptions.NotFoundInDatabaseException;
 
 
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 @ExtendWith(MockitoExtension.class)
 public class ParticipantControllerTest {
@@ -36,7 +46,7 @@ public class ParticipantControllerTest {
     private ParticipantService participantService;
 
     @Mock
-    private SimpMessagingTemplate simpMessagingTemplate;
+    private Broadcaster broadcaster;
 
     @Mock
     private DTOMapper<Participant, ParticipantDTO> participantDTOMapper;
@@ -47,32 +57,48 @@ public class ParticipantControllerTest {
     @Mock
     private DebtController debtController;
 
-    @InjectMocks
+    @Mock
+    private EventDeltaLog eventDeltaLog;
+
+    @Mock
+    private ExpenseDTOMapper expenseDTOMapper;
+
     private ParticipantController participantController;
 
+    /**
+     * Sets up MockMvc around the controller under test
+     */
     @BeforeEach
     public void setup() {
+        // both mappers are DTOMappers, so they are passed by position instead of injected by type
+        participantController = new ParticipantController(participantService, broadcaster, participantDTOMapper,
+                expenseController, debtController, null, null, eventDeltaLog, expenseDTOMapper);
         mockMvc = MockMvcBuilders.standaloneSetup(participantController).build();
     }
 
+    /**
+     * Lists the participants of an event
+     */
     @Test
     public void testGetAllParticipantsSuccess() throws Exception {
         String eventCode = "1234";
-        Event event = new Event("Event Name", eventCode, LocalDateTime.now());
-        Participant participant = new Participant("Participant Name", event,
+        ParticipantDTO participant = new ParticipantDTO("Participant Name",
                 "participant@example.com", "1234", "5678");
-        List<Participant> participants = Collections.singletonList(participant);
-        when(participantService.getAll(eventCode)).thenReturn(participants);
+        when(participantService.getAllDTOs(eventCode)).thenReturn(List.of(participant));
 
         // Perform GET request and validate response
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/{eventCode}/participant", eventCode)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Participant Name"));
 
         // Verify interactions
-        verify(participantService).getAll(eventCode);
+        verify(participantService).getAllDTOs(eventCode);
     }
 
+    /**
+     * Creates a single participant
+     */
     @Test
     public void testCreateParticipantSuccess() throws Exception {
         // Prepare test data
@@ -98,6 +124,63 @@ public class ParticipantControllerTest {
         verify(participantService).createOne(eventCode, participantDTO);
     }
 
+    /**
+     * Creates a batch of participants and announces them in a single message
+     */
+    @Test
+    public void testCreateManyParticipants() throws Exception {
+        String eventCode = "1234";
+        Event event = new Event("Event Name", eventCode, LocalDateTime.now());
+        Participant first = new Participant("A", event, "a@example.com", "", "");
+        Participant second = new Participant("B", event, "b@example.com", "", "");
+        ParticipantDTO firstDTO = new ParticipantDTO("A", "a@example.com", "", "");
+        ParticipantDTO secondDTO = new ParticipantDTO("B", "b@example.com", "", "");
+        when(participantService.createMany(eventCode, List.of(firstDTO, secondDTO)))
+                .thenReturn(List.of(first, second));
+        when(participantDTOMapper.toDTO(first)).thenReturn(firstDTO);
+        when(participantDTOMapper.toDTO(second)).thenReturn(secondDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/{eventCode}/participant/batch", eventCode)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"A\", \"email\": \"a@example.com\", \"iban\": \"\", \"bic\": \"\"},"
+                                + " {\"name\": \"B\", \"email\": \"b@example.com\", \"iban\": \"\", \"bic\": \"\"}]"))
+                .andExpect(status().isCreated());
+
+        // one message for the whole batch
+        verify(broadcaster).send("/api/websocket/v1/channel/" + eventCode + "/participant",
+                new WSWrapperResponseBody<>(WSAction.CREATED, List.of(firstDTO, secondDTO)));
+        verify(eventDeltaLog).publishParticipants(eventCode, WSAction.CREATED, List.of(firstDTO, secondDTO));
+
+        when(participantService.createMany(eq("missing"), anyList()))
+                .thenThrow(new NotFoundInDatabaseException("Event not found"));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/{eventCode}/participant/batch", "missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Rejects a batch with taken names and answers with the rejected participants
+     */
+    @Test
+    public void testCreateManyParticipantsNameTaken() throws Exception {
+        String eventCode = "1234";
+        ParticipantDTO taken = new ParticipantDTO("A", "a@example.com", "", "");
+        when(participantService.createMany(eq(eventCode), anyList()))
+                .thenThrow(new NameTakenException("Name taken", List.of(taken)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/{eventCode}/participant/batch", eventCode)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"name\": \"A\", \"email\": \"a@example.com\", \"iban\": \"\", \"bic\": \"\"}]"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$[0].name").value("A"));
+
+        verifyNoInteractions(broadcaster, eventDeltaLog);
+    }
+
+    /**
+     * Answers NOT_FOUND when deleting a participant that does not exist
+     */
     @Test
     public void testDeleteParticipantSuccess() throws Exception {
         String eventCode = "1234";
@@ -116,6 +199,39 @@ public class ParticipantControllerTest {
         verify(participantService).deleteOne(eventCode, participantName);
     }
 
+    /**
+     * Deletes a participant and announces the expenses they shared with their remaining debtors
+     */
+    @Test
+    public void testDeleteParticipantModifiesSharedExpenses() throws Exception {
+        String eventCode = "1234";
+        Event event = new Event("Event Name", eventCode, LocalDateTime.now());
+        // B paid for nothing
+        Participant participant = mock(Participant.class);
+        when(participant.getPaidForExpenses()).thenReturn(List.of());
+        when(participant.getEvent()).thenReturn(event);
+        ParticipantDTO participantDTO = new ParticipantDTO("B", "b@example.com", "", "");
+        Expense shared = new Expense(10.0, "food", new Participant("A", event, "", "", ""), LocalDate.now());
+        ExpenseDTO sharedDTO = new ExpenseDTO(1L, 10.0, "food", "A", LocalDate.now(), List.of("A"));
+        when(participantService.getOne(eventCode, "B")).thenReturn(participant);
+        when(participantDTOMapper.toDTO(participant)).thenReturn(participantDTO);
+        when(participantService.deleteOne(eventCode, "B")).thenReturn(List.of(shared));
+        when(expenseDTOMapper.toDTO(shared)).thenReturn(sharedDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/{eventCode}/participant", eventCode)
+                        .param("name", "B"))
+                .andExpect(status().isOk());
+
+        InOrder inOrder = inOrder(eventDeltaLog);
+        inOrder.verify(eventDeltaLog).publishExpenses(eventCode, WSAction.MODIFIED, List.of(sharedDTO));
+        inOrder.verify(eventDeltaLog).publishParticipants(eventCode, WSAction.DELETED, List.of(participantDTO));
+        verify(broadcaster).send("/api/websocket/v1/channel/" + eventCode + "/expense",
+                new WSWrapperResponseBody<>(WSAction.MODIFIED, List.of(sharedDTO)));
+    }
+
+    /**
+     * Updates the details of a participant
+     */
     @Test
     public void testUpdateParticipantSuccess() throws Exception {
         String eventCode = "1234";
@@ -0,0 +1,92 @@
+// CHECKSTYLE:OFF
+package server.api;
+
+import commons.dto.BroadcastStatsDTO;
+import commons.dto.CacheRegionStatsDTO;
+import commons.dto.DebtUpdateStatsDTO;
+import commons.dto.EventCodeStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import server.service.Broadcaster;
+import server.service.CacheStatistics;
+import server.service.EventCodeGenerator;
+
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.standaloneSetup;
+
+@ExtendWith(MockitoExtension.class)
+public class StatsControllerTest {
+    private MockMvc mockMvc;
+
+    @Mock
+    private DebtController debtController;
+
+    @Mock
+    private CacheStatistics cacheStatistics;
+
+    @Mock
+    private EventCodeGenerator eventCodeGenerator;
+
+    @Mock
+    private Broadcaster broadcaster;
+
+    @InjectMocks
+    private StatsController statsController;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = standaloneSetup(statsController).build();
+    }
+
+    @Test
+    public void debtUpdateStatsTest() throws Exception{
+        when(debtController.getUpdateStats()).thenReturn(new DebtUpdateStatsDTO(3, 2, 10, 1));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/stats/debt-updates"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"waitingRequests\":3,\"waitingEvents\":2,"
+                        + "\"notifiedRequests\":10,\"timedOutRequests\":1}"));
+    }
+
+    @Test
+    public void cacheStatsTest() throws Exception{
+        when(cacheStatistics.getRegionStats()).thenReturn(List.of(
+                new CacheRegionStatsDTO("event", 40, 2, 2, 0)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/stats/cache"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"region\":\"event\",\"hits\":40,"
+                        + "\"misses\":2,\"puts\":2,\"evictions\":0}]"));
+    }
+
+    @Test
+    public void eventCodeStatsTest() throws Exception{
+        when(eventCodeGenerator.getStats()).thenReturn(new EventCodeStatsDTO(200, 3, 1, 42));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/stats/event-codes"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"generatedCodes\":200,\"filterHits\":3,"
+                        + "\"collisions\":1,\"knownCodes\":42}"));
+    }
+
+    @Test
+    public void broadcastStatsTest() throws Exception{
+        when(broadcaster.getStats()).thenReturn(List.of(
+                new BroadcastStatsDTO("/api/websocket/v1/channel/{eventCode}/expense", 5, 600, 12000)));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/admin/stats/broadcasts"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"destination\":\"/api/websocket/v1/channel/{eventCode}/expense\","
+                        + "\"messages\":5,\"bytes\":600,\"sendNanos\":12000}]"));
+    }
+}
@@ -182,6 +182,7 @@ class EventTest {
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     void settleDebts() {
         // Create expenses
         Expense expense1 = new Expense(100.0, "Item 1", participant1, LocalDate.now());
@@ -0,0 +1,146 @@
+package server.database;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import server.entities.event.Event;
+import server.service.EventService;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pages through the Events of the admin overview on the database,
+ * the bound on the sort property must not skip or repeat Events that share a value,
+ * and every page must be read from an index in the sort order.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "server.database.EventPagingTest$RecordingInspector")
+public class EventPagingTest {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 30);
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EventService eventService;
+
+    @BeforeEach
+    void setup() {
+        eventService = new EventService(eventRepository, null, null, null, null, null);
+        eventRepository.saveAll(List.of(
+                event("Trip", "E", 0),
+                event("Dinner", "C", 1),
+                event("Trip", "A", 1),
+                event("Dinner", "D", 2),
+                event("Party", "B", 2)));
+    }
+
+    @Test
+    void pagesByNameAscending() {
+        assertEquals(List.of("C", "D", "B", "A", "E"), pageThrough("name", false));
+    }
+
+    @Test
+    void pagesByLastActivityDescending() {
+        assertEquals(List.of("D", "B", "C", "A", "E"), pageThrough("lastActivity", true));
+    }
+
+    @Test
+    void pagesWithoutValuesLast() {
+        Event noActivity = event("No activity", "F", 0);
+        noActivity.setLastActivity(null);
+        Event alsoNoActivity = event("Also no activity", "G", 0);
+        alsoNoActivity.setLastActivity(null);
+        eventRepository.saveAll(List.of(noActivity, alsoNoActivity, event("Line\nbreak", "H", 3)));
+
+        assertEquals(List.of("E", "A", "C", "B", "D", "H", "F", "G"), pageThrough("lastActivity", false));
+        assertEquals(List.of("H", "D", "B", "C", "A", "E", "G", "F"), pageThrough("lastActivity", true));
+        assertEquals(List.of("G", "C", "D", "H", "F", "B", "A", "E"), pageThrough("name", false));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"code, false", "code, true", "name, false", "name, true", "creationDate, false",
+        "creationDate, true", "lastActivity, false", "lastActivity, true"})
+    void pagesAreRangesOfAnIndex(String sortBy, boolean descending) {
+        Event noActivity = event("No activity", "F", 0);
+        noActivity.setLastActivity(null);
+        Event noName = event(null, "G", 1);
+        noName.setCreationDate(null);
+        eventRepository.saveAll(List.of(noActivity, noName));
+        RecordingInspector.STATEMENTS.clear();
+
+        assertEquals(7, pageThrough(sortBy, descending).size());
+
+        List<String> pages = RecordingInspector.STATEMENTS.stream()
+                .filter(sql -> sql.contains(" order by "))
+                .toList();
+        assertFalse(pages.isEmpty());
+        for (String page : pages) {
+            String plan = explain(page);
+            assertTrue(plan.contains("/* index sorted */"), plan);
+            assertFalse(plan.contains("tableScan"), plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet plan = statement.executeQuery()) {
+                plan.next();
+                return plan.getString(1);
+            }
+        });
+    }
+
+    private List<String> pageThrough(String sortBy, boolean descending) {
+        List<String> codes = new ArrayList<>();
+        String after = null;
+        do {
+            Window<Event> page = eventService.getPage(sortBy, descending, 2, after);
+            page.forEach(event -> codes.add(event.getCode()));
+            after = eventService.nextCursor(page, sortBy);
+        } while (after != null);
+        return codes;
+    }
+
+    private static Event event(String name, String code, int days) {
+        Event event = new Event(name, code, DATE);
+        event.setLastActivity(DATE.plusDays(days));
+        return event;
+    }
+
+    /**
+     * Records the SQL of every statement, to explain the queries of the pages
+     */
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        /**
+         * @param sql the statement about to be prepared
+         * @return the statement, unchanged
+         */
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package server.database;
+
+import commons.dto.DebtDTO;
+import commons.dto.ExpenseDTO;
+import commons.dto.ParticipantDTO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import server.entities.debt.Debt;
+import server.entities.debt.DebtDTOMapper;
+import server.entities.event.Event;
+import server.entities.expense.Expense;
+import server.entities.expense.ExpenseDTOMapper;
+import server.entities.participant.Participant;
+import server.entities.participant.ParticipantDTOMapper;
+import server.service.ActivityTracker;
+import server.service.ParticipantService;
+import server.service.exceptions.NameTakenException;
+import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements of listing the participants, expenses and debts of an event
+ * and of creating participants, which have to stay the same no matter how many rows the event has.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class RepositoryQueryCountTest {
+    private static final String CODE = "CODE1234";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private DebtRepository debtRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ParticipantDTOMapper participantDTOMapper = new ParticipantDTOMapper(null, null);
+    private final ExpenseDTOMapper expenseDTOMapper = new ExpenseDTOMapper(null, null);
+    private final DebtDTOMapper debtDTOMapper = new DebtDTOMapper(null, null);
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void listingParticipantsTakesOneQuery(int rows) {
+        createEvent(rows);
+
+        List<ParticipantDTO> participants = countQueries(1, () ->
+                participantRepository.findAllParticipantsInEvent(CODE).stream()
+                        .map(participantDTOMapper::toDTO)
+                        .toList());
+
+        assertEquals(rows, participants.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void listingExpensesTakesTwoQueries(int rows) {
+        createEvent(rows);
+
+        // the expenses with their payers and debtors, and the event of the participants
+        List<ExpenseDTO> expenses = countQueries(2, () ->
+                expenseRepository.findAllExpensesInEvent(CODE).stream()
+                        .map(expenseDTOMapper::toDTO)
+                        .toList());
+
+        assertEquals(rows, expenses.size());
+        assertTrue(expenses.stream().allMatch(expense -> expense.debtorNames().size() == rows));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void listingDebtsTakesTwoQueries(int rows) {
+        createEvent(rows);
+
+        // the debts with their debtors and creditors, and the event of the participants
+        List<DebtDTO> debts = countQueries(2, () ->
+                debtRepository.findAllDebts(CODE).stream()
+                        .map(debtDTOMapper::toDTO)
+                        .toList());
+
+        assertEquals(rows - 1, debts.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void projectingParticipantsTakesOneQuery(int rows) {
+        createEvent(rows);
+
+        Collection<ParticipantDTO> participants = countQueries(1, () ->
+                participantRepository.findAllParticipantDTOsInEvent(CODE));
+
+        assertTrue(participants.contains(new ParticipantDTO("Participant 1", "", "", "")));
+        assertEquals(rows, participants.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void projectingExpensesTakesOneQuery(int rows) {
+        createEvent(rows);
+
+        Collection<ExpenseDTO> expenses = countQueries(1, () ->
+                expenseRepository.findAllExpenseDTOsInEvent(CODE));
+
+        assertTrue(expenses.stream().anyMatch(expense ->
+                expense.paidByName().equals("Participant 1") && expense.price() == 11.0));
+        assertEquals(rows, expenses.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void projectingExpensesInvolvingParticipantTakesOneQuery(int rows) {
+        createEvent(rows);
+
+        Collection<ExpenseDTO> expenses = countQueries(1, () ->
+                expenseRepository.findAllExpenseDTOsInvolving(CODE, "Participant 1"));
+
+        // every expense is shared by everyone
+        assertEquals(rows, expenses.size());
+        assertTrue(expenses.stream().anyMatch(expense -> expense.paidByName().equals("Participant 0")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void projectingDebtsTakesOneQuery(int rows) {
+        createEvent(rows);
+
+        Collection<DebtDTO> debts = countQueries(1, () -> debtRepository.findAllDebtDTOs(CODE));
+
+        assertTrue(debts.contains(new DebtDTO("Participant 1", "Participant 0", 2.0, false)));
+        assertEquals(rows - 1, debts.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 20})
+    void creatingParticipantsTakesSameQueries(int rows) {
+        createEvent(0);
+        ParticipantService participantService = new ParticipantService(participantRepository, eventRepository,
+                null, null, new BalanceLedger(expenseRepository, participantRepository),
+                new ActivityTracker(jdbcTemplate, entityManager.getEntityManagerFactory()), entityManager);
+        List<ParticipantDTO> bodies = IntStream.range(0, rows)
+                .mapToObj(i -> new ParticipantDTO("Participant " + i, "", "", ""))
+                .toList();
+
+        // the event, the taken names and the batched inserts, but no select per participant
+        // (the last activity is written through JDBC, outside of the statistics)
+        List<Participant> created = countQueries(3, () -> {
+            try {
+                List<Participant> participants = participantService.createMany(CODE, bodies);
+                entityManager.flush();
+                return participants;
+            } catch (NotFoundInDatabaseException | NameTakenException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(rows, created.size());
+        assertEquals(rows, participantRepository.findAllParticipantDTOsInEvent(CODE).size());
+    }
+
+    @Test
+    void creatingParticipantsRejectsTakenNames() {
+        createEvent(2);
+        ParticipantService participantService = new ParticipantService(participantRepository, eventRepository,
+                null, null, new BalanceLedger(expenseRepository, participantRepository),
+                new ActivityTracker(jdbcTemplate, entityManager.getEntityManagerFactory()), entityManager);
+        ParticipantDTO taken = new ParticipantDTO("Participant 1", "", "", "");
+        ParticipantDTO twice = new ParticipantDTO("New", "second@example.com", "", "");
+
+        NameTakenException e = assertThrows(NameTakenException.class, () -> participantService.createMany(CODE,
+                List.of(new ParticipantDTO("New", "", "", ""), taken, twice)));
+
+        assertEquals(List.of(taken, twice), e.getRejected());
+        assertEquals(2, participantRepository.findAllParticipantDTOsInEvent(CODE).size());
+    }
+
+    /**
+     * Creates an event with the given number of participants, each paying one expense
+     * and all but the first owing the first
+     */
+    private void createEvent(int participants) {
+        Event event = new Event("Event", CODE, LocalDateTime.now());
+        event.setLastActivity(event.getCreationDate());
+        entityManager.persist(event);
+        List<Participant> created = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            Participant participant = new Participant("Participant " + i, event, "", "", "");
+            entityManager.persist(participant);
+            if (i > 0) entityManager.persist(new Debt(participant, created.getFirst(), 1.0 + i, false));
+            created.add(participant);
+        }
+        for (Participant participant : created) {
+            Expense expense = new Expense(10.0 + created.indexOf(participant), "Item", participant, LocalDate.now());
+            expense.getDebtors().addAll(created);
+            entityManager.persist(expense);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Runs the given list call on an empty persistence context and second-level cache,
+     * asserting the number of SQL statements it takes, including those of mapping the result
+     */
+    private <T extends Collection<?>> T countQueries(long expected, Supplier<T> call) {
+        SessionFactory sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        T result = call.get();
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return result;
+    }
+}
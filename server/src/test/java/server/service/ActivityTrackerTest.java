@@ -0,0 +1,88 @@
+package server.service;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import server.entities.event.Event;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivityTrackerTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private ActivityTracker activityTracker;
+
+    @Test
+    void getLastActivityTest() {
+        Event event = new Event("Trip", "ABC", LocalDateTime.now());
+        LocalDateTime stored = LocalDateTime.of(2024, 1, 1, 12, 0);
+        event.setLastActivity(stored);
+        assertEquals(stored, activityTracker.getLastActivity(event));
+
+        LocalDateTime touched = activityTracker.touch("ABC");
+        assertEquals(touched, activityTracker.getLastActivity(event));
+
+        // a stored activity newer than the recorded one wins
+        event.setLastActivity(touched.plusDays(1));
+        assertEquals(touched.plusDays(1), activityTracker.getLastActivity(event));
+
+        activityTracker.forget("ABC");
+        event.setLastActivity(stored);
+        assertEquals(stored, activityTracker.getLastActivity(event));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushTest() {
+        assertEquals(0, activityTracker.flush());
+        verifyNoInteractions(jdbcTemplate);
+
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        activityTracker.touch("A");
+        activityTracker.touch("B");
+        activityTracker.touch("A");
+        assertEquals(2, activityTracker.getPendingCount());
+
+        assertEquals(2, activityTracker.flush());
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE event SET last_activity"),
+                (Collection<Map.Entry<String, LocalDateTime>>) argThat(batch -> ((Collection<?>) batch).size() == 2),
+                eq(2), any(ParameterizedPreparedStatementSetter.class));
+        // the cached events are outdated now
+        verify(cache).evict(Event.class, "A");
+        verify(cache).evict(Event.class, "B");
+        assertEquals(0, activityTracker.getPendingCount());
+        assertEquals(0, activityTracker.flush());
+    }
+
+    @Test
+    void forgetAllTest() {
+        activityTracker.touch("A");
+        activityTracker.touch("B");
+        activityTracker.forgetAll();
+
+        assertEquals(0, activityTracker.getPendingCount());
+        assertEquals(0, activityTracker.flush());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,86 @@
+package server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.dto.BroadcastStatsDTO;
+import commons.dto.ParticipantDTO;
+import commons.dto.WSAction;
+import commons.dto.WSWrapperResponseBody;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.MimeTypeUtils;
+import server.entities.event.Event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BroadcasterTest {
+    private static final String ALL_EVENTS = "/api/websocket/v1/channel/event";
+
+    @Mock
+    private SimpMessagingTemplate simpMessagingTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Broadcaster broadcaster;
+
+    private final ParticipantDTO alice = new ParticipantDTO("Alice", "alice@example.com", "", "");
+
+    @BeforeEach
+    void setup() {
+        broadcaster = new Broadcaster(simpMessagingTemplate, objectMapper);
+    }
+
+    @Test
+    void sendSerializesOnceForAllDestinations() throws Exception {
+        WSWrapperResponseBody<ParticipantDTO> payload = new WSWrapperResponseBody<>(WSAction.CREATED, alice);
+        broadcaster.send(List.of("/api/websocket/v1/channel/ABC/participant", ALL_EVENTS), payload);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<byte[]>> messages = ArgumentCaptor.forClass(Message.class);
+        verify(simpMessagingTemplate).send(eq("/api/websocket/v1/channel/ABC/participant"), messages.capture());
+        verify(simpMessagingTemplate).send(eq(ALL_EVENTS), messages.capture());
+
+        Message<byte[]> first = messages.getAllValues().get(0);
+        Message<byte[]> second = messages.getAllValues().get(1);
+        assertSame(first.getPayload(), second.getPayload());
+        assertArrayEquals(objectMapper.writeValueAsBytes(payload), first.getPayload());
+        assertEquals(MimeTypeUtils.APPLICATION_JSON,
+                SimpMessageHeaderAccessor.wrap(first).getContentType());
+    }
+
+    @Test
+    void sendRejectsEntities() {
+        Event event = new Event("Party", "ABC", LocalDateTime.now());
+        assertThrows(IllegalArgumentException.class,
+                () -> broadcaster.send(ALL_EVENTS, new WSWrapperResponseBody<>(WSAction.CREATED, event)));
+        verify(simpMessagingTemplate, never()).send(anyString(), any());
+    }
+
+    @Test
+    void statsCountEventsTogether() {
+        broadcaster.send("/api/websocket/v1/channel/ABC/participant", alice);
+        broadcaster.send("/api/websocket/v1/channel/XYZ/participant", alice);
+        broadcaster.send("/api/websocket/v1/channel/ABC", alice);
+        broadcaster.send(ALL_EVENTS, alice);
+
+        List<BroadcastStatsDTO> stats = broadcaster.getStats();
+        assertEquals(List.of("/api/websocket/v1/channel/event", "/api/websocket/v1/channel/{eventCode}",
+                        "/api/websocket/v1/channel/{eventCode}/participant"),
+                stats.stream().map(BroadcastStatsDTO::destination).toList());
+        assertEquals(List.of(1L, 1L, 2L), stats.stream().map(BroadcastStatsDTO::messages).toList());
+        assertEquals(2 * stats.get(0).bytes(), stats.get(2).bytes());
+    }
+}
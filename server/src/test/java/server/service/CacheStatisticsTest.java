@@ -0,0 +1,50 @@
+package server.service;
+
+import commons.dto.CacheRegionStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.management.CacheStatisticsMXBean;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CacheStatisticsTest {
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final ObjectName name =
+            new ObjectName("javax.cache:type=CacheStatistics,CacheManager=test,Cache=test-region");
+
+    /**
+     * Constructs the test, ObjectName declares a checked exception
+     */
+    public CacheStatisticsTest() throws Exception {
+    }
+
+    @AfterEach
+    void unregister() throws Exception {
+        if (mBeanServer.isRegistered(name)) mBeanServer.unregisterMBean(name);
+    }
+
+    @Test
+    void getRegionStatsTest() throws Exception {
+        CacheStatisticsMXBean statistics = mock(CacheStatisticsMXBean.class);
+        when(statistics.getCacheHits()).thenReturn(40L);
+        when(statistics.getCacheMisses()).thenReturn(2L);
+        when(statistics.getCachePuts()).thenReturn(3L);
+        when(statistics.getCacheEvictions()).thenReturn(1L);
+        mBeanServer.registerMBean(new StandardMBean(statistics, CacheStatisticsMXBean.class, true), name);
+
+        assertTrue(new CacheStatistics().getRegionStats()
+                .contains(new CacheRegionStatsDTO("test-region", 40, 2, 3, 1)));
+    }
+
+    @Test
+    void noCachesTest() {
+        assertTrue(new CacheStatistics().getRegionStats().stream()
+                .noneMatch(region -> region.region().equals("test-region")));
+    }
+}
@@ -0,0 +1,113 @@
+package server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.DebtRepository;
+import server.entities.debt.Debt;
+import server.entities.event.Event;
+import server.entities.participant.Participant;
+import server.service.exceptions.UnknownSettlementStrategyException;
+import server.service.settlement.BalanceLedger;
+import server.service.settlement.EventBalance;
+import server.service.settlement.GreedySettlementStrategy;
+import server.service.settlement.PairwiseSettlementStrategy;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DebtServiceTest {
+    @Mock
+    private DebtRepository debtRepository;
+
+    @Mock
+    private ParticipantService participantService;
+
+    @Mock
+    private BalanceLedger balanceLedger;
+
+    private DebtService debtService;
+
+    @BeforeEach
+    void setup() {
+        debtService = new DebtService(debtRepository, participantService, balanceLedger,
+                List.of(new PairwiseSettlementStrategy(), new GreedySettlementStrategy()),
+                PairwiseSettlementStrategy.NAME);
+    }
+
+    private EventBalance balance(String[] names, long[] paid) {
+        EventBalance balance = new EventBalance();
+        for (String name : names) balance.addParticipant(name);
+        // every participant paid for one expense shared by everyone
+        for (int i = 0; i < names.length; i++) {
+            balance.addExpense(i, names[i], paid[i], List.of(names));
+        }
+        return balance;
+    }
+
+    @Test
+    void testGenerateDebtsFromExpenses() {
+        Event event = new Event("name", "code", LocalDateTime.now());
+        Participant a = new Participant("A", event, "", "", "");
+        Participant b = new Participant("B", event, "", "", "");
+        Participant c = new Participant("C", event, "", "", "");
+        EventBalance balance = balance(new String[]{"A", "B", "C"}, new long[]{1000L, 300L, 0L});
+        when(balanceLedger.getBalance("code")).thenReturn(balance);
+        when(participantService.getAll("code")).thenReturn(List.of(a, b, c));
+
+        List<Debt> debts = debtService.generateDebtsFromExpenses("code");
+
+        assertEquals(List.of(
+                new Debt(b, a, 3.33),
+                new Debt(c, a, 3.33),
+                new Debt(a, b, 1.0),
+                new Debt(c, b, 1.0)
+        ), debts);
+        verify(debtRepository).deleteAllDebtsInEvent("code");
+        verify(debtRepository).saveAll(debts);
+        verify(debtRepository, never()).deleteAll();
+    }
+
+    @Test
+    void testGenerateDebtsWithStrategy() throws UnknownSettlementStrategyException {
+        Event event = new Event("name", "code", LocalDateTime.now());
+        Participant a = new Participant("A", event, "", "", "");
+        Participant b = new Participant("B", event, "", "", "");
+        Participant c = new Participant("C", event, "", "", "");
+        EventBalance balance = balance(new String[]{"A", "B", "C"}, new long[]{1000L, 300L, 0L});
+        when(balanceLedger.getBalance("code")).thenReturn(balance);
+        when(participantService.getAll("code")).thenReturn(List.of(a, b, c));
+
+        List<Debt> debts = debtService.generateDebtsFromExpenses("code", GreedySettlementStrategy.NAME);
+
+        assertEquals(List.of(
+                new Debt(c, a, 4.33),
+                new Debt(b, a, 1.33)
+        ), debts);
+        verify(debtRepository).deleteAllDebtsInEvent("code");
+    }
+
+    @Test
+    void testGenerateDebtsUnknownStrategy() {
+        assertThrows(UnknownSettlementStrategyException.class,
+                () -> debtService.generateDebtsFromExpenses("code", "unknown"));
+        verifyNoInteractions(debtRepository);
+    }
+
+    @Test
+    void testGenerateDebtsSingleParticipant() {
+        EventBalance balance = balance(new String[]{"A"}, new long[]{1000L});
+        when(balanceLedger.getBalance("code")).thenReturn(balance);
+
+        List<Debt> debts = debtService.generateDebtsFromExpenses("code");
+
+        assertTrue(debts.isEmpty());
+        verify(debtRepository).deleteAllDebtsInEvent("code");
+    }
+}
@@ -0,0 +1,77 @@
+package server.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import commons.dto.DebtDTO;
+import commons.dto.EventDTO;
+import commons.dto.ExpenseDTO;
+import commons.dto.JSONDumpEventDTO;
+import commons.dto.ParticipantDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DumpFormatsTest {
+    private DumpFormats dumpFormats;
+    private List<JSONDumpEventDTO> dump;
+
+    @BeforeEach
+    void setup() {
+        dumpFormats = new DumpFormats(new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+        dump = List.of(new JSONDumpEventDTO(
+                new EventDTO("Trip", "ABC123", LocalDateTime.of(2024, 3, 1, 12, 30, 15),
+                        LocalDateTime.of(2024, 3, 2, 8, 0)),
+                List.of(new ParticipantDTO("A", "a@mail.com", "NL00BANK0123456789", "BANKNL2A"),
+                        new ParticipantDTO("B", null, null, null)),
+                List.of(new ExpenseDTO(1L, 12.5, "food", "A", LocalDate.of(2024, 3, 1))),
+                List.of(new DebtDTO("B", "A", 6.25, false))
+        ));
+    }
+
+    @Test
+    void roundTripTest() throws Exception {
+        for (MediaType mediaType : dumpFormats.getMediaTypes()) {
+            ObjectMapper mapper = dumpFormats.getMapper(mediaType);
+            byte[] bytes = mapper.writeValueAsBytes(dump);
+            assertEquals(dump, mapper.readValue(bytes, new TypeReference<List<JSONDumpEventDTO>>() {}),
+                    mediaType.toString());
+        }
+    }
+
+    @Test
+    void binaryFormatsAreSmallerTest() throws Exception {
+        int json = dumpFormats.getMapper(MediaType.APPLICATION_JSON).writeValueAsBytes(dump).length;
+        assertTrue(dumpFormats.getMapper(DumpFormats.SMILE).writeValueAsBytes(dump).length < json);
+        assertTrue(dumpFormats.getMapper(DumpFormats.CBOR).writeValueAsBytes(dump).length < json);
+    }
+
+    @Test
+    void negotiateTest() {
+        assertEquals(MediaType.APPLICATION_JSON, dumpFormats.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, dumpFormats.negotiate("*/*"));
+        assertEquals(DumpFormats.SMILE, dumpFormats.negotiate("application/x-jackson-smile"));
+        assertEquals(DumpFormats.CBOR,
+                dumpFormats.negotiate("application/json;q=0.8, application/cbor"));
+        assertNull(dumpFormats.negotiate("text/csv"));
+        assertNull(dumpFormats.negotiate("not a media type"));
+    }
+
+    @Test
+    void forContentTypeTest() {
+        assertEquals(MediaType.APPLICATION_JSON, dumpFormats.forContentType(null));
+        assertEquals(MediaType.APPLICATION_JSON, dumpFormats.forContentType("application/json;charset=UTF-8"));
+        assertEquals(DumpFormats.CBOR, dumpFormats.forContentType("application/cbor"));
+        assertNull(dumpFormats.forContentType("application/xml"));
+    }
+}
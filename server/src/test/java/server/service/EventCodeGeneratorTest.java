@@ -0,0 +1,127 @@
+package server.service;
+
+import commons.dto.EventCodeStatsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.EventRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EventCodeGeneratorTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    @Test
+    void generatesUniqueCodesOfTheAlphabet() {
+        // the filter is loaded once and grows with the generated codes
+        Set<String> codes = new HashSet<>();
+        when(eventRepository.findAllCodes()).thenReturn(List.of());
+        lenient().when(eventRepository.existsById(anyString())).thenReturn(false);
+        EventCodeGenerator generator = new EventCodeGenerator(eventRepository, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            String code = generator.generate();
+            assertTrue(code.matches("[0-9A-Za-z]{8}"), code);
+            codes.add(code);
+        }
+
+        assertEquals(1000, codes.size());
+        EventCodeStatsDTO stats = generator.getStats();
+        assertEquals(1000, stats.generatedCodes());
+        assertEquals(0, stats.collisions());
+        assertEquals(1000, stats.knownCodes());
+        verify(eventRepository, times(1)).findAllCodes();
+    }
+
+    @Test
+    void looksUpOnlyCodesTheFilterMightContain() {
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) taken.add(String.format("%08d", i));
+        when(eventRepository.findAllCodes()).thenReturn(taken);
+        lenient().when(eventRepository.existsById(anyString())).thenReturn(false);
+        EventCodeGenerator generator = new EventCodeGenerator(eventRepository, 10000);
+
+        for (int i = 0; i < 2000; i++) generator.generate();
+
+        EventCodeStatsDTO stats = generator.getStats();
+        verify(eventRepository, times((int) stats.filterHits())).existsById(anyString());
+        assertTrue(stats.filterHits() < 100, "filter hits " + stats.filterHits());
+        assertEquals(7000, stats.knownCodes());
+    }
+
+    @Test
+    void generatesAgainWhenTheCodeIsTaken() {
+        // a filter that might contain every code
+        CodeFilter filter = new CodeFilter(1) {
+            @Override
+            boolean mightContain(String code) {
+                return true;
+            }
+        };
+        EventCodeGenerator generator = new EventCodeGenerator(eventRepository, filter);
+        when(eventRepository.existsById(anyString())).thenReturn(true, true, false);
+
+        generator.generate();
+
+        EventCodeStatsDTO stats = generator.getStats();
+        assertEquals(3, stats.generatedCodes());
+        assertEquals(3, stats.filterHits());
+        assertEquals(2, stats.collisions());
+        verify(eventRepository, times(3)).existsById(anyString());
+    }
+
+    @Test
+    void registersCodesOnlyOnceTheFilterIsLoaded() {
+        EventCodeGenerator generator = new EventCodeGenerator(eventRepository, 100);
+        generator.register("AAAA");
+        assertEquals(0, generator.getStats().knownCodes());
+        verifyNoInteractions(eventRepository);
+
+        when(eventRepository.findAllCodes()).thenReturn(List.of("AAAA"));
+        lenient().when(eventRepository.existsById(anyString())).thenReturn(false);
+        generator.generate();
+        generator.register("BBBB");
+        assertEquals(3, generator.getStats().knownCodes());
+    }
+
+    @Test
+    void filterContainsEveryAddedCode() {
+        CodeFilter filter = new CodeFilter(10000);
+        for (int i = 0; i < 10000; i++) filter.add("code" + i);
+
+        for (int i = 0; i < 10000; i++) assertTrue(filter.mightContain("code" + i));
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 300, "false positives " + falsePositives);
+        assertEquals(1, filter.layerCount());
+        filter.add("one more");
+        assertEquals(2, filter.layerCount());
+    }
+
+    @Test
+    void grownFilterContainsEveryAddedCode() {
+        CodeFilter filter = new CodeFilter(100);
+        for (int i = 0; i < 10000; i++) filter.add("code" + i);
+
+        assertEquals(10000, filter.size());
+        assertTrue(filter.layerCount() > 1);
+        for (int i = 0; i < 10000; i++) assertTrue(filter.mightContain("code" + i));
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 300, "false positives " + falsePositives);
+    }
+}
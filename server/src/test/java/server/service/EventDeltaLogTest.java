@@ -0,0 +1,129 @@
+package server.service;
+
+import commons.dto.EventDTO;
+import commons.dto.EventDeltaDTO;
+import commons.dto.EventDeltasDTO;
+import commons.dto.ParticipantDTO;
+import commons.dto.WSAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EventDeltaLogTest {
+    private static final String CHANNEL = "/api/websocket/v1/channel/ABC/delta";
+
+    @Mock
+    private Broadcaster broadcaster;
+
+    private EventDeltaLog eventDeltaLog;
+
+    private final ParticipantDTO alice = new ParticipantDTO("Alice", "alice@example.com", "", "");
+    private final ParticipantDTO bob = new ParticipantDTO("Bob", "bob@example.com", "", "");
+
+    @BeforeEach
+    void setup() {
+        eventDeltaLog = new EventDeltaLog(broadcaster, 3);
+    }
+
+    @Test
+    void publishTest() {
+        EventDeltasDTO first = eventDeltaLog.publishParticipants("ABC", WSAction.CREATED, List.of(alice, bob));
+        assertEquals(2, first.sequence());
+        assertEquals(List.of(EventDeltaDTO.ofParticipant(1, WSAction.CREATED, alice),
+                EventDeltaDTO.ofParticipant(2, WSAction.CREATED, bob)), first.deltas());
+        // the whole batch goes out in one message
+        verify(broadcaster).send(CHANNEL, first);
+
+        EventDeltasDTO second = eventDeltaLog.publishParticipants("ABC", WSAction.DELETED, List.of(bob));
+        assertEquals(3, second.sequence());
+        assertEquals(first.epoch(), second.epoch());
+        verify(broadcaster).send(CHANNEL, second);
+
+        // other events are numbered on their own
+        assertEquals(1, eventDeltaLog.publishParticipants("XYZ", WSAction.CREATED, List.of(alice)).sequence());
+        assertEquals(new EventDeltasDTO("ABC", first.epoch(), 3, List.of()), eventDeltaLog.getPosition("ABC"));
+    }
+
+    @Test
+    void getDeltasTest() {
+        long epoch = eventDeltaLog.getPosition("ABC").epoch();
+        assertEquals(new EventDeltasDTO("ABC", epoch, 0, List.of()), eventDeltaLog.getDeltas("ABC", epoch, 0));
+
+        eventDeltaLog.publishParticipants("ABC", WSAction.CREATED, List.of(alice));
+        eventDeltaLog.publishParticipants("ABC", WSAction.CREATED, List.of(bob));
+
+        EventDeltasDTO missed = eventDeltaLog.getDeltas("ABC", epoch, 1);
+        assertEquals(2, missed.sequence());
+        assertEquals(List.of(EventDeltaDTO.ofParticipant(2, WSAction.CREATED, bob)), missed.deltas());
+        assertEquals(List.of(), eventDeltaLog.getDeltas("ABC", epoch, 2).deltas());
+
+        // unknown epoch or a sequence number from the future
+        assertNull(eventDeltaLog.getDeltas("ABC", epoch - 1, 1));
+        assertNull(eventDeltaLog.getDeltas("ABC", epoch, 3));
+    }
+
+    @Test
+    void getDeltasBeyondCapacityTest() {
+        long epoch = eventDeltaLog.getPosition("ABC").epoch();
+        for (int i = 0; i < 5; i++) {
+            eventDeltaLog.publishParticipants("ABC", WSAction.MODIFIED, List.of(alice));
+        }
+
+        // only changes 3, 4 and 5 are kept
+        assertNull(eventDeltaLog.getDeltas("ABC", epoch, 1));
+        assertEquals(3, eventDeltaLog.getDeltas("ABC", epoch, 2).deltas().size());
+    }
+
+    @Test
+    void deletedEventTest() {
+        EventDTO event = new EventDTO("Trip", "ABC", LocalDateTime.now(), null);
+        eventDeltaLog.publishParticipants("ABC", WSAction.CREATED, List.of(alice));
+        EventDeltasDTO deleted = eventDeltaLog.publishEvent("ABC", WSAction.DELETED, event);
+
+        assertEquals(List.of(EventDeltaDTO.ofEvent(2, WSAction.DELETED, event)), deleted.deltas());
+        verify(broadcaster).send(CHANNEL, deleted);
+        assertEquals(0, eventDeltaLog.getPosition("ABC").sequence());
+    }
+
+    @Test
+    void expiredLogTest() {
+        AtomicLong nanos = new AtomicLong();
+        eventDeltaLog = new EventDeltaLog(broadcaster, 3, nanos::get);
+        EventDeltasDTO position = eventDeltaLog.getPosition("ABC");
+        eventDeltaLog.publishParticipants("ABC", WSAction.CREATED, List.of(alice));
+
+        // the changes of an event nobody asked for in a while are dropped,
+        // its next change starts a new epoch so that its clients reload it
+        nanos.addAndGet(Duration.ofHours(2).toNanos());
+        assertNull(eventDeltaLog.getDeltas("ABC", position.epoch(), 0));
+        EventDeltasDTO next = eventDeltaLog.publishParticipants("ABC", WSAction.CREATED, List.of(bob));
+        assertNotEquals(position.epoch(), next.epoch());
+        assertEquals(1, next.sequence());
+        assertNull(eventDeltaLog.getDeltas("ABC", position.epoch(), 1));
+    }
+
+    @Test
+    void resetTest() {
+        long epoch = eventDeltaLog.getPosition("ABC").epoch();
+        eventDeltaLog.publishParticipants("ABC", WSAction.CREATED, List.of(alice));
+        eventDeltaLog.reset();
+
+        EventDeltasDTO position = eventDeltaLog.getPosition("ABC");
+        assertTrue(position.epoch() > epoch);
+        assertEquals(0, position.sequence());
+        assertNull(eventDeltaLog.getDeltas("ABC", epoch, 1));
+        // clients of the event are told about the new epoch
+        verify(broadcaster).send(CHANNEL, position);
+    }
+}
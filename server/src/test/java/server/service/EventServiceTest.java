@@ -1,6 +1,10 @@
 package server.service;
 
 import org.mockito.Mockito;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery;
 import server.entities.event.Event;
 
 import org.junit.jupiter.api.Test;
@@ -10,11 +14,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import server.database.EventRepository;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,8 +31,21 @@ public class EventServiceTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private BalanceLedger balanceLedger;
+
+    @Mock
+    private ActivityTracker activityTracker;
+
+    @Mock
+    private EventCodeGenerator eventCodeGenerator;
+
     @InjectMocks
     private EventService eventService;
+
+    /**
+     * Fetches all events
+     */
     @Test
     public void getAllEventsTest(){
         List<Event> list = new ArrayList<>();
@@ -35,6 +55,10 @@ public class EventServiceTest {
         assertEquals(retrieved.size(),0);
 
     }
+
+    /**
+     * Fetches one event by its code
+     */
     @Test
     public void getOneEventTest() throws Exception {
         String code = "1234";
@@ -44,8 +68,12 @@ public class EventServiceTest {
         assertEquals(event, a);
     }
 
+    /**
+     * Creates an event with a generated code
+     */
     @Test
     public void createEventTest() {
+        when(eventCodeGenerator.generate()).thenReturn("abcd1234");
         when(eventRepository.save(Mockito.any(Event.class))).thenAnswer(e -> {
             Event event = e.getArgument(0);
             event.setCode("generatedCode");
@@ -66,16 +94,9 @@ public class EventServiceTest {
     }
     @Test
     void testGenerateCode() {
-        EventRepository eventRepository = Mockito.mock(EventRepository.class);
-        when(eventRepository.findById(Mockito.anyString())).thenReturn(Optional.empty());
-
-        EventService eventService = new EventService(eventRepository, null, null);
-        String code = eventService.generateCode();
+        when(eventCodeGenerator.generate()).thenReturn("abcd1234");
 
-        assertNotNull(code);
-        assertEquals(8, code.length());
-
-        Mockito.verify(eventRepository).findById(code);
+        assertEquals("abcd1234", eventService.generateCode());
     }
     @Test
     void testDeleteOneSuccess() throws NotFoundInDatabaseException {
@@ -86,6 +107,7 @@ public class EventServiceTest {
         Event deletedEvent = eventService.deleteOne(eventCode);
 
         verify(eventRepository, times(1)).deleteById(eventCode);
+        verify(activityTracker).forget(eventCode);
         assertNotNull(deletedEvent);
         assertEquals(mockEvent, deletedEvent);
     }
@@ -111,6 +133,7 @@ public class EventServiceTest {
         assertEquals(newName, updatedEvent.getName());
         assertNotNull(updatedEvent.getLastActivity());
         verify(eventRepository, times(1)).save(updatedEvent);
+        verify(activityTracker).touch(eventCode);
     }
 
     @Test
@@ -124,4 +147,85 @@ public class EventServiceTest {
     }
 
 
+
+    /**
+     * A page and its cursor lead to the next page, one Event more is fetched to know whether there is one
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getPageTest() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 1, 12, 30);
+        Event a = new Event("a", "A", date);
+        Event b = new Event("b", "B", date.plusDays(1));
+        Event c = new Event("c", "C", date.plusDays(2));
+        FluentQuery.FetchableFluentQuery<Event> query = mock(FluentQuery.FetchableFluentQuery.class, RETURNS_SELF);
+        // the last page is followed by the Events without a creation date, of which there are none
+        when(query.all()).thenReturn(List.of(a, b, c), List.of(c), List.of());
+        when(eventRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                invocation.<Function<FluentQuery.FetchableFluentQuery<Event>, List<Event>>>getArgument(1)
+                        .apply(query));
+
+        Window<Event> page = eventService.getPage("creationDate", true, 2, null);
+        assertEquals(List.of(a, b), page.getContent());
+        assertTrue(page.hasNext());
+        String next = eventService.nextCursor(page, "creationDate");
+        assertNotNull(next);
+
+        Window<Event> last = eventService.getPage("creationDate", true, 2, next);
+        assertEquals(List.of(c), last.getContent());
+        assertFalse(last.hasNext());
+        assertNull(eventService.nextCursor(last, "creationDate"));
+        verify(query, times(2)).limit(3);
+        verify(query).limit(2);
+    }
+
+    /**
+     * Names with line breaks and Events without a value for the sort property have valid cursors
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getPageCursorTest() {
+        Event multiLine = new Event("Trip\nto\nParis", "A", LocalDateTime.now());
+        Event withoutActivity = new Event("b", "B", LocalDateTime.now());
+        FluentQuery.FetchableFluentQuery<Event> query = mock(FluentQuery.FetchableFluentQuery.class, RETURNS_SELF);
+        when(query.all()).thenReturn(List.of());
+        when(eventRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                invocation.<Function<FluentQuery.FetchableFluentQuery<Event>, List<Event>>>getArgument(1)
+                        .apply(query));
+
+        String nameCursor = eventService.nextCursor(
+                Window.from(List.of(multiLine), i -> ScrollPosition.keyset(), true), "name");
+        assertDoesNotThrow(() -> eventService.getPage("name", false, 10, nameCursor));
+        String activityCursor = eventService.nextCursor(
+                Window.from(List.of(withoutActivity), i -> ScrollPosition.keyset(), true), "lastActivity");
+        assertDoesNotThrow(() -> eventService.getPage("lastActivity", false, 10, activityCursor));
+    }
+
+    /**
+     * Unknown columns, cursors of another column and corrupt cursors are rejected
+     */
+    @Test
+    public void getPageInvalidTest() {
+        assertThrows(IllegalArgumentException.class, () -> eventService.getPage("email", false, 10, null));
+        String nameCursor = eventService.nextCursor(
+                Window.from(List.of(new Event("a", "A", LocalDateTime.now())), i -> ScrollPosition.keyset(), true),
+                "name");
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.getPage("creationDate", false, 10, nameCursor));
+        assertThrows(IllegalArgumentException.class, () -> eventService.getPage("name", false, 10, "%%%"));
+        assertThrows(IllegalArgumentException.class, () -> eventService.getPage("name", false, 10, "AAAA"));
+        assertNull(eventService.nextCursor(Window.from(List.of(), i -> ScrollPosition.keyset(), false), "name"));
+    }
+
+    /**
+     * Events are fetched by a set of codes in one query
+     */
+    @Test
+    public void getManyTest() {
+        Event a = new Event("a", "A", LocalDateTime.now());
+        Event b = new Event("b", "B", LocalDateTime.now());
+        when(eventRepository.findAllById(Set.of("A", "B", "C"))).thenReturn(List.of(a, b));
+
+        assertEquals(List.of(a, b), eventService.getMany(Set.of("A", "B", "C")));
+    }
 }
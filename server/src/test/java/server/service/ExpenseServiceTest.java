@@ -14,12 +14,14 @@ import server.entities.expense.Expense;
 import server.entities.expense.ExpenseId;
 import server.entities.participant.Participant;
 import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -36,6 +38,12 @@ public class ExpenseServiceTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private BalanceLedger balanceLedger;
+
+    @Mock
+    private ActivityTracker activityTracker;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -59,7 +67,8 @@ public class ExpenseServiceTest {
         String email = "123", iban = "134", bic = "123", item = "food", newName = "New Name";
         Participant participant = new Participant(name, event, email, iban, bic);
         List<Expense> expectedExpenses = Collections.singletonList(new Expense());
-        when(expenseRepository.findAllExpensesInEventDependantOnParticipant(eventCode, participant.getName())).thenReturn(expectedExpenses);
+        when(expenseRepository.findAllExpensesInEventDependantOnParticipant(eventCode, participant.getName()))
+                .thenReturn(expectedExpenses);
 
         List<Expense> actualExpenses = expenseService.getAllInEventAndPaidByParticipant(eventCode, participant);
 
@@ -126,13 +135,107 @@ public class ExpenseServiceTest {
         when(participantRepository.findParticipantByEventCodeAndName(anyString(),anyString()))
                 .thenReturn(Optional.of(participant));
         when(expenseRepository.save(any(Expense.class))).thenReturn(expense);
-        when(eventRepository.findById(anyString())).thenReturn(Optional.of(event));
-        when(eventRepository.save(any(Event.class))).thenReturn(event);
 
 
         Expense actualExpense = expenseService.createOne(eventCode, body);
 
         assertEquals(expense, actualExpense);
+        verify(activityTracker).touch(eventCode);
+        verify(eventRepository, never()).save(any(Event.class));
+    }
+
+    @Test
+    void testCreateMany() throws NotFoundInDatabaseException {
+        String eventCode = "testEventCode";
+        Event event = new Event("Event", eventCode, LocalDateTime.of(2024, 1, 1, 12, 0));
+        Participant a = new Participant("A", event, "", "", "");
+        Participant b = new Participant("B", event, "", "", "");
+        List<ExpenseDTO> bodies = List.of(
+                new ExpenseDTO(null, 10.0, "food", "A", LocalDate.now()),
+                new ExpenseDTO(null, 20.0, "drinks", "B", LocalDate.now()),
+                new ExpenseDTO(null, 30.0, "taxi", "A", LocalDate.now()));
+        when(eventRepository.findById(eventCode)).thenReturn(Optional.of(event));
+        when(participantRepository.findAllParticipantsInEvent(eventCode)).thenReturn(List.of(a, b));
+        when(expenseRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Expense> created = expenseService.createMany(eventCode, bodies);
+
+        assertEquals(List.of("food", "drinks", "taxi"), created.stream().map(Expense::getItem).toList());
+        assertEquals(List.of(a, b, a), created.stream().map(Expense::getPaidBy).toList());
+        // all payers are fetched at once and the activity is recorded once for the whole batch
+        verify(participantRepository, never()).findParticipantByEventCodeAndName(anyString(), anyString());
+        verify(expenseRepository, never()).save(any(Expense.class));
+        verify(activityTracker, times(1)).touch(eventCode);
+        // without debtors, an expense is shared by all participants
+        assertEquals(List.of(List.of("A", "B"), List.of("A", "B"), List.of("A", "B")),
+                created.stream().map(Expense::getDebtorNames).toList());
+        verify(balanceLedger, times(2)).expenseAdded(eq(eventCode), any(), eq("A"), anyDouble(), eq(List.of("A", "B")));
+        verify(balanceLedger).expenseAdded(eventCode, null, "B", 20.0, List.of("A", "B"));
+    }
+
+    @Test
+    void testCreateManyWithDebtors() throws NotFoundInDatabaseException {
+        String eventCode = "testEventCode";
+        Event event = new Event("Event", eventCode, LocalDateTime.of(2024, 1, 1, 12, 0));
+        Participant a = new Participant("A", event, "", "", "");
+        Participant b = new Participant("B", event, "", "", "");
+        Participant c = new Participant("C", event, "", "", "");
+        when(eventRepository.findById(eventCode)).thenReturn(Optional.of(event));
+        when(participantRepository.findAllParticipantsInEvent(eventCode)).thenReturn(List.of(a, b, c));
+        when(expenseRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Expense> created = expenseService.createMany(eventCode, List.of(
+                new ExpenseDTO(null, 10.0, "food", "A", LocalDate.now(), List.of("C", "B"))));
+
+        assertEquals(Set.of(b, c), created.getFirst().getDebtors());
+        verify(balanceLedger).expenseAdded(eventCode, null, "A", 10.0, List.of("B", "C"));
+    }
+
+    @Test
+    void testCreateManyDebtorNotFound() {
+        String eventCode = "testEventCode";
+        Event event = new Event("Event", eventCode, LocalDateTime.now());
+        when(eventRepository.findById(eventCode)).thenReturn(Optional.of(event));
+        when(participantRepository.findAllParticipantsInEvent(eventCode))
+                .thenReturn(List.of(new Participant("A", event, "", "", "")));
+
+        assertThrows(NotFoundInDatabaseException.class, () -> expenseService.createMany(eventCode, List.of(
+                new ExpenseDTO(null, 10.0, "food", "A", LocalDate.now(), List.of("A", "C")))));
+        verify(expenseRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testGetAllDTOsInvolving() {
+        String eventCode = "testEventCode";
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        when(expenseRepository.findAllExpenseDTOsInvolving(eventCode, "B")).thenReturn(List.of(
+                new ExpenseDTO(1L, 10.0, "food", "A", date),
+                new ExpenseDTO(2L, 20.0, "drinks", "B", date)));
+        // only the debtors of the returned expenses are fetched
+        when(expenseRepository.findDebtorNamesOfExpenses(eventCode, List.of(1L, 2L))).thenReturn(List.of(
+                new Object[]{1L, "B"}, new Object[]{2L, "C"}, new Object[]{2L, "B"}));
+
+        List<ExpenseDTO> expenses = expenseService.getAllDTOsInvolving(eventCode, "B");
+
+        assertEquals(List.of(
+                new ExpenseDTO(1L, 10.0, "food", "A", date, List.of("B")),
+                new ExpenseDTO(2L, 20.0, "drinks", "B", date, List.of("B", "C"))), expenses);
+        verify(expenseRepository, never()).findAllDebtorNamesInEvent(anyString());
+    }
+
+    @Test
+    void testCreateManyParticipantNotFound() {
+        String eventCode = "testEventCode";
+        Event event = new Event("Event", eventCode, LocalDateTime.now());
+        when(eventRepository.findById(eventCode)).thenReturn(Optional.of(event));
+        when(participantRepository.findAllParticipantsInEvent(eventCode))
+                .thenReturn(List.of(new Participant("A", event, "", "", "")));
+
+        assertThrows(NotFoundInDatabaseException.class, () -> expenseService.createMany(eventCode, List.of(
+                new ExpenseDTO(null, 10.0, "food", "A", LocalDate.now()),
+                new ExpenseDTO(null, 20.0, "drinks", "C", LocalDate.now()))));
+        verify(expenseRepository, never()).saveAll(anyList());
+        verify(activityTracker, never()).touch(anyString());
     }
 
     @Test
@@ -152,13 +255,12 @@ public class ExpenseServiceTest {
         when(participantRepository.findParticipantByEventCodeAndName(anyString(),anyString()))
                 .thenReturn(Optional.of(participant));
         when(expenseRepository.findById(any(ExpenseId.class))).thenReturn(Optional.of(expense));
-        when(eventRepository.findById(anyString())).thenReturn(Optional.of(event));
-        when(eventRepository.save(any(Event.class))).thenReturn(event);
 
         Expense actualExpense = expenseService.deleteOne(eventCode, participantName, id);
 
         assertEquals(expense, actualExpense);
         verify(expenseRepository, times(1)).deleteById(any());
+        verify(activityTracker).touch(eventCode);
     }
 
     @Test
@@ -199,12 +301,11 @@ public class ExpenseServiceTest {
         when(participantRepository.findParticipantByEventCodeAndName(anyString(),anyString()))
                 .thenReturn(Optional.of(participant));
         when(expenseRepository.findById(any(ExpenseId.class))).thenReturn(Optional.of(expense));
-        when(eventRepository.findById(anyString())).thenReturn(Optional.of(event));
-        when(eventRepository.save(any(Event.class))).thenReturn(event);
 
         Expense actualExpense = expenseService.updateOne(eventCode, 100L, body);
         assertEquals(expense, actualExpense);
         verify(expenseRepository, times(1)).save(any());
+        verify(activityTracker).touch(eventCode);
     }
 
     @Test
@@ -233,7 +334,8 @@ public class ExpenseServiceTest {
         Participant participant = new Participant(participantName, event, email, iban, bic);
         participant.setName(newName);
         LocalDate date = LocalDate.ofEpochDay(2024-01-01);
-        when(participantRepository.findParticipantByEventCodeAndName(anyString(), anyString())).thenReturn(Optional.of(participant));
+        when(participantRepository.findParticipantByEventCodeAndName(anyString(), anyString()))
+                .thenReturn(Optional.of(participant));
         Participant actualParticipant = expenseService.getOneParticipant(eventCode, participantName);
         assertEquals(participant, actualParticipant);
     }
@@ -248,9 +350,11 @@ public class ExpenseServiceTest {
         Participant participant = new Participant(participantName, event, email, iban, bic);
         participant.setName(newName);
         LocalDate date = LocalDate.ofEpochDay(2024-01-01);
-        when(participantRepository.findParticipantByEventCodeAndName(anyString(), anyString())).thenReturn(Optional.empty());
+        when(participantRepository.findParticipantByEventCodeAndName(anyString(), anyString()))
+                .thenReturn(Optional.empty());
 
-        assertThrows(NotFoundInDatabaseException.class, () -> expenseService.getOneParticipant(eventCode, participantName));
+        assertThrows(NotFoundInDatabaseException.class,
+                () -> expenseService.getOneParticipant(eventCode, participantName));
     }
 
     @Test
@@ -273,23 +377,14 @@ public class ExpenseServiceTest {
     }
 
     @Test
-    void testUpdateDate() throws NotFoundInDatabaseException {
-        String eventCode = "testEventCode";
-        Event event = new Event();
-        when(eventRepository.findById(eventCode)).thenReturn(Optional.of(event));
-
-        expenseService.updateDate(eventCode);
-
-        assertNotNull(event.getLastActivity());
-        verify(eventRepository, times(1)).save(event);
-    }
-
-    @Test
-    void testUpdateDateEventNotFound() {
+    void testUpdateDate() {
         String eventCode = "testEventCode";
-        when(eventRepository.findById(eventCode)).thenReturn(Optional.empty());
+        LocalDateTime now = LocalDateTime.now();
+        when(activityTracker.touch(eventCode)).thenReturn(now);
 
-        assertThrows(NotFoundInDatabaseException.class, () -> expenseService.updateDate(eventCode));
+        assertEquals(now, expenseService.updateDate(eventCode));
+        // the event itself is written later on by the ActivityTracker
+        verify(eventRepository, never()).findById(anyString());
         verify(eventRepository, never()).save(any());
     }
 
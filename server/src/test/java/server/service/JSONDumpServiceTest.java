@@ -0,0 +1,213 @@
+package server.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import commons.dto.EventDTO;
+import commons.dto.JSONDumpEventDTO;
+import commons.dto.ParticipantDTO;
+import commons.dto.RestoreProgressDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import server.database.DebtRepository;
+import server.database.EventRepository;
+import server.database.ExpenseRepository;
+import server.database.ParticipantRepository;
+import server.entities.debt.Debt;
+import server.entities.debt.DebtDTOMapper;
+import server.entities.event.Event;
+import server.entities.event.EventDTOMapper;
+import server.entities.expense.Expense;
+import server.entities.expense.ExpenseDTOMapper;
+import server.entities.participant.Participant;
+import server.entities.participant.ParticipantDTOMapper;
+import server.service.exceptions.ImproperDumpFormatException;
+import server.service.exceptions.NotFoundInDatabaseException;
+import server.service.settlement.BalanceLedger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JSONDumpServiceTest {
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ParticipantRepository participantRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private DebtRepository debtRepository;
+
+    @Mock
+    private BalanceLedger balanceLedger;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private JSONDumpService jsonDumpService;
+
+    private Event a;
+    private Event b;
+    private Event c;
+
+    @BeforeEach
+    void setup() {
+        ActivityTracker activityTracker = new ActivityTracker(null, null);
+        jsonDumpService = new JSONDumpService(eventRepository, participantRepository, expenseRepository,
+                debtRepository, new EventDTOMapper(null, activityTracker), new ParticipantDTOMapper(null, null),
+                new ExpenseDTOMapper(null, null), new DebtDTOMapper(null, null),
+                balanceLedger, activityTracker, new EventCodeGenerator(eventRepository, 10),
+                objectMapper, entityManager, 2, 3);
+
+    }
+
+    private void stubEvents() {
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 12, 0);
+        a = new Event("A", "AAAA", date);
+        b = new Event("B", "BBBB", date);
+        c = new Event("C", "CCCC", date);
+        Participant alice = new Participant("Alice", a, "", "", "");
+        Participant bob = new Participant("Bob", a, "", "", "");
+        Participant carol = new Participant("Carol", c, "", "", "");
+        Expense expense = new Expense(10.0, "Food", alice, LocalDate.of(2024, 1, 1));
+        expense.setId(1L);
+
+        when(eventRepository.findAllAfter("", PageRequest.of(0, 2))).thenReturn(List.of(a, b));
+        when(eventRepository.findAllAfter("BBBB", PageRequest.of(0, 2))).thenReturn(List.of(c));
+        when(participantRepository.findAllParticipantsInEvents(Set.of("AAAA", "BBBB")))
+                .thenReturn(List.of(alice, bob));
+        when(participantRepository.findAllParticipantsInEvents(Set.of("CCCC")))
+                .thenReturn(List.of(carol));
+        when(expenseRepository.findAllExpensesInEvents(Set.of("AAAA", "BBBB")))
+                .thenReturn(List.of(expense));
+        when(debtRepository.findAllDebtsInEvents(Set.of("AAAA", "BBBB")))
+                .thenReturn(List.of(new Debt(bob, alice, 5.0)));
+    }
+
+    @Test
+    void testCreateDump() {
+        stubEvents();
+        List<JSONDumpEventDTO> dump = jsonDumpService.createDump();
+
+        assertEquals(3, dump.size());
+        assertEquals("AAAA", dump.get(0).eventDTO().code());
+        assertEquals(2, dump.get(0).participantDTOs().size());
+        assertEquals("Alice", dump.get(0).expenseDTOs().get(0).paidByName());
+        assertEquals("Bob", dump.get(0).debtDTOs().get(0).debtorName());
+        assertTrue(dump.get(1).participantDTOs().isEmpty());
+        assertEquals("Carol", dump.get(2).participantDTOs().get(0).name());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void testCreateDumpForEvent() throws Exception {
+        Event event = new Event("A", "AAAA", LocalDateTime.of(2024, 1, 1, 12, 0));
+        Participant alice = new Participant("Alice", event, "", "", "");
+        when(eventRepository.findById("AAAA")).thenReturn(Optional.of(event));
+        when(participantRepository.findAllParticipantsInEvents(Set.of("AAAA"))).thenReturn(List.of(alice));
+
+        JSONDumpEventDTO dump = jsonDumpService.createDumpForEvent("AAAA");
+
+        assertEquals("AAAA", dump.eventDTO().code());
+        assertEquals("Alice", dump.participantDTOs().get(0).name());
+        assertTrue(dump.expenseDTOs().isEmpty());
+        verify(eventRepository, never()).findAllAfter(any(), any());
+    }
+
+    @Test
+    void testCreateDumpForEventNotFound() {
+        when(eventRepository.findById("XXXX")).thenReturn(Optional.empty());
+        assertThrows(NotFoundInDatabaseException.class, () -> jsonDumpService.createDumpForEvent("XXXX"));
+    }
+
+    @Test
+    void testWriteDump() throws Exception {
+        stubEvents();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        jsonDumpService.writeDump(outputStream);
+
+        List<JSONDumpEventDTO> written = objectMapper.readValue(outputStream.toByteArray(),
+                new TypeReference<>() {});
+        assertEquals(jsonDumpService.createDump(), written);
+    }
+
+    @Test
+    void testRestoreFromStream() throws Exception {
+        String dump = "[" +
+                "{\"eventDTO\":{\"name\":\"A\",\"code\":\"AAAA\"}," +
+                "\"participantDTOs\":[{\"name\":\"Alice\"},{\"name\":\"Bob\"}]," +
+                "\"expenseDTOs\":[{\"price\":10.0,\"item\":\"Food\",\"paidByName\":\"Alice\"}]," +
+                "\"debtDTOs\":[{\"debtorName\":\"Bob\",\"creditorName\":\"Alice\",\"amount\":5.0}]}," +
+                "{\"eventDTO\":{\"name\":\"B\",\"code\":\"BBBB\"}," +
+                "\"participantDTOs\":[],\"expenseDTOs\":[],\"debtDTOs\":[]}" +
+                "]";
+
+        jsonDumpService.restoreFromDump(new ByteArrayInputStream(dump.getBytes()));
+
+        verify(debtRepository).deleteAllDebts();
+        verify(expenseRepository).deleteAllExpenses();
+        verify(participantRepository).deleteAllParticipants();
+        verify(eventRepository).deleteAllEvents();
+        verify(entityManager, times(2)).persist(any(Event.class));
+        verify(entityManager, times(2)).persist(any(Participant.class));
+        verify(entityManager).persist(any(Expense.class));
+        verify(entityManager).persist(any(Debt.class));
+        // the first event has 5 rows, which exceeds the chunk size of 3
+        verify(entityManager, times(2)).flush();
+        verify(balanceLedger).invalidateAll();
+        assertEquals(new RestoreProgressDTO(false, 2, 2, 1, 1), jsonDumpService.getRestoreProgress());
+    }
+
+    @Test
+    void testRestoreFromStreamImproperFormat() {
+        assertThrows(ImproperDumpFormatException.class, () -> jsonDumpService.restoreFromDump(
+                new ByteArrayInputStream("{}".getBytes())));
+        assertThrows(ImproperDumpFormatException.class, () -> jsonDumpService.restoreFromDump(
+                new ByteArrayInputStream("[{\"eventDTO\":{\"code\":\"AAAA\"},\"participantDTOs\":[],".getBytes())));
+        assertThrows(ImproperDumpFormatException.class, () -> jsonDumpService.restoreFromDump(
+                new ByteArrayInputStream(("[{\"eventDTO\":{\"code\":\"AAAA\"},\"participantDTOs\":[]," +
+                        "\"expenseDTOs\":[{\"paidByName\":\"Nobody\"}],\"debtDTOs\":[]}]").getBytes())));
+        verify(eventRepository, never()).deleteEvent(any());
+    }
+
+    @Test
+    void testRestoreEventFromDump() throws Exception {
+        JSONDumpEventDTO dump = new JSONDumpEventDTO(
+                new EventDTO("A", "AAAA", null, null),
+                List.of(new ParticipantDTO("Alice", "", "", "")),
+                List.of(), List.of());
+
+        jsonDumpService.restoreEventFromDump(dump);
+
+        verify(debtRepository).deleteAllDebtsInEvent("AAAA");
+        verify(expenseRepository).deleteAllExpensesInEvent("AAAA");
+        verify(participantRepository).deleteAllParticipantsInEvent("AAAA");
+        verify(eventRepository).deleteEvent("AAAA");
+        verify(entityManager).persist(any(Participant.class));
+        verify(balanceLedger).invalidate("AAAA");
+    }
+}
@@ -0,0 +1,148 @@
+package server.service.settlement;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.ExpenseRepository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import server.database.ParticipantRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BalanceLedgerTest {
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ParticipantRepository participantRepository;
+
+    @InjectMocks
+    private BalanceLedger balanceLedger;
+
+    private void stubEvent() {
+        when(participantRepository.findAllParticipantNamesInEvent("code"))
+                .thenReturn(List.of("A", "B", "C"));
+        when(expenseRepository.findAllPaymentsInEvent("code")).thenReturn(List.of(
+                new Object[]{1L, "A", 10.0}, new Object[]{2L, "B", 2.5}, new Object[]{3L, "A", 0.1}));
+        when(expenseRepository.findAllDebtorNamesInEvent("code")).thenReturn(List.of(
+                new Object[]{1L, "A"}, new Object[]{1L, "B"}, new Object[]{1L, "C"},
+                new Object[]{2L, "B"}, new Object[]{2L, "C"},
+                new Object[]{3L, "A"}, new Object[]{3L, "B"}, new Object[]{3L, "C"}));
+    }
+
+    @Test
+    void testGetBalanceLoadsOnce() {
+        stubEvent();
+
+        EventBalance first = balanceLedger.getBalance("code");
+        EventBalance second = balanceLedger.getBalance("code");
+
+        assertSame(first, second);
+        assertEquals(1260L, first.getTotalCents());
+        BalanceSnapshot snapshot = first.snapshot();
+        assertArrayEquals(new String[]{"A", "B", "C"}, snapshot.names());
+        assertArrayEquals(new long[]{1010L, 250L, 0L}, snapshot.paidCents());
+        // 1000 and 10 split by all three with the extra cents owed by A and then B, 250 split by B and C
+        assertArrayEquals(new long[]{1010L - 334 - 3, 250L - 333 - 4 - 125, -333 - 3 - 125}, snapshot.netBalances());
+        verify(expenseRepository, times(1)).findAllPaymentsInEvent("code");
+        verify(expenseRepository, times(1)).findAllDebtorNamesInEvent("code");
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        stubEvent();
+        balanceLedger.getBalance("code");
+
+        balanceLedger.expenseAdded("code", 4L, "C", 5.0, List.of("A", "C"));
+        balanceLedger.expenseChanged("code", 1L, "A", 4.0, List.of("A", "B", "C"));
+        balanceLedger.expenseRemoved("code", 2L);
+        balanceLedger.participantAdded("code", "D");
+
+        BalanceSnapshot snapshot = balanceLedger.getBalance("code").snapshot();
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, snapshot.names());
+        assertArrayEquals(new long[]{410L, 0L, 500L, 0L}, snapshot.paidCents());
+
+        // the expense paid by C is removed and the expenses C shared are split by A and B
+        balanceLedger.participantRemoved("code", "C");
+        assertEquals(410L, balanceLedger.getBalance("code").getTotalCents());
+        snapshot = balanceLedger.getBalance("code").snapshot();
+        assertArrayEquals(new String[]{"A", "B", "D"}, snapshot.names());
+        assertArrayEquals(new long[]{205L, -205L, 0L}, snapshot.netBalances());
+        verify(expenseRepository, times(1)).findAllPaymentsInEvent("code");
+    }
+
+    @Test
+    void testUpdatesIgnoredWhenNotLoaded() {
+        balanceLedger.expenseAdded("code", 1L, "A", 5.0, List.of("A"));
+        balanceLedger.expenseRemoved("code", 1L);
+        balanceLedger.participantAdded("code", "A");
+
+        verifyNoInteractions(expenseRepository, participantRepository);
+    }
+
+    @Test
+    void testInvalidateReloads() {
+        stubEvent();
+        balanceLedger.getBalance("code");
+
+        balanceLedger.invalidate("code");
+        balanceLedger.getBalance("code");
+        balanceLedger.invalidateAll();
+        balanceLedger.getBalance("code");
+
+        verify(expenseRepository, times(3)).findAllPaymentsInEvent("code");
+    }
+
+    @Test
+    void testChangesAppliedAfterCommit() {
+        stubEvent();
+        EventBalance balance = balanceLedger.getBalance("code");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            balanceLedger.expenseAdded("code", 4L, "C", 5.0, List.of("A", "C"));
+            balanceLedger.invalidate("code");
+            assertEquals(1260L, balance.getTotalCents());
+            assertSame(balance, balanceLedger.getBalance("code"));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1760L, balance.getTotalCents());
+        assertNotSame(balance, balanceLedger.getBalance("code"));
+    }
+
+    @Test
+    void testChangesOfRolledBackTransactionIgnored() {
+        stubEvent();
+        EventBalance balance = balanceLedger.getBalance("code");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            balanceLedger.expenseRemoved("code", 1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1260L, balance.getTotalCents());
+    }
+
+    @Test
+    void testEventsWithoutParticipantsNotKept() {
+        when(participantRepository.findAllParticipantNamesInEvent("none")).thenReturn(List.of());
+
+        assertEquals(0L, balanceLedger.getBalance("none").getTotalCents());
+        balanceLedger.getBalance("none");
+
+        verify(participantRepository, times(2)).findAllParticipantNamesInEvent("none");
+        verifyNoInteractions(expenseRepository);
+    }
+}
@@ -0,0 +1,82 @@
+package server.service.settlement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GreedySettlementStrategyTest {
+    private final GreedySettlementStrategy strategy = new GreedySettlementStrategy();
+
+    /**
+     * Every participant paid for one expense shared by everyone
+     */
+    private BalanceSnapshot snapshot(long... paid) {
+        String[] names = new String[paid.length];
+        long[][] debtors = new long[paid.length][];
+        BitSet everyone = new BitSet();
+        everyone.set(0, paid.length);
+        for (int i = 0; i < paid.length; i++) {
+            names[i] = "P" + i;
+            debtors[i] = everyone.toLongArray();
+        }
+        return new BalanceSnapshot(names, IntStream.range(0, paid.length).toArray(), paid, debtors);
+    }
+
+    @Test
+    void testName() {
+        assertEquals("greedy", strategy.getName());
+    }
+
+    @Test
+    void testSettleSimple() {
+        List<Transfer> transfers = strategy.settle(snapshot(900, 0, 0));
+
+        assertEquals(List.of(new Transfer(1, 0, 300), new Transfer(2, 0, 300)), transfers);
+    }
+
+    @Test
+    void testSettleSharedBySome() {
+        // A paid 900 shared by B and C, B paid 100 shared by A and B
+        BalanceSnapshot snapshot = new BalanceSnapshot(new String[]{"A", "B", "C"}, new int[]{0, 1},
+                new long[]{900, 100}, new long[][]{{0b110}, {0b011}});
+
+        List<Transfer> transfers = strategy.settle(snapshot);
+
+        assertEquals(List.of(new Transfer(2, 0, 450), new Transfer(1, 0, 400)), transfers);
+    }
+
+    @Test
+    void testSettleNothingPaid() {
+        assertTrue(strategy.settle(snapshot(0, 0, 0)).isEmpty());
+        assertTrue(strategy.settle(snapshot(500)).isEmpty());
+    }
+
+    @Test
+    void testSettleLargeEvent() {
+        Random random = new Random(42);
+        long[] paid = new long[500];
+        for (int i = 0; i < paid.length; i++) paid[i] = random.nextInt(100_000);
+
+        List<Transfer> transfers = strategy.settle(snapshot(paid));
+
+        assertTrue(transfers.size() <= paid.length - 1);
+        long total = 0;
+        for (long p : paid) total += p;
+        long[] balance = paid.clone();
+        for (Transfer transfer : transfers) {
+            assertTrue(transfer.cents() > 0);
+            balance[transfer.debtor()] += transfer.cents();
+            balance[transfer.creditor()] -= transfer.cents();
+        }
+        // after settling, everyone has paid their share, give or take the cent that cannot be split
+        long share = total / paid.length;
+        for (long b : balance) {
+            assertTrue(b == share || b == share + 1);
+        }
+    }
+}
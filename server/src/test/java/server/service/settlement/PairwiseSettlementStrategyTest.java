@@ -0,0 +1,56 @@
+package server.service.settlement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PairwiseSettlementStrategyTest {
+    private final PairwiseSettlementStrategy strategy = new PairwiseSettlementStrategy();
+
+    @Test
+    void testName() {
+        assertEquals("pairwise", strategy.getName());
+    }
+
+    @Test
+    void testSettle() {
+        // A paid 1000 and B paid 300, both shared by everyone
+        BalanceSnapshot snapshot = new BalanceSnapshot(new String[]{"A", "B", "C"}, new int[]{0, 1},
+                new long[]{1000, 300}, new long[][]{{0b111}, {0b111}});
+
+        List<Transfer> transfers = strategy.settle(snapshot);
+
+        // A owes the cent of their own expense that cannot be split
+        assertEquals(List.of(
+                new Transfer(1, 0, 333),
+                new Transfer(2, 0, 333),
+                new Transfer(0, 1, 100),
+                new Transfer(2, 1, 100)
+        ), transfers);
+    }
+
+    @Test
+    void testSettleSharedBySome() {
+        // A paid 900 shared by B and C, B paid 100 shared by A and B
+        BalanceSnapshot snapshot = new BalanceSnapshot(new String[]{"A", "B", "C"}, new int[]{0, 1},
+                new long[]{900, 100}, new long[][]{{0b110}, {0b011}});
+
+        List<Transfer> transfers = strategy.settle(snapshot);
+
+        assertEquals(List.of(
+                new Transfer(1, 0, 450),
+                new Transfer(2, 0, 450),
+                new Transfer(0, 1, 50)
+        ), transfers);
+    }
+
+    @Test
+    void testSettleSingleParticipant() {
+        BalanceSnapshot snapshot = new BalanceSnapshot(new String[]{"A"}, new int[]{0},
+                new long[]{1000}, new long[][]{{0b1}});
+
+        assertTrue(strategy.settle(snapshot).isEmpty());
+    }
+}